@@ -0,0 +1,46 @@
+package com.ecommerce.analytics.controller;
+
+import com.ecommerce.analytics.dto.ItemSalesDto;
+import com.ecommerce.analytics.dto.SalesBucketDto;
+import com.ecommerce.analytics.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Доступ только для ADMIN: правило /analytics/** в SecurityConfig
+@RestController
+@RequestMapping("/analytics/sales")
+@RequiredArgsConstructor
+public class SalesAnalyticsController {
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @GetMapping("/hourly")
+    public ResponseEntity<List<SalesBucketDto>> getHourly(@RequestParam(value = "hours", defaultValue = "24") int hours) {
+        return ResponseEntity.ok(salesAnalyticsService.getHourly(hours));
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<SalesBucketDto>> getDaily(@RequestParam(value = "days", defaultValue = "30") int days) {
+        return ResponseEntity.ok(salesAnalyticsService.getDaily(days));
+    }
+
+    @GetMapping("/totals")
+    public ResponseEntity<SalesBucketDto> getTotals() {
+        return ResponseEntity.ok(salesAnalyticsService.getTotals());
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ItemSalesDto>> getTopProducts(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.getTopProducts(limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<ItemSalesDto>> getTopCategories(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.getTopCategories(limit));
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Продажи товара или категории
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSalesDto {
+    private Long id;
+    private long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.analytics.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class SalesBucketDto {
+    // Начало интервала (UTC); null для итогов за все время
+    private LocalDateTime periodStart;
+    private long ordersCreated;
+    private long ordersPaid;
+    private long ordersCancelled;
+    private BigDecimal revenue;
+    private long unitsSold;
+    private BigDecimal averageOrderValue;
+    private double averageBasketUnits;
+    // Доля оплаченных от созданных за интервал
+    private double conversionRate;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Последнее сохраненное состояние агрегатов в памяти; одна строка на инстанс
+@Data
+@Entity
+@Table(name = "analytics_checkpoints")
+public class AnalyticsCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.analytics.repository;
+
+import com.ecommerce.analytics.entity.AnalyticsCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AnalyticsCheckpointRepository extends JpaRepository<AnalyticsCheckpoint, String> {
+}
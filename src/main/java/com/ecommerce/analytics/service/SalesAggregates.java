@@ -0,0 +1,185 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.order.event.OrderLifecycleEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Агрегаты продаж в памяти: почасовые и посуточные корзины (UTC) с ограниченным хранением,
+// накопленные штуки и выручка по товарам и категориям, общие счетчики.
+// Запись - несколько инкрементов LongAdder без блокировок; чтение собирает копию состояния
+class SalesAggregates {
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private final int hourlyRetention;
+    private final int dailyRetention;
+    private final ConcurrentSkipListMap<Long, Counters> hours = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Counters> days = new ConcurrentSkipListMap<>();
+    private final Map<Long, ItemCounters> products = new ConcurrentHashMap<>();
+    private final Map<Long, ItemCounters> categories = new ConcurrentHashMap<>();
+    private final Counters totals = new Counters();
+
+    SalesAggregates(int hourlyRetention, int dailyRetention) {
+        this.hourlyRetention = hourlyRetention;
+        this.dailyRetention = dailyRetention;
+    }
+
+    void record(OrderLifecycleEvent event) {
+        long epochSecond = event.occurredAt().getEpochSecond();
+        Counters hour = bucket(hours, Math.floorDiv(epochSecond, SECONDS_PER_HOUR), hourlyRetention);
+        Counters day = bucket(days, Math.floorDiv(epochSecond, SECONDS_PER_DAY), dailyRetention);
+
+        switch (event.type()) {
+            case CREATED -> {
+                hour.created.increment();
+                day.created.increment();
+                totals.created.increment();
+            }
+            case CANCELLED -> {
+                hour.cancelled.increment();
+                day.cancelled.increment();
+                totals.cancelled.increment();
+            }
+            case PAID -> {
+                long units = 0;
+                for (OrderLifecycleEvent.Line line : event.lines()) {
+                    units += line.quantity();
+                    products.computeIfAbsent(line.productId(), id -> new ItemCounters())
+                            .add(line.quantity(), line.amountMinorUnits());
+                    if (line.categoryId() != null) {
+                        categories.computeIfAbsent(line.categoryId(), id -> new ItemCounters())
+                                .add(line.quantity(), line.amountMinorUnits());
+                    }
+                }
+                hour.addPaid(event.totalMinorUnits(), units);
+                day.addPaid(event.totalMinorUnits(), units);
+                totals.addPaid(event.totalMinorUnits(), units);
+            }
+        }
+    }
+
+    // Последние count корзин, начиная с текущей, от новых к старым; пустые интервалы пропускаются
+    List<BucketState> hourly(Instant now, int count) {
+        return recent(hours, Math.floorDiv(now.getEpochSecond(), SECONDS_PER_HOUR), count);
+    }
+
+    List<BucketState> daily(Instant now, int count) {
+        return recent(days, Math.floorDiv(now.getEpochSecond(), SECONDS_PER_DAY), count);
+    }
+
+    BucketState totals() {
+        return totals.toState(0);
+    }
+
+    List<ItemState> topProducts(int limit) {
+        return top(products, limit);
+    }
+
+    List<ItemState> topCategories(int limit) {
+        return top(categories, limit);
+    }
+
+    Checkpoint toCheckpoint() {
+        return new Checkpoint(
+                hours.entrySet().stream().map(entry -> entry.getValue().toState(entry.getKey())).toList(),
+                days.entrySet().stream().map(entry -> entry.getValue().toState(entry.getKey())).toList(),
+                products.entrySet().stream().map(entry -> entry.getValue().toState(entry.getKey())).toList(),
+                categories.entrySet().stream().map(entry -> entry.getValue().toState(entry.getKey())).toList(),
+                totals.toState(0));
+    }
+
+    // Восстановленные значения добавляются к уже накопленным с момента старта
+    void restore(Checkpoint checkpoint) {
+        checkpoint.hours().forEach(state -> bucket(hours, state.key(), hourlyRetention).add(state));
+        checkpoint.days().forEach(state -> bucket(days, state.key(), dailyRetention).add(state));
+        checkpoint.products().forEach(state ->
+                products.computeIfAbsent(state.id(), id -> new ItemCounters()).add(state.units(), state.revenueMinorUnits()));
+        checkpoint.categories().forEach(state ->
+                categories.computeIfAbsent(state.id(), id -> new ItemCounters()).add(state.units(), state.revenueMinorUnits()));
+        totals.add(checkpoint.totals());
+    }
+
+    private static Counters bucket(ConcurrentSkipListMap<Long, Counters> buckets, long key, int retention) {
+        Counters counters = buckets.computeIfAbsent(key, k -> new Counters());
+        // Корзины старше окна хранения отбрасываются; опоздавшее событие в такую корзину теряется
+        buckets.headMap(buckets.lastKey() - retention + 1).clear();
+        return counters;
+    }
+
+    private static List<BucketState> recent(ConcurrentSkipListMap<Long, Counters> buckets, long currentKey, int count) {
+        NavigableMap<Long, Counters> window = buckets.subMap(currentKey - count, false, currentKey, true).descendingMap();
+        List<BucketState> result = new ArrayList<>(window.size());
+        window.forEach((key, counters) -> result.add(counters.toState(key)));
+        return result;
+    }
+
+    private static List<ItemState> top(Map<Long, ItemCounters> items, int limit) {
+        return items.entrySet().stream()
+                .map(entry -> entry.getValue().toState(entry.getKey()))
+                .sorted(Comparator.comparingLong(ItemState::units).reversed().thenComparing(ItemState::id))
+                .limit(limit)
+                .toList();
+    }
+
+    // key - номер часа или суток от эпохи
+    record BucketState(long key, long created, long paid, long cancelled, long revenueMinorUnits, long units) {
+    }
+
+    record ItemState(long id, long units, long revenueMinorUnits) {
+    }
+
+    record Checkpoint(List<BucketState> hours,
+                      List<BucketState> days,
+                      List<ItemState> products,
+                      List<ItemState> categories,
+                      BucketState totals) {
+    }
+
+    private static final class Counters {
+        private final LongAdder created = new LongAdder();
+        private final LongAdder paid = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder revenue = new LongAdder();
+        private final LongAdder units = new LongAdder();
+
+        void addPaid(long revenueMinorUnits, long paidUnits) {
+            paid.increment();
+            revenue.add(revenueMinorUnits);
+            units.add(paidUnits);
+        }
+
+        void add(BucketState state) {
+            created.add(state.created());
+            paid.add(state.paid());
+            cancelled.add(state.cancelled());
+            revenue.add(state.revenueMinorUnits());
+            units.add(state.units());
+        }
+
+        BucketState toState(long key) {
+            return new BucketState(key, created.sum(), paid.sum(), cancelled.sum(), revenue.sum(), units.sum());
+        }
+    }
+
+    private static final class ItemCounters {
+        private final LongAdder units = new LongAdder();
+        private final LongAdder revenue = new LongAdder();
+
+        void add(long addedUnits, long revenueMinorUnits) {
+            units.add(addedUnits);
+            revenue.add(revenueMinorUnits);
+        }
+
+        ItemState toState(long id) {
+            return new ItemState(id, units.sum(), revenue.sum());
+        }
+    }
+}
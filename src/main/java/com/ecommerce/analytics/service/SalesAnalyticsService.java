@@ -0,0 +1,147 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.ItemSalesDto;
+import com.ecommerce.analytics.dto.SalesBucketDto;
+import com.ecommerce.analytics.entity.AnalyticsCheckpoint;
+import com.ecommerce.analytics.repository.AnalyticsCheckpointRepository;
+import com.ecommerce.common.money.Money;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.event.OrderLifecycleEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Аналитика продаж из событий жизненного цикла заказа, без запросов к orders/order_items.
+// События принимаются после коммита их транзакции; агрегаты периодически сохраняются
+// в analytics_checkpoints и восстанавливаются при старте. События между последним
+// сохранением и остановкой инстанса теряются — для оперативной аналитики это допустимо.
+// Агрегаты считаются по событиям своего инстанса, контрольная точка именуется по app.id.node-id
+@Slf4j
+@Service
+public class SalesAnalyticsService {
+    private static final int MAX_BUCKETS = 400;
+    private static final int MAX_TOP = 100;
+
+    private final AnalyticsCheckpointRepository checkpointRepository;
+    private final ObjectMapper objectMapper;
+    private final String checkpointName;
+    private final SalesAggregates aggregates;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public SalesAnalyticsService(AnalyticsCheckpointRepository checkpointRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.id.node-id:0}") long nodeId,
+                                 @Value("${app.analytics.hourly-retention:168}") int hourlyRetention,
+                                 @Value("${app.analytics.daily-retention:400}") int dailyRetention) {
+        this.checkpointRepository = checkpointRepository;
+        this.objectMapper = objectMapper;
+        this.checkpointName = "sales-" + nodeId;
+        this.aggregates = new SalesAggregates(hourlyRetention, dailyRetention);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderLifecycleEvent event) {
+        aggregates.record(event);
+        dirty.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        checkpointRepository.findById(checkpointName).ifPresent(checkpoint -> {
+            try {
+                aggregates.restore(objectMapper.readValue(checkpoint.getPayload(), SalesAggregates.Checkpoint.class));
+                log.info("Restored sales analytics checkpoint from {}", checkpoint.getUpdatedAt());
+            } catch (JsonProcessingException e) {
+                log.warn("Ignoring unreadable sales analytics checkpoint", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        AnalyticsCheckpoint checkpoint = new AnalyticsCheckpoint();
+        checkpoint.setName(checkpointName);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        try {
+            checkpoint.setPayload(objectMapper.writeValueAsString(aggregates.toCheckpoint()));
+            checkpointRepository.save(checkpoint);
+        } catch (JsonProcessingException | RuntimeException e) {
+            dirty.set(true);
+            log.warn("Failed to save sales analytics checkpoint: {}", e.getMessage());
+        }
+    }
+
+    public List<SalesBucketDto> getHourly(int hours) {
+        return aggregates.hourly(Instant.now(), clamp(hours, MAX_BUCKETS)).stream()
+                .map(state -> toDto(state, LocalDateTime.ofEpochSecond(state.key() * 3600, 0, ZoneOffset.UTC)))
+                .toList();
+    }
+
+    public List<SalesBucketDto> getDaily(int days) {
+        return aggregates.daily(Instant.now(), clamp(days, MAX_BUCKETS)).stream()
+                .map(state -> toDto(state, LocalDateTime.ofEpochSecond(state.key() * 86400, 0, ZoneOffset.UTC)))
+                .toList();
+    }
+
+    public SalesBucketDto getTotals() {
+        return toDto(aggregates.totals(), null);
+    }
+
+    public List<ItemSalesDto> getTopProducts(int limit) {
+        return aggregates.topProducts(clamp(limit, MAX_TOP)).stream().map(SalesAnalyticsService::toDto).toList();
+    }
+
+    public List<ItemSalesDto> getTopCategories(int limit) {
+        return aggregates.topCategories(clamp(limit, MAX_TOP)).stream().map(SalesAnalyticsService::toDto).toList();
+    }
+
+    private static SalesBucketDto toDto(SalesAggregates.BucketState state, LocalDateTime periodStart) {
+        SalesBucketDto dto = new SalesBucketDto();
+        dto.setPeriodStart(periodStart);
+        dto.setOrdersCreated(state.created());
+        dto.setOrdersPaid(state.paid());
+        dto.setOrdersCancelled(state.cancelled());
+        dto.setRevenue(toAmount(state.revenueMinorUnits()));
+        dto.setUnitsSold(state.units());
+        if (state.paid() > 0) {
+            dto.setAverageOrderValue(toAmount(state.revenueMinorUnits())
+                    .divide(BigDecimal.valueOf(state.paid()), 2, RoundingMode.HALF_UP));
+            dto.setAverageBasketUnits((double) state.units() / state.paid());
+        } else {
+            dto.setAverageOrderValue(BigDecimal.ZERO);
+        }
+        if (state.created() > 0) {
+            dto.setConversionRate((double) state.paid() / state.created());
+        }
+        return dto;
+    }
+
+    private static ItemSalesDto toDto(SalesAggregates.ItemState state) {
+        return new ItemSalesDto(state.id(), state.units(), toAmount(state.revenueMinorUnits()));
+    }
+
+    private static BigDecimal toAmount(long minorUnits) {
+        return Money.ofMinor(minorUnits, Order.CURRENCY).toBigDecimal();
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(1, Math.min(value, max));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.archive.service;
+
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.products.service.ProductReservationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+// Архивация в ночное окно: короткие транзакции по batch-size записей с паузой между ними,
+// прерывается по истечении max-duration, остаток переносится на следующую ночь
+@Slf4j
+@Component
+public class ArchivalScheduler {
+    private final OrderService orderService;
+    private final ProductReservationService productReservationService;
+    private final Duration orderAge;
+    private final Duration reservationAge;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final Duration maxDuration;
+
+    public ArchivalScheduler(OrderService orderService,
+                             ProductReservationService productReservationService,
+                             @Value("${app.archive.order-age:P365D}") Duration orderAge,
+                             @Value("${app.archive.reservation-age:P7D}") Duration reservationAge,
+                             @Value("${app.archive.batch-size:200}") int batchSize,
+                             @Value("${app.archive.batch-pause-ms:100}") long batchPauseMs,
+                             @Value("${app.archive.max-duration:PT1H}") Duration maxDuration) {
+        this.orderService = orderService;
+        this.productReservationService = productReservationService;
+        this.orderAge = orderAge;
+        this.reservationAge = reservationAge;
+        this.batchSize = batchSize;
+        this.batchPauseMs = batchPauseMs;
+        this.maxDuration = maxDuration;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 0 3 * * *}")
+    public void archive() {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        LocalDateTime now = LocalDateTime.now();
+
+        int orders = drain(() -> orderService.archiveClosedOrders(now.minus(orderAge), batchSize), deadline);
+        int reservations = drain(() -> productReservationService.archiveInactiveReservations(now.minus(reservationAge), batchSize), deadline);
+
+        if (orders > 0 || reservations > 0) {
+            log.info("Archived {} orders and {} inactive reservations", orders, reservations);
+        }
+    }
+
+    private int drain(IntSupplier batch, long deadline) {
+        int total = 0;
+        int moved;
+        do {
+            try {
+                moved = batch.getAsInt();
+            } catch (RuntimeException e) {
+                log.warn("Archival batch failed, will retry in the next window: {}", e.getMessage());
+                return total;
+            }
+            total += moved;
+            if (moved == batchSize && !pause()) {
+                return total;
+            }
+        } while (moved == batchSize && System.nanoTime() < deadline);
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.cart.controller;
+
+import com.ecommerce.cart.dto.CartDto;
+import com.ecommerce.cart.dto.CheckoutRequest;
+import com.ecommerce.cart.dto.UpdateCartItemRequest;
+import com.ecommerce.cart.service.CartService;
+import com.ecommerce.idempotency.service.IdempotencyService;
+import com.ecommerce.order.dto.OrderDto;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/cart/user/{userId}")
+@RequiredArgsConstructor
+public class CartController {
+    private static final String CHECKOUT_SCOPE = "cart-checkout";
+
+    private final CartService cartService;
+    private final IdempotencyService idempotencyService;
+
+    @GetMapping
+    public ResponseEntity<CartDto> getCart(
+            @PathVariable Long userId,
+            @RequestParam(value = "promoCode", required = false) String promoCode) {
+        return ResponseEntity.ok(cartService.getCart(userId, promoCode));
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartDto> setItemQuantity(
+            @PathVariable Long userId,
+            @PathVariable Long productId,
+            @RequestBody @Valid UpdateCartItemRequest request) {
+        return ResponseEntity.ok(cartService.setItemQuantity(userId, productId, request.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDto> removeItem(@PathVariable Long userId, @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeItem(userId, productId));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearCart(@PathVariable Long userId) {
+        cartService.clearCart(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<OrderDto> checkout(
+            @PathVariable Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody @Valid CheckoutRequest request) {
+        OrderDto order = idempotencyKey == null
+                ? cartService.checkout(userId, request)
+                : idempotencyService.execute(CHECKOUT_SCOPE, userId + ":" + idempotencyKey, request,
+                        OrderDto.class, () -> cartService.checkout(userId, request));
+        return ResponseEntity.created(URI.create("/orders/" + order.getId())).body(order);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.cart.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CartDto {
+    private Long userId;
+    private List<CartItemDto> items;
+    private Integer itemCount;
+    private BigDecimal subtotal;
+    // Оценка по правилам ценообразования без адреса доставки
+    private BigDecimal discount;
+    private String promoCode;
+    private BigDecimal shippingCost;
+    private BigDecimal tax;
+    private BigDecimal total;
+    private LocalDateTime updatedAt;
+}
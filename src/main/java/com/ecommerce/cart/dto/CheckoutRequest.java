@@ -0,0 +1,20 @@
+package com.ecommerce.cart.dto;
+
+import com.ecommerce.order.dto.ShippingAddressRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CheckoutRequest {
+    @Valid
+    @NotNull(message = "Shipping address is required")
+    private ShippingAddressRequest shippingAddress;
+
+    @Size(max = 64, message = "Promo code is too long")
+    private String promoCode;
+
+    @Size(max = 32, message = "Shipping carrier is too long")
+    private String shippingCarrier;
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.cart.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class UpdateCartItemRequest {
+    // 0 удаляет позицию из корзины
+    @NotNull(message = "Quantity is required")
+    @Min(value = 0, message = "Quantity cannot be negative")
+    @Max(value = 1000, message = "Quantity cannot exceed 1000")
+    private Integer quantity;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.cart.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Сохраненная копия корзины, используется только при app.cart.persistence-enabled=true
+@Data
+@Entity
+@Table(name = "cart_snapshots", indexes = {
+        @Index(name = "idx_cart_snapshots_updated_at", columnList = "updatedAt")
+})
+public class CartSnapshot {
+    @Id
+    private Long userId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
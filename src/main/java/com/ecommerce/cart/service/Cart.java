@@ -0,0 +1,106 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.common.money.Money;
+import com.ecommerce.order.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Корзина пользователя в памяти. Итоги поддерживаются инкрементально:
+// изменение позиции вычитает ее прежнюю сумму и прибавляет новую, без прохода по всем позициям.
+public class Cart {
+    private final Long userId;
+    private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+    private long subtotalMinor;
+    private int itemCount;
+    private long version;
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public Cart(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public synchronized void putLine(CartLine line) {
+        CartLine previous = lines.put(line.productId(), line);
+        if (previous != null) {
+            subtract(previous);
+        }
+        subtotalMinor = Math.addExact(subtotalMinor, line.lineTotal().getMinorUnits());
+        itemCount += line.quantity();
+        touch();
+    }
+
+    public synchronized boolean removeLine(Long productId) {
+        CartLine removed = lines.remove(productId);
+        if (removed == null) {
+            return false;
+        }
+        subtract(removed);
+        touch();
+        return true;
+    }
+
+    // Убирает только позиции, не изменившиеся с момента снимка (например, после оформления заказа)
+    public synchronized void removeLines(Collection<CartLine> checkedOut) {
+        for (CartLine line : checkedOut) {
+            if (line.equals(lines.get(line.productId()))) {
+                lines.remove(line.productId());
+                subtract(line);
+            }
+        }
+        touch();
+    }
+
+    public synchronized int getLineCount() {
+        return lines.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public synchronized boolean containsLine(Long productId) {
+        return lines.containsKey(productId);
+    }
+
+    public synchronized List<CartLine> getLines() {
+        return List.copyOf(lines.values());
+    }
+
+    public synchronized Money getSubtotal() {
+        return Money.ofMinor(subtotalMinor, Order.CURRENCY);
+    }
+
+    public synchronized int getItemCount() {
+        return itemCount;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    synchronized void restoreUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    private void subtract(CartLine line) {
+        subtotalMinor = Math.subtractExact(subtotalMinor, line.lineTotal().getMinorUnits());
+        itemCount -= line.quantity();
+    }
+
+    private void touch() {
+        version++;
+        updatedAt = LocalDateTime.now();
+    }
+}
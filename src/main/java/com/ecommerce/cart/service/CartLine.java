@@ -0,0 +1,11 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.common.money.Money;
+
+// Неизменяемая позиция корзины; цена фиксируется при добавлении или изменении количества
+public record CartLine(Long productId, String productName, Money unitPrice, int quantity) {
+
+    public Money lineTotal() {
+        return unitPrice.times(quantity);
+    }
+}
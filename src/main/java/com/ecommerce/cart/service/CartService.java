@@ -0,0 +1,146 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.dto.CartDto;
+import com.ecommerce.cart.dto.CheckoutRequest;
+import com.ecommerce.common.exception.CartException;
+import com.ecommerce.common.exception.InsufficientStockException;
+import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.common.money.Money;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.ProductRequest;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.pricing.dto.PricingRequest;
+import com.ecommerce.pricing.service.PricingEngine;
+import com.ecommerce.products.dto.ProductAvailabilityDto;
+import com.ecommerce.products.service.ProductReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CartService {
+    static final int MAX_CART_LINES = 100;
+
+    private final CartStore cartStore;
+    private final ProductReservationService productReservationService;
+    private final PricingEngine pricingEngine;
+    private final OrderService orderService;
+
+    public CartDto getCart(Long userId, String promoCode) {
+        return cartStore.find(userId)
+                .map(cart -> convertToDto(cart, promoCode))
+                .orElseGet(() -> convertToDto(new Cart(userId), promoCode));
+    }
+
+    public CartDto setItemQuantity(Long userId, Long productId, int quantity) {
+        if (quantity == 0) {
+            return removeItem(userId, productId);
+        }
+
+        // Предварительная проверка по текущему остатку; резервирование произойдет при оформлении
+        ProductAvailabilityDto availability = productReservationService.getAvailability(List.of(productId)).get(productId);
+        if (availability == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        if (!availability.isActive()) {
+            throw new CartException("Product is not available: " + availability.getName());
+        }
+        if (availability.getAvailableQuantity() < quantity) {
+            throw new InsufficientStockException("Not enough stock available for product: " + availability.getName());
+        }
+
+        Cart cart = cartStore.getOrCreate(userId);
+        synchronized (cart) {
+            if (!cart.containsLine(productId) && cart.getLineCount() >= MAX_CART_LINES) {
+                throw new CartException("Cart cannot contain more than " + MAX_CART_LINES + " products");
+            }
+            cart.putLine(new CartLine(productId, availability.getName(),
+                    Money.of(availability.getPrice(), Order.CURRENCY, RoundingMode.HALF_UP), quantity));
+        }
+        cartStore.save(cart);
+        return convertToDto(cart, null);
+    }
+
+    public CartDto removeItem(Long userId, Long productId) {
+        return cartStore.find(userId)
+                .map(cart -> {
+                    if (cart.removeLine(productId)) {
+                        cartStore.save(cart);
+                    }
+                    return convertToDto(cart, null);
+                })
+                .orElseGet(() -> convertToDto(new Cart(userId), null));
+    }
+
+    public void clearCart(Long userId) {
+        cartStore.remove(userId);
+    }
+
+    // Корзина уже проверена и посчитана: оформление - одно создание заказа с пакетным резервированием
+    public OrderDto checkout(Long userId, CheckoutRequest request) {
+        Cart cart = cartStore.find(userId)
+                .orElseThrow(() -> new CartException("Cart is empty"));
+        List<CartLine> lines = cart.getLines();
+        if (lines.isEmpty()) {
+            throw new CartException("Cart is empty");
+        }
+
+        OrderRequest orderRequest = new OrderRequest();
+        orderRequest.setItems(lines.stream().map(CartService::toOrderItemRequest).toList());
+        orderRequest.setShippingAddress(request.getShippingAddress());
+        orderRequest.setPromoCode(request.getPromoCode());
+        orderRequest.setShippingCarrier(request.getShippingCarrier());
+
+        OrderDto order = orderService.createOrder(userId, orderRequest);
+
+        // Позиции, измененные во время оформления, остаются в корзине
+        cart.removeLines(lines);
+        if (cart.isEmpty()) {
+            cartStore.remove(userId);
+        } else {
+            cartStore.save(cart);
+        }
+        return order;
+    }
+
+    private CartDto convertToDto(Cart cart, String promoCode) {
+        CartDto dto = new CartDto();
+        Money subtotal;
+        synchronized (cart) {
+            dto.setUserId(cart.getUserId());
+            dto.setItems(cart.getLines().stream().map(CartStore::toItemDto).toList());
+            dto.setItemCount(cart.getItemCount());
+            dto.setUpdatedAt(cart.getUpdatedAt());
+            subtotal = cart.getSubtotal();
+        }
+
+        PricingRequest pricingRequest = new PricingRequest();
+        pricingRequest.setSubtotal(subtotal);
+        pricingRequest.setPromoCode(promoCode);
+        PriceQuote quote = pricingEngine.quote(pricingRequest);
+
+        dto.setSubtotal(subtotal.toBigDecimal());
+        dto.setDiscount(quote.getDiscount().toBigDecimal());
+        dto.setPromoCode(quote.getAppliedPromoCode());
+        dto.setShippingCost(quote.getShippingCost().toBigDecimal());
+        dto.setTax(quote.getTax().toBigDecimal());
+        dto.setTotal(quote.getTotal().toBigDecimal());
+        return dto;
+    }
+
+    private static OrderItemRequest toOrderItemRequest(CartLine line) {
+        ProductRequest product = new ProductRequest();
+        product.setId(line.productId());
+        OrderItemRequest item = new OrderItemRequest();
+        item.setProduct(product);
+        item.setQuantity(line.quantity());
+        return item;
+    }
+}
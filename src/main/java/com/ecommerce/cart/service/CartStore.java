@@ -0,0 +1,143 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.dto.CartItemDto;
+import com.ecommerce.cart.entity.CartSnapshot;
+import com.ecommerce.cart.repository.CartSnapshotRepository;
+import com.ecommerce.common.money.Money;
+import com.ecommerce.order.entity.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Корзины в ограниченном по размеру кэше с вытеснением по времени бездействия.
+// При включенной персистентности каждое изменение пишется в cart_snapshots,
+// а промах кэша восстанавливает корзину оттуда, если она еще не истекла.
+@Slf4j
+@Component
+public class CartStore {
+    private static final TypeReference<List<CartItemDto>> LINES_TYPE = new TypeReference<>() {
+    };
+
+    private final Cache<Long, Cart> carts;
+    private final CartSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final boolean persistenceEnabled;
+
+    public CartStore(CartSnapshotRepository snapshotRepository,
+                     ObjectMapper objectMapper,
+                     @Value("${app.cart.ttl:PT2H}") Duration ttl,
+                     @Value("${app.cart.max-size:100000}") long maxSize,
+                     @Value("${app.cart.persistence-enabled:false}") boolean persistenceEnabled) {
+        this.snapshotRepository = snapshotRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.persistenceEnabled = persistenceEnabled;
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    public Cart getOrCreate(Long userId) {
+        return carts.get(userId, id -> load(id).orElseGet(() -> new Cart(id)));
+    }
+
+    public Optional<Cart> find(Long userId) {
+        Cart cart = carts.getIfPresent(userId);
+        if (cart != null || !persistenceEnabled) {
+            return Optional.ofNullable(cart);
+        }
+        return Optional.ofNullable(carts.get(userId, id -> load(id).orElse(null)));
+    }
+
+    public void save(Cart cart) {
+        if (!persistenceEnabled) {
+            return;
+        }
+        CartSnapshot snapshot = new CartSnapshot();
+        synchronized (cart) {
+            snapshot.setUserId(cart.getUserId());
+            snapshot.setUpdatedAt(cart.getUpdatedAt());
+            snapshot.setPayload(serialize(cart.getLines()));
+        }
+        snapshotRepository.save(snapshot);
+    }
+
+    public void remove(Long userId) {
+        carts.invalidate(userId);
+        if (persistenceEnabled) {
+            snapshotRepository.deleteById(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.cleanup-interval-ms:600000}")
+    public void cleanupExpiredSnapshots() {
+        if (persistenceEnabled) {
+            int deleted = snapshotRepository.deleteExpired(LocalDateTime.now().minus(ttl));
+            if (deleted > 0) {
+                log.info("Deleted {} expired cart snapshots", deleted);
+            }
+        }
+    }
+
+    long estimatedSize() {
+        carts.cleanUp();
+        return carts.estimatedSize();
+    }
+
+    private Optional<Cart> load(Long userId) {
+        if (!persistenceEnabled) {
+            return Optional.empty();
+        }
+        return snapshotRepository.findById(userId)
+                .filter(snapshot -> snapshot.getUpdatedAt().isAfter(LocalDateTime.now().minus(ttl)))
+                .map(this::restore);
+    }
+
+    private Cart restore(CartSnapshot snapshot) {
+        Cart cart = new Cart(snapshot.getUserId());
+        try {
+            for (CartItemDto item : objectMapper.readValue(snapshot.getPayload(), LINES_TYPE)) {
+                cart.putLine(new CartLine(item.getProductId(), item.getProductName(),
+                        Money.of(item.getUnitPrice(), Order.CURRENCY, RoundingMode.HALF_UP), item.getQuantity()));
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable cart snapshot for user {}", snapshot.getUserId(), e);
+            return new Cart(snapshot.getUserId());
+        }
+        cart.restoreUpdatedAt(snapshot.getUpdatedAt());
+        return cart;
+    }
+
+    private String serialize(List<CartLine> lines) {
+        List<CartItemDto> items = lines.stream().map(CartStore::toItemDto).toList();
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cart", e);
+        }
+    }
+
+    static CartItemDto toItemDto(CartLine line) {
+        CartItemDto dto = new CartItemDto();
+        dto.setProductId(line.productId());
+        dto.setProductName(line.productName());
+        dto.setUnitPrice(line.unitPrice().toBigDecimal());
+        dto.setQuantity(line.quantity());
+        dto.setTotalPrice(line.lineTotal().toBigDecimal());
+        return dto;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.common.exception;
+
+public class CartException extends RuntimeException {
+    public CartException(String message) {
+        super(message);
+    }
+}
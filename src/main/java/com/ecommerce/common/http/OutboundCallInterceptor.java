@@ -0,0 +1,241 @@
+package com.ecommerce.common.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+// Инструментация исходящих HTTP-вызовов OkHttp вместо HttpLoggingInterceptor с уровнем BODY.
+// На каждый вызов - одна строка: метод, хост, шаблон пути, статус, задержка и объем тел,
+// и таймер http.client.outbound с гистограммой по эндпоинтам. Задержка считается до закрытия
+// тела ответа, поэтому включает его чтение. Тела попадают в лог только для выборки вызовов
+// и для ошибок, и не длиннее max-body-bytes; ответ читается через peek и не буферизуется целиком.
+@Slf4j
+@Component
+public class OutboundCallInterceptor implements Interceptor {
+    static final String TIMER = "http.client.outbound";
+
+    private final MeterRegistry meterRegistry;
+    private final double bodySampleRate;
+    private final int maxBodyBytes;
+    private final long slowCallMs;
+    private final DoubleSupplier random;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public OutboundCallInterceptor(MeterRegistry meterRegistry,
+                                   @Value("${app.http-client.body-sample-rate:0.01}") double bodySampleRate,
+                                   @Value("${app.http-client.max-body-bytes:2048}") int maxBodyBytes,
+                                   @Value("${app.http-client.slow-call-ms:2000}") long slowCallMs) {
+        this(meterRegistry, bodySampleRate, maxBodyBytes, slowCallMs,
+                () -> ThreadLocalRandom.current().nextDouble(), System::nanoTime);
+    }
+
+    OutboundCallInterceptor(MeterRegistry meterRegistry, double bodySampleRate, int maxBodyBytes, long slowCallMs,
+                            DoubleSupplier random, LongSupplier nanoTime) {
+        this.meterRegistry = meterRegistry;
+        this.bodySampleRate = bodySampleRate;
+        this.maxBodyBytes = maxBodyBytes;
+        this.slowCallMs = slowCallMs;
+        this.random = random;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        CallRecord record = new CallRecord(request, random.getAsDouble() < bodySampleRate);
+        long started = nanoTime.getAsLong();
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            record.finish(started, "IO_ERROR", -1, e.getClass().getSimpleName() + ": " + e.getMessage());
+            throw e;
+        }
+
+        ResponseBody body = response.body();
+        boolean failed = !response.isSuccessful();
+        String capturedResponse = record.sampled || failed ? peek(response) : null;
+        String status = String.valueOf(response.code());
+        if (body == null) {
+            record.finish(started, status, 0, capturedResponse);
+            return response;
+        }
+
+        // Запись делается при закрытии тела, когда известны полная задержка и число байт
+        CountingSource counting = new CountingSource(body.source(), () ->
+                record.finish(started, status, -1, capturedResponse));
+        ResponseBody counted = ResponseBody.create(Okio.buffer(counting), body.contentType(), body.contentLength());
+        record.responseBytes = counting;
+        return response.newBuilder().body(counted).build();
+    }
+
+    private String peek(Response response) {
+        try {
+            ResponseBody peeked = response.peekBody(maxBodyBytes);
+            long declared = response.body() != null ? response.body().contentLength() : -1;
+            String text = peeked.string();
+            if (declared < 0 && peeked.contentLength() == maxBodyBytes) {
+                return text + "...";
+            }
+            return truncate(text, declared);
+        } catch (IOException e) {
+            return "<unreadable: " + e.getMessage() + ">";
+        }
+    }
+
+    private String captureRequest(RequestBody body) {
+        if (body == null) {
+            return null;
+        }
+        if (body.isOneShot() || body.isDuplex() || !isText(body.contentType())) {
+            return "<" + body.contentType() + ">";
+        }
+        try {
+            Buffer buffer = new Buffer();
+            body.writeTo(buffer);
+            long size = buffer.size();
+            return truncate(buffer.readString(Math.min(size, maxBodyBytes), StandardCharsets.UTF_8), size);
+        } catch (IOException e) {
+            return "<unreadable: " + e.getMessage() + ">";
+        }
+    }
+
+    private String truncate(String body, long size) {
+        return size > maxBodyBytes ? body + "...(" + size + " bytes)" : body;
+    }
+
+    private static boolean isText(MediaType contentType) {
+        return contentType == null || "text".equals(contentType.type())
+                || contentType.subtype().contains("json") || contentType.subtype().contains("xml")
+                || contentType.subtype().contains("form");
+    }
+
+    private static long requestBytes(RequestBody body) {
+        try {
+            return body != null ? body.contentLength() : 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Заменяет идентификаторы в пути на {id}, чтобы число тегов метрики не росло с числом объектов
+    static String endpoint(String path) {
+        StringBuilder template = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/').append(isIdentifier(segment) ? "{id}" : segment);
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static boolean isIdentifier(String segment) {
+        boolean hasDigit = segment.chars().anyMatch(Character::isDigit);
+        boolean allDigits = segment.chars().allMatch(Character::isDigit);
+        return allDigits || (hasDigit && segment.length() >= 10);
+    }
+
+    private final class CallRecord {
+        private final String method;
+        private final String host;
+        private final String endpoint;
+        private final long requestBytes;
+        private final boolean sampled;
+        private final String capturedRequest;
+        private CountingSource responseBytes;
+        private boolean finished;
+
+        private CallRecord(Request request, boolean sampled) {
+            this.method = request.method();
+            this.host = request.url().host();
+            this.endpoint = endpoint(request.url().encodedPath());
+            this.requestBytes = requestBytes(request.body());
+            this.sampled = sampled;
+            this.capturedRequest = sampled ? captureRequest(request.body()) : null;
+        }
+
+        private synchronized void finish(long started, String status, long knownResponseBytes, String capturedResponse) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long elapsed = nanoTime.getAsLong() - started;
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            long received = responseBytes != null ? responseBytes.count : knownResponseBytes;
+
+            Timer.builder(TIMER)
+                    .tag("method", method)
+                    .tag("host", host)
+                    .tag("endpoint", endpoint)
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+
+            boolean failed = !status.startsWith("2");
+            if (failed || elapsedMs >= slowCallMs) {
+                log.warn("Outbound call method={} host={} endpoint={} status={} latencyMs={} requestBytes={} responseBytes={}"
+                        + " request={} response={}",
+                        method, host, endpoint, status, elapsedMs, requestBytes, received, capturedRequest, capturedResponse);
+            } else if (sampled) {
+                log.info("Outbound call method={} host={} endpoint={} status={} latencyMs={} requestBytes={} responseBytes={}"
+                        + " request={} response={}",
+                        method, host, endpoint, status, elapsedMs, requestBytes, received, capturedRequest, capturedResponse);
+            } else {
+                log.info("Outbound call method={} host={} endpoint={} status={} latencyMs={} requestBytes={} responseBytes={}",
+                        method, host, endpoint, status, elapsedMs, requestBytes, received);
+            }
+        }
+    }
+
+    private static final class CountingSource extends ForwardingSource {
+        private final Runnable onClose;
+        private volatile long count;
+
+        private CountingSource(BufferedSource delegate, Runnable onClose) {
+            super(delegate);
+            this.onClose = onClose;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.common.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Генератор 63-битных идентификаторов в стиле Snowflake: 41 бит времени (мс от EPOCH),
+// 10 бит узла, 12 бит последовательности. Идентификаторы монотонно растут в пределах узла,
+// упорядочены по времени между узлами и выдаются без блокировок (CAS по одному AtomicLong).
+@Component
+public class SnowflakeIdGenerator {
+    static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Crockford Base32: без I, L, O, U — легко читать и диктовать
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    // Старшие биты — время последней выдачи, младшие SEQUENCE_BITS — последовательность
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(@Value("${app.id.node-id:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = currentTimeMillis() - EPOCH;
+            // Новая миллисекунда — последовательность с нуля. Иначе (та же мс, откат часов)
+            // увеличиваем последовательность; переполнение переносится во время, сохраняя монотонность.
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    // Фиксированная длина сохраняет порядок строк равным порядку чисел
+    public String nextEncodedId() {
+        return encode(nextId());
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.common.resilience;
+
+import java.util.concurrent.Semaphore;
+
+// Ограничение числа одновременных вызовов внешней системы; лишние отклоняются сразу, без ожидания
+public class Bulkhead {
+    private final Semaphore permits;
+    private final int maxConcurrentCalls;
+
+    public Bulkhead(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.common.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Ограничение частоты вызовов внешней системы: вызовы равномерно распределяются во времени,
+// acquire ждет своего слота. Накопления простаивавших слотов нет, поэтому всплеска после паузы не будет
+public class RateLimiter {
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private long nextFreeNanos;
+
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nanoTime = nanoTime;
+        this.nextFreeNanos = nanoTime.getAsLong();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // Занимает ближайший свободный слот и возвращает, сколько до него ждать
+    synchronized long reserve() {
+        long now = nanoTime.getAsLong();
+        long slot = Math.max(nextFreeNanos, now);
+        nextFreeNanos = slot + intervalNanos;
+        return slot - now;
+    }
+}
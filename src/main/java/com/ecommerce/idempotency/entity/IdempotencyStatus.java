@@ -0,0 +1,6 @@
+package com.ecommerce.idempotency.entity;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
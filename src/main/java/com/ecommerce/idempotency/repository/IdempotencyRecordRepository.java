@@ -0,0 +1,31 @@
+package com.ecommerce.idempotency.repository;
+
+import com.ecommerce.idempotency.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.ecommerce.idempotency.entity.IdempotencyStatus.COMPLETED, " +
+           "r.response = :response WHERE r.id = :id")
+    int complete(@Param("id") Long id, @Param("response") String response);
+
+    // Перехват записи, зависшей в IN_PROGRESS (инстанс упал посреди запроса)
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now WHERE r.id = :id " +
+           "AND r.status = com.ecommerce.idempotency.entity.IdempotencyStatus.IN_PROGRESS AND r.createdAt < :staleBefore")
+    int reclaimStale(@Param("id") Long id, @Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,195 @@
+package com.ecommerce.idempotency.service;
+
+import com.ecommerce.common.exception.IdempotencyConflictException;
+import com.ecommerce.idempotency.entity.IdempotencyRecord;
+import com.ecommerce.idempotency.entity.IdempotencyStatus;
+import com.ecommerce.idempotency.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// Выполняет действие не более одного раза на ключ идемпотентности.
+// Завершенные ответы лежат в ограниченном кэше и в таблице idempotency_records;
+// повтор получает сохраненный ответ без повторного выполнения. Одновременные дубликаты
+// внутри инстанса ждут первый запрос, между инстансами - получают 409 до его завершения.
+@Slf4j
+@Service
+public class IdempotencyService {
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate requiresNew;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${app.idempotency.in-progress-lease:PT5M}") Duration inProgressLease,
+                              @Value("${app.idempotency.cache-size:10000}") long cacheSize) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        String cacheKey = scope + ':' + key;
+        String requestHash = request != null ? hash(request) : null;
+
+        StoredResponse stored = completed.getIfPresent(cacheKey);
+        if (stored != null) {
+            requireSameRequest(stored.requestHash(), requestHash);
+            return deserialize(stored.response(), responseType);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            requireSameRequest(running.requestHash(), requestHash);
+            return deserialize(await(running.response()), responseType);
+        }
+
+        try {
+            String response = claimAndRun(scope, key, cacheKey, requestHash, action);
+            mine.response().complete(response);
+            return deserialize(response, responseType);
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void cleanupExpired() {
+        Integer deleted = requiresNew.execute(status -> recordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} expired idempotency records", deleted);
+        }
+    }
+
+    private String claimAndRun(String scope, String key, String cacheKey, String requestHash, Supplier<?> action) {
+        LocalDateTime now = LocalDateTime.now();
+        Long recordId;
+        try {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setScope(scope);
+            record.setIdempotencyKey(key);
+            record.setRequestHash(requestHash);
+            record.setStatus(IdempotencyStatus.IN_PROGRESS);
+            record.setCreatedAt(now);
+            record.setExpiresAt(now.plus(ttl));
+            recordId = requiresNew.execute(status -> recordRepository.saveAndFlush(record)).getId();
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = recordRepository.findByScopeAndIdempotencyKey(scope, key)
+                    .orElseThrow(() -> new IdempotencyConflictException("Request with this idempotency key is being retried, please retry"));
+            requireSameRequest(existing.getRequestHash(), requestHash);
+
+            if (existing.getStatus() == IdempotencyStatus.COMPLETED) {
+                completed.put(cacheKey, new StoredResponse(requestHash, existing.getResponse()));
+                return existing.getResponse();
+            }
+            Integer reclaimed = requiresNew.execute(status ->
+                    recordRepository.reclaimStale(existing.getId(), now.minus(inProgressLease), now));
+            if (reclaimed == null || reclaimed == 0) {
+                throw new IdempotencyConflictException("Request with this idempotency key is already in progress");
+            }
+            recordId = existing.getId();
+        }
+
+        Object result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            // Неуспешный запрос не запоминаем: клиент может повторить его с тем же ключом
+            Long failedId = recordId;
+            requiresNew.executeWithoutResult(status -> recordRepository.deleteById(failedId));
+            throw e;
+        }
+
+        String response = serialize(result);
+        Long completedId = recordId;
+        requiresNew.executeWithoutResult(status -> recordRepository.complete(completedId, response));
+        completed.put(cacheKey, new StoredResponse(requestHash, response));
+        return response;
+    }
+
+    private static void requireSameRequest(String storedHash, String requestHash) {
+        if (!Objects.equals(storedHash, requestHash)) {
+            throw new IdempotencyConflictException("Idempotency key was already used for a different request");
+        }
+    }
+
+    private static String await(CompletableFuture<String> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String serialize(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store idempotent response", e);
+        }
+    }
+
+    private <T> T deserialize(String response, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to replay idempotent response", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, String response) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<String> response) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.dto.BulkStatusUpdateRequest;
+import com.ecommerce.order.dto.BulkStatusUpdateResultDto;
+import com.ecommerce.order.dto.OrderSearchCriteria;
+import com.ecommerce.order.dto.OrderSearchPageDto;
+import com.ecommerce.order.service.BulkOrderStatusService;
+import com.ecommerce.order.service.OrderSearchService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+
+// Доступ только для ADMIN: правило /admin/** в SecurityConfig
+@RestController
+@RequestMapping("/admin/orders")
+public class AdminOrderController {
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final OrderSearchService orderSearchService;
+    private final BulkOrderStatusService bulkOrderStatusService;
+    private final TaskExecutor exportExecutor;
+    private final Duration exportStreamTimeout;
+
+    public AdminOrderController(OrderSearchService orderSearchService,
+                                BulkOrderStatusService bulkOrderStatusService,
+                                @Qualifier("orderExportExecutor") TaskExecutor exportExecutor,
+                                @Value("${app.order-export.stream-timeout:PT30M}") Duration exportStreamTimeout) {
+        this.orderSearchService = orderSearchService;
+        this.bulkOrderStatusService = bulkOrderStatusService;
+        this.exportExecutor = exportExecutor;
+        this.exportStreamTimeout = exportStreamTimeout;
+    }
+
+    @GetMapping
+    public ResponseEntity<OrderSearchPageDto> searchOrders(
+            @ModelAttribute OrderSearchCriteria criteria,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return ResponseEntity.ok(orderSearchService.search(criteria, cursor, size));
+    }
+
+    // Таймаут задан явно: полная выгрузка идет дольше стандартного таймаута асинхронного запроса (30 с)
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<ResponseBodyEmitter> exportOrders(@ModelAttribute OrderSearchCriteria criteria) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportStreamTimeout.toMillis());
+        exportExecutor.execute(() -> {
+            try {
+                orderSearchService.exportCsv(criteria, new EmitterOutputStream(emitter));
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                // Клиент отключился или выборка упала - поток закрывается с ошибкой
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"")
+                .contentType(CSV)
+                .body(emitter);
+    }
+
+    // Результат возвращается по каждому заказу; недопустимые переходы не прерывают остальные
+    @PostMapping("/status/bulk")
+    public ResponseEntity<BulkStatusUpdateResultDto> updateOrderStatuses(
+            @RequestBody @Valid BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(bulkOrderStatusService.updateStatuses(request));
+    }
+
+    // Выгрузка пишет в OutputStream; каждый сброс буфера уходит клиенту отдельным куском
+    private static final class EmitterOutputStream extends OutputStream {
+        private final ResponseBodyEmitter emitter;
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            emitter.send(new byte[]{(byte) b}, MediaType.APPLICATION_OCTET_STREAM);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                emitter.send(Arrays.copyOfRange(b, off, off + len), MediaType.APPLICATION_OCTET_STREAM);
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.idempotency.service.IdempotencyService;
 import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderHistoryPageDto;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.UpdateOrderStatusDto;
 import com.ecommerce.order.service.OrderService;
@@ -18,7 +20,12 @@ import java.util.List;
 @RequestMapping("/orders")
 @RequiredArgsConstructor
 public class OrderController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String CREATE_ORDER_SCOPE = "order-create";
+    private static final String PAYMENT_SUCCESS_SCOPE = "paypal-execute";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderDto> getOrderById(@PathVariable Long orderId) {
@@ -30,16 +37,34 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrderByNumber(orderNumber));
     }
 
+    @GetMapping("/by-payment/{paymentId}")
+    public ResponseEntity<OrderDto> getOrderByPaymentId(@PathVariable String paymentId) {
+        return ResponseEntity.ok(orderService.getOrderByPaymentId(paymentId));
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<OrderDto>> getUserOrders(@PathVariable Long userId) {
         return ResponseEntity.ok(orderService.getUserOrders(userId));
     }
 
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<OrderHistoryPageDto> getUserOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.getUserOrderHistory(userId, cursor, size));
+    }
+
     @PostMapping("/user/{userId}")
     public ResponseEntity<OrderDto> createOrder(
             @PathVariable Long userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody @Valid OrderRequest request) {
-        OrderDto createdOrder = orderService.createOrder(userId, request);
+        // Повтор с тем же ключом возвращает уже созданный заказ, не резервируя товары повторно
+        OrderDto createdOrder = idempotencyKey == null
+                ? orderService.createOrder(userId, request)
+                : idempotencyService.execute(CREATE_ORDER_SCOPE, userId + ":" + idempotencyKey, request,
+                        OrderDto.class, () -> orderService.createOrder(userId, request));
         return ResponseEntity.created(URI.create("/orders/" + createdOrder.getId()))
         .body(createdOrder);
     }
@@ -71,13 +96,18 @@ public class OrderController {
     public ResponseEntity<Void> handlePaymentSuccess(
             @RequestParam("paymentId") String paymentId,
             @RequestParam("PayerID") String payerId) {
-        try {
-            orderService.processSuccessfulPayment(paymentId, payerId);
-            return ResponseEntity.ok().build();
-        } catch (PayPalRESTException e) {
-            orderService.handlePaymentFailure(paymentId, e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+        // Повторный callback PayPal получает сохраненный результат без второго executePayment
+        boolean approved = idempotencyService.execute(PAYMENT_SUCCESS_SCOPE, paymentId + ":" + payerId, null,
+                Boolean.class, () -> {
+                    try {
+                        orderService.processSuccessfulPayment(paymentId, payerId);
+                        return true;
+                    } catch (PayPalRESTException e) {
+                        orderService.handlePaymentFailure(paymentId, e.getMessage());
+                        return false;
+                    }
+                });
+        return approved ? ResponseEntity.ok().build() : ResponseEntity.badRequest().build();
     }
 
     @GetMapping("/payment/cancel")
@@ -0,0 +1,16 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusItemResultDto {
+    private Long orderId;
+    private BulkStatusOutcome outcome;
+    // Статус до изменения; null, если заказ не найден
+    private OrderStatus previousStatus;
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.order.dto;
+
+public enum BulkStatusOutcome {
+    UPDATED,             // Статус изменен
+    NOT_FOUND,           // Заказа нет
+    INVALID_TRANSITION,  // Переход из текущего статуса запрещен
+    CONFLICT             // Статус заказа изменился параллельно, повторите запрос
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusUpdateRequest {
+    @NotEmpty(message = "Order ids are required")
+    @Size(max = 5000, message = "No more than 5000 orders per request")
+    private List<@NotNull Long> orderIds;
+
+    @NotNull(message = "Order status is required")
+    private OrderStatus status;
+}
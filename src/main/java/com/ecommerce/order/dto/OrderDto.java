@@ -19,6 +19,8 @@ public class OrderDto {
     private ShippingAddressDto shippingAddress;
     private List<OrderItemDto> items;
     private BigDecimal subtotal;
+    private BigDecimal discount;
+    private String promoCode;
     private BigDecimal shippingCost;
     private BigDecimal tax;
     private BigDecimal total;
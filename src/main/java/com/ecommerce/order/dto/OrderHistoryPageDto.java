@@ -0,0 +1,16 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryPageDto {
+    private List<OrderSummaryDto> orders;
+    // ID последнего заказа на странице; передается как cursor для следующей страницы, null — страниц больше нет
+    private Long nextCursor;
+}
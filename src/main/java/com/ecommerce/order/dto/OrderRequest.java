@@ -3,6 +3,7 @@ package com.ecommerce.order.dto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.util.List;
@@ -16,4 +17,10 @@ public class OrderRequest {
     @Valid
     @NotNull(message = "Shipping address is required")
     private ShippingAddressRequest shippingAddress;
+
+    @Size(max = 64, message = "Promo code is too long")
+    private String promoCode;
+
+    @Size(max = 32, message = "Shipping carrier is too long")
+    private String shippingCarrier;
 } 
\ No newline at end of file
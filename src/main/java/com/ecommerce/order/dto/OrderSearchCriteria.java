@@ -0,0 +1,24 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Все фильтры необязательны; в запрос попадают только заданные
+@Data
+public class OrderSearchCriteria {
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private Long userId;
+
+    // Включительно
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    // Не включительно
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
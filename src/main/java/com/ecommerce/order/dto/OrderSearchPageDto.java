@@ -0,0 +1,16 @@
+package com.ecommerce.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchPageDto {
+    private List<OrderSearchRowDto> orders;
+    // Непрозрачный курсор (createdAt, id) последней строки; null — страниц больше нет
+    private String nextCursor;
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderStatus;
+
+// Минимальная проекция заказа для проверки перехода статуса без загрузки сущности
+public record OrderStatusView(Long id, Long userId, OrderStatus status) {
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private String orderNumber;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private BigDecimal total;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+}
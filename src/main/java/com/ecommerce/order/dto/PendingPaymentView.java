@@ -0,0 +1,7 @@
+package com.ecommerce.order.dto;
+
+import java.time.LocalDateTime;
+
+// Заказ с незавершенной оплатой для сверки с PayPal; createdAt и id - позиция keyset-курсора
+public record PendingPaymentView(Long id, String paymentId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// Закрытый заказ, перенесенный из orders/order_items/shipping_address.
+// payload - OrderDto в JSON, сжатый gzip; остальные колонки нужны для поиска
+@Data
+@Entity
+@Table(name = "archived_orders", indexes = {
+        @Index(name = "idx_archived_orders_user_id", columnList = "userId"),
+        @Index(name = "idx_archived_orders_payment_id", columnList = "paymentId")
+})
+public class ArchivedOrder {
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private String orderNumber;
+
+    @Column
+    private String paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(nullable = false, length = 16777216)
+    private byte[] payload;
+}
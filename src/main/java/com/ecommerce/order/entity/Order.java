@@ -1,18 +1,33 @@
 package com.ecommerce.order.entity;
 
+import com.ecommerce.common.money.Money;
 import com.ecommerce.user.entity.User;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_id_id", columnList = "user_id, id"),
+        // Поиск для админки: фильтр по статусу/пользователю и keyset-сортировка по (created_at, id)
+        @Index(name = "idx_orders_status_created_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_payment_status_created_id", columnList = "payment_status, created_at, id"),
+        @Index(name = "idx_orders_user_id_created_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_orders_created_id", columnList = "created_at, id")
+})
 public class Order {
+    public static final Currency CURRENCY = Currency.getInstance("USD");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,7 +36,7 @@ public class Order {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true, length = 32)
     private String orderNumber;
 
     @Enumerated(EnumType.STRING)
@@ -42,6 +57,12 @@ public class Order {
     @Column(nullable = false)
     private BigDecimal subtotal = BigDecimal.ZERO;
 
+    @Column
+    private BigDecimal discount = BigDecimal.ZERO;
+
+    @Column(length = 64)
+    private String promoCode;
+
     @Column(nullable = false)
     private BigDecimal shippingCost = BigDecimal.ZERO;
 
@@ -69,34 +90,47 @@ public class Order {
     @Column
     private String trackingNumber;
 
+    // DEFAULT 0 нужен ddl-auto: update, чтобы существующие строки получили версию, а не NULL;
+    // примитив, чтобы Spring Data определял новизну сущности по id, а не по версии
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version = 0L;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Позиции менялись после последнего пересчета итогов
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean totalsStale;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        calculateTotals();
+        recalculateTotals();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
-        calculateTotals();
+        if (totalsStale) {
+            recalculateTotals();
+        }
     }
 
-    private void calculateTotals() {
+    // Один проход по позициям в центах; вызывается один раз после пакета изменений
+    public void recalculateTotals() {
         if (items == null) {
             items = new ArrayList<>();
         }
-        
-        subtotal = items.stream()
-                .map(item -> item != null && item.getTotalPrice() != null ? item.getTotalPrice() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+        if (discount == null) {
+            discount = BigDecimal.ZERO;
+        }
         if (shippingCost == null) {
             shippingCost = BigDecimal.ZERO;
         }
@@ -104,7 +138,39 @@ public class Order {
             tax = BigDecimal.ZERO;
         }
 
-        total = subtotal.add(shippingCost).add(tax);
+        long subtotalMinor = 0;
+        for (OrderItem item : items) {
+            if (item != null) {
+                subtotalMinor = Math.addExact(subtotalMinor, item.getLineTotal().getMinorUnits());
+            }
+        }
+        Money subtotalMoney = Money.ofMinor(subtotalMinor, CURRENCY);
+        subtotal = subtotalMoney.toBigDecimal();
+        total = subtotalMoney.minus(getDiscountMoney())
+                .plus(getShippingCostMoney())
+                .plus(getTaxMoney())
+                .toBigDecimal();
+        totalsStale = false;
+    }
+
+    public Money getSubtotalMoney() {
+        return toMoney(subtotal);
+    }
+
+    public Money getDiscountMoney() {
+        return toMoney(discount);
+    }
+
+    public Money getShippingCostMoney() {
+        return toMoney(shippingCost);
+    }
+
+    public Money getTaxMoney() {
+        return toMoney(tax);
+    }
+
+    public Money getTotalMoney() {
+        return toMoney(total);
     }
 
     public void addItem(OrderItem item) {
@@ -113,14 +179,22 @@ public class Order {
         }
         items.add(item);
         item.setOrder(this);
-        calculateTotals();
+        totalsStale = true;
+    }
+
+    public void addItems(Collection<OrderItem> newItems) {
+        newItems.forEach(this::addItem);
     }
 
     public void removeItem(OrderItem item) {
         if (items != null) {
             items.remove(item);
             item.setOrder(null);
-            calculateTotals();
+            totalsStale = true;
         }
     }
-} 
\ No newline at end of file
+
+    private static Money toMoney(BigDecimal amount) {
+        return amount != null ? Money.of(amount, CURRENCY, RoundingMode.HALF_UP) : Money.zero(CURRENCY);
+    }
+}
\ No newline at end of file
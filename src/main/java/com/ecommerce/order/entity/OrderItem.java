@@ -1,14 +1,20 @@
 package com.ecommerce.order.entity;
 
+import com.ecommerce.common.money.Money;
 import com.ecommerce.products.entity.Product;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 @Data
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,13 +37,45 @@ public class OrderItem {
     @Column(nullable = false)
     private BigDecimal totalPrice;
 
+    // Сумма строки в центах; считается при изменении цены/количества, а не при каждом пересчете заказа
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Money lineTotal;
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+        calculateTotalPrice();
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+        calculateTotalPrice();
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+        this.lineTotal = null;
+    }
+
+    public Money getLineTotal() {
+        if (lineTotal == null) {
+            lineTotal = totalPrice != null
+                    ? Money.of(totalPrice, Order.CURRENCY, RoundingMode.HALF_UP)
+                    : Money.zero(Order.CURRENCY);
+        }
+        return lineTotal;
+    }
+
     @PrePersist
     @PreUpdate
     private void calculateTotalPrice() {
         if (unitPrice != null && quantity != null) {
-            this.totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            lineTotal = Money.of(unitPrice, Order.CURRENCY, RoundingMode.HALF_UP).times(quantity);
+            this.totalPrice = lineTotal.toBigDecimal();
         } else {
+            lineTotal = Money.zero(Order.CURRENCY);
             this.totalPrice = BigDecimal.ZERO;
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.ecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Денормализованная модель чтения: готовый OrderDto в JSON, одна строка на заказ.
+// Переписывается в той же транзакции, что и изменение заказа
+@Data
+@Entity
+@Table(name = "order_snapshots", indexes = {
+        @Index(name = "idx_order_snapshots_user_id", columnList = "userId")
+})
+public class OrderSnapshot {
+    @Id
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
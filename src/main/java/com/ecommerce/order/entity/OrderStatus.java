@@ -1,5 +1,10 @@
 package com.ecommerce.order.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,           // Заказ создан, ожидает обработки
     CONFIRMED,         // Заказ подтвержден, товары списаны
@@ -8,5 +13,23 @@ public enum OrderStatus {
     SHIPPED,          // Заказ отправлен
     DELIVERED,        // Заказ доставлен
     CANCELLED,        // Заказ отменен
-    REFUNDED          // Заказ возвращен
-} 
\ No newline at end of file
+    REFUNDED;         // Заказ возвращен
+
+    // Допустимые переходы; CANCELLED и REFUNDED конечные
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, PROCESSING, PAID, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(PROCESSING, PAID, SHIPPED, CANCELLED, REFUNDED));
+        TRANSITIONS.put(PAID, EnumSet.of(PROCESSING, SHIPPED, CANCELLED, REFUNDED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(SHIPPED, CANCELLED, REFUNDED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED, REFUNDED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.products.entity.Product;
+
+import java.time.Instant;
+import java.util.List;
+
+// Событие жизненного цикла заказа для подписчиков внутри приложения.
+// Несет все нужные им данные, чтобы подписчикам не приходилось читать заказ из БД
+public record OrderLifecycleEvent(OrderLifecycleEventType type,
+                                  Long orderId,
+                                  Instant occurredAt,
+                                  long totalMinorUnits,
+                                  List<Line> lines) {
+
+    public record Line(Long productId, Long categoryId, int quantity, long amountMinorUnits) {
+    }
+
+    public static OrderLifecycleEvent of(OrderLifecycleEventType type, Order order) {
+        List<Line> lines = type == OrderLifecycleEventType.CANCELLED
+                ? List.of()
+                : order.getItems().stream().map(OrderLifecycleEvent::toLine).toList();
+        return new OrderLifecycleEvent(type, order.getId(), Instant.now(), order.getTotalMoney().getMinorUnits(), lines);
+    }
+
+    private static Line toLine(OrderItem item) {
+        Product product = item.getProduct();
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        return new Line(product.getId(), categoryId, item.getQuantity(), item.getLineTotal().getMinorUnits());
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.order.event;
+
+public enum OrderLifecycleEventType {
+    CREATED,    // Заказ оформлен
+    PAID,       // Оплата подтверждена, остатки списаны
+    CANCELLED   // Неоплаченный заказ отменен
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.ArchivedOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    @Query("SELECT a.orderId FROM ArchivedOrder a WHERE a.orderNumber = :orderNumber")
+    Optional<Long> findIdByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT a.orderId FROM ArchivedOrder a WHERE a.paymentId = :paymentId")
+    Optional<Long> findIdByPaymentId(@Param("paymentId") String paymentId);
+
+    // Keyset по (user_id, order_id) через idx_archived_orders_user_id - продолжение истории заказов после горячих строк
+    @Query("SELECT a FROM ArchivedOrder a WHERE a.userId = :userId AND a.orderId < :beforeId ORDER BY a.orderId DESC")
+    List<ArchivedOrder> findByUserIdBefore(@Param("userId") Long userId,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+}
@@ -1,14 +1,23 @@
 package com.ecommerce.order.repository;
 
+import com.ecommerce.order.dto.OrderStatusView;
+import com.ecommerce.order.dto.OrderSummaryDto;
+import com.ecommerce.order.dto.PendingPaymentView;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.entity.PaymentStatus;
 import com.ecommerce.user.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,11 +30,56 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND o.status = :status")
     List<Order> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") OrderStatus status);
     
-    @Query("SELECT o FROM Order o WHERE o.paymentStatus = :paymentStatus")
-    List<Order> findByPaymentStatus(@Param("paymentStatus") PaymentStatus paymentStatus);
-    
-    @Query("SELECT o FROM Order o WHERE o.status = :status")
-    List<Order> findByStatus(@Param("status") OrderStatus status);
-    
     Optional<Order> findByPaymentId(String paymentId);
+
+    @Query("SELECT o.id FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<Long> findIdByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT o.id FROM Order o WHERE o.paymentId = :paymentId")
+    Optional<Long> findIdByPaymentId(@Param("paymentId") String paymentId);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId ORDER BY o.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // Статусы заказов с блокировкой строк до конца транзакции; порядок по ID защищает от взаимных блокировок
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.ecommerce.order.dto.OrderStatusView(o.id, o.user.id, o.status) FROM Order o " +
+           "WHERE o.id IN :ids ORDER BY o.id")
+    List<OrderStatusView> findStatusViewsForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Условие по текущему статусу защищает от параллельного изменения; version увеличивается,
+    // чтобы конкурирующие обновления через сущность получили ошибку оптимистической блокировки
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :target, o.updatedAt = :now, o.version = o.version + 1 " +
+           "WHERE o.id IN :ids AND o.status = :current")
+    int transitionStatus(@Param("ids") Collection<Long> ids,
+                         @Param("current") OrderStatus current,
+                         @Param("target") OrderStatus target,
+                         @Param("now") LocalDateTime now);
+
+    // Заказы с незавершенной оплатой старше cutoff после позиции (afterCreatedAt, afterId);
+    // keyset по idx_orders_payment_status_created_id, без сканирования таблицы
+    @Query("SELECT new com.ecommerce.order.dto.PendingPaymentView(o.id, o.paymentId, o.createdAt) FROM Order o " +
+           "WHERE o.paymentStatus = :status AND o.createdAt < :cutoff " +
+           "AND (o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id > :afterId)) " +
+           "ORDER BY o.createdAt, o.id")
+    List<PendingPaymentView> findPendingPayments(@Param("status") PaymentStatus status,
+                                                 @Param("cutoff") LocalDateTime cutoff,
+                                                 @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    // Закрытые заказы старше cutoff; использует idx_orders_status_created_id
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.createdAt < :cutoff ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+
+    // Keyset-пагинация по (user_id, id): страница читается одним запросом без загрузки сущностей
+    @Query("SELECT new com.ecommerce.order.dto.OrderSummaryDto(o.id, o.orderNumber, o.status, o.paymentStatus, " +
+           "o.total, SIZE(o.items), o.createdAt) " +
+           "FROM Order o WHERE o.user.id = :userId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<OrderSummaryDto> findSummariesByUserId(@Param("userId") Long userId,
+                                                @Param("beforeId") Long beforeId,
+                                                Pageable pageable);
 } 
\ No newline at end of file
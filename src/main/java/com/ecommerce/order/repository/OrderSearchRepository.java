@@ -0,0 +1,71 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.dto.OrderSearchCriteria;
+import com.ecommerce.order.dto.OrderSearchRowDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Запрос собирается только из заданных фильтров: условия вида (:p IS NULL OR ...) мешают
+// планировщику выбрать составной индекс. Сортировка (createdAt, id) по убыванию совпадает
+// с индексами idx_orders_*_created_id, поэтому страница читается диапазоном индекса
+@Repository
+public class OrderSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public List<OrderSearchRowDto> search(OrderSearchCriteria criteria,
+                                          LocalDateTime afterCreatedAt,
+                                          Long afterId,
+                                          int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.ecommerce.order.dto.OrderSearchRowDto(o.id, o.orderNumber, o.user.id, " +
+                "o.status, o.paymentStatus, o.total, o.paymentId, o.createdAt) FROM Order o");
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+
+        if (criteria.getStatus() != null) {
+            conditions.add("o.status = :status");
+            params.put("status", criteria.getStatus());
+        }
+        if (criteria.getPaymentStatus() != null) {
+            conditions.add("o.paymentStatus = :paymentStatus");
+            params.put("paymentStatus", criteria.getPaymentStatus());
+        }
+        if (criteria.getUserId() != null) {
+            conditions.add("o.user.id = :userId");
+            params.put("userId", criteria.getUserId());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            conditions.add("o.createdAt >= :createdFrom");
+            params.put("createdFrom", criteria.getCreatedFrom());
+        }
+        if (criteria.getCreatedTo() != null) {
+            conditions.add("o.createdAt < :createdTo");
+            params.put("createdTo", criteria.getCreatedTo());
+        }
+        if (afterCreatedAt != null) {
+            conditions.add("(o.createdAt < :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))");
+            params.put("afterCreatedAt", afterCreatedAt);
+            params.put("afterId", afterId);
+        }
+
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<OrderSearchRowDto> query = entityManager.createQuery(jpql.toString(), OrderSearchRowDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
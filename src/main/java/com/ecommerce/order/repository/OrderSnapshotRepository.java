@@ -0,0 +1,25 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.OrderSnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderSnapshotRepository extends JpaRepository<OrderSnapshot, Long> {
+    // Заказы, созданные до появления снимков или записанные в обход OrderService
+    @Query("SELECT o.id FROM Order o WHERE NOT EXISTS " +
+           "(SELECT s.orderId FROM OrderSnapshot s WHERE s.orderId = o.id) ORDER BY o.id")
+    List<Long> findOrderIdsWithoutSnapshot(Pageable pageable);
+
+    // Снимки заказов, измененных массовым UPDATE, удаляются; их пересоздаст OrderSnapshotBackfill
+    @Modifying
+    @Query("DELETE FROM OrderSnapshot s WHERE s.orderId IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.OrderStatusException;
+import com.ecommerce.common.transaction.RetryingTransactionExecutor;
+import com.ecommerce.order.dto.BulkStatusItemResultDto;
+import com.ecommerce.order.dto.BulkStatusOutcome;
+import com.ecommerce.order.dto.BulkStatusUpdateRequest;
+import com.ecommerce.order.dto.BulkStatusUpdateResultDto;
+import com.ecommerce.order.dto.OrderStatusView;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Массовая смена статуса: заказы не загружаются, переход проверяется по проекции (id, userId, status)
+// и применяется одним UPDATE на каждую группу с одинаковым текущим статусом.
+// Строки порции блокируются при чтении статуса, поэтому UPDATE затрагивает ровно проверенные заказы.
+// Каждая порция - отдельная короткая транзакция: снимки правятся в ней же, кэш сбрасывается одним пакетом
+@Service
+@RequiredArgsConstructor
+public class BulkOrderStatusService {
+    static final int CHUNK_SIZE = 500;
+
+    // Эти статусы требуют работы с остатками (списание, снятие резервов) по каждому заказу
+    private static final Set<OrderStatus> SINGLE_ORDER_ONLY = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final OrderSnapshotService orderSnapshotService;
+    private final RetryingTransactionExecutor retryingExecutor;
+    private final OrderCache orderCache;
+
+    public BulkStatusUpdateResultDto updateStatuses(BulkStatusUpdateRequest request) {
+        OrderStatus target = request.getStatus();
+        if (SINGLE_ORDER_ONLY.contains(target)) {
+            throw new OrderStatusException("Status " + target + " cannot be applied in bulk");
+        }
+
+        List<Long> orderIds = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+        List<BulkStatusItemResultDto> results = new ArrayList<>(orderIds.size());
+        for (int from = 0; from < orderIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + CHUNK_SIZE, orderIds.size()));
+            results.addAll(retryingExecutor.execute(() -> applyChunk(chunk, target)));
+        }
+
+        int updated = (int) results.stream().filter(result -> result.getOutcome() == BulkStatusOutcome.UPDATED).count();
+        return new BulkStatusUpdateResultDto(updated, results);
+    }
+
+    private List<BulkStatusItemResultDto> applyChunk(List<Long> orderIds, OrderStatus target) {
+        Map<Long, OrderStatusView> current = orderRepository.findStatusViewsForUpdate(orderIds).stream()
+                .collect(Collectors.toMap(OrderStatusView::id, Function.identity()));
+
+        Map<OrderStatus, List<Long>> eligibleByStatus = new EnumMap<>(OrderStatus.class);
+        for (OrderStatusView view : current.values()) {
+            if (view.status().canTransitionTo(target)) {
+                eligibleByStatus.computeIfAbsent(view.status(), status -> new ArrayList<>()).add(view.id());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> updatedIds = new HashSet<>();
+        for (Map.Entry<OrderStatus, List<Long>> group : eligibleByStatus.entrySet()) {
+            List<Long> ids = group.getValue();
+            int count = orderRepository.transitionStatus(ids, group.getKey(), target, now);
+            if (count != ids.size()) {
+                // Под блокировкой не ожидается; откат и повтор порции с перечитанными статусами
+                throw new ConcurrencyFailureException("Orders changed while locked for bulk status update");
+            }
+            updatedIds.addAll(ids);
+        }
+
+        if (!updatedIds.isEmpty()) {
+            orderSnapshotService.updateStatus(updatedIds, target, now);
+            Set<Long> userIds = updatedIds.stream()
+                    .map(id -> current.get(id).userId())
+                    .collect(Collectors.toSet());
+            orderCache.evictAll(List.copyOf(updatedIds), List.copyOf(userIds));
+        }
+
+        List<BulkStatusItemResultDto> results = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            OrderStatusView view = current.get(orderId);
+            BulkStatusOutcome outcome;
+            if (view == null) {
+                outcome = BulkStatusOutcome.NOT_FOUND;
+            } else if (updatedIds.contains(orderId)) {
+                outcome = BulkStatusOutcome.UPDATED;
+            } else if (view.status() == target) {
+                // Заказ уже переведен в целевой статус другим запросом - это не наше обновление
+                outcome = BulkStatusOutcome.CONFLICT;
+            } else if (!view.status().canTransitionTo(target)) {
+                outcome = BulkStatusOutcome.INVALID_TRANSITION;
+            } else {
+                outcome = BulkStatusOutcome.CONFLICT;
+            }
+            results.add(new BulkStatusItemResultDto(orderId, outcome, view != null ? view.status() : null));
+        }
+        return results;
+    }
+}
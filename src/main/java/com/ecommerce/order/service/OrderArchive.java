@@ -0,0 +1,93 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderSummaryDto;
+import com.ecommerce.order.entity.ArchivedOrder;
+import com.ecommerce.order.repository.ArchivedOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Холодное хранилище закрытых заказов: OrderService читает отсюда, если заказа нет в горячих таблицах
+@Component
+@RequiredArgsConstructor
+public class OrderArchive {
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ObjectMapper objectMapper;
+
+    public void store(Long userId, OrderDto order) {
+        ArchivedOrder archived = new ArchivedOrder();
+        archived.setOrderId(order.getId());
+        archived.setUserId(userId);
+        archived.setOrderNumber(order.getOrderNumber());
+        archived.setPaymentId(order.getPaymentId());
+        archived.setStatus(order.getStatus());
+        archived.setCreatedAt(order.getCreatedAt());
+        archived.setArchivedAt(LocalDateTime.now());
+        archived.setPayload(compress(order));
+        archivedOrderRepository.save(archived);
+    }
+
+    public Optional<OrderDto> find(Long orderId) {
+        return archivedOrderRepository.findById(orderId).map(archived -> decompress(archived.getPayload()));
+    }
+
+    // Все архивные заказы пользователя, от новых к старым
+    public List<OrderDto> findByUser(Long userId) {
+        return archivedOrderRepository.findByUserIdBefore(userId, Long.MAX_VALUE, Pageable.unpaged()).stream()
+                .map(archived -> decompress(archived.getPayload()))
+                .toList();
+    }
+
+    // Страница истории из архива: заказы пользователя с id меньше beforeId, от новых к старым
+    public List<OrderSummaryDto> findSummaries(Long userId, Long beforeId, int limit) {
+        return archivedOrderRepository.findByUserIdBefore(userId, beforeId, PageRequest.of(0, limit)).stream()
+                .map(archived -> toSummary(decompress(archived.getPayload())))
+                .toList();
+    }
+
+    public Optional<Long> findIdByOrderNumber(String orderNumber) {
+        return archivedOrderRepository.findIdByOrderNumber(orderNumber);
+    }
+
+    public Optional<Long> findIdByPaymentId(String paymentId) {
+        return archivedOrderRepository.findIdByPaymentId(paymentId);
+    }
+
+    private static OrderSummaryDto toSummary(OrderDto order) {
+        return new OrderSummaryDto(order.getId(), order.getOrderNumber(), order.getStatus(), order.getPaymentStatus(),
+                order.getTotal(), order.getItems() != null ? order.getItems().size() : 0, order.getCreatedAt());
+    }
+
+    private byte[] compress(OrderDto order) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, order);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive order " + order.getId(), e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private OrderDto decompress(byte[] payload) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(gzip, OrderDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived order", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Кэш заказов: одна запись по ID и алиасы orderNumber/paymentId, указывающие на этот ID.
+// Алиасы неизменяемы (номер и paymentId заказа не меняются), поэтому инвалидировать нужно
+// только запись по ID и список заказов пользователя.
+// Чтобы чтение, начатое до коммита изменения, не вернуло в кэш старое значение,
+// каждая инвалидация увеличивает счетчик полосы ключа; загруженное значение кладется
+// только если счетчик не изменился с начала загрузки.
+@Component
+public class OrderCache {
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, OrderDto> ordersById;
+    private final Cache<String, Long> idsByOrderNumber;
+    private final Cache<String, Long> idsByPaymentId;
+    private final Cache<Long, List<OrderDto>> ordersByUser;
+    private final AtomicLongArray orderStamps = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray userStamps = new AtomicLongArray(STRIPES);
+
+    public OrderCache(@Value("${app.order-cache.max-size:10000}") long maxSize,
+                      @Value("${app.order-cache.ttl:PT10M}") Duration ttl) {
+        this.ordersById = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        this.idsByOrderNumber = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.idsByPaymentId = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.ordersByUser = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    }
+
+    public OrderDto getOrder(Long orderId, Supplier<OrderDto> loader) {
+        OrderDto cached = ordersById.getIfPresent(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(orderId);
+        long stamp = orderStamps.get(stripe);
+        OrderDto loaded = loader.get();
+        ordersById.asMap().compute(orderId, (id, existing) -> orderStamps.get(stripe) == stamp ? loaded : existing);
+        indexAliases(loaded);
+        return loaded;
+    }
+
+    // Номер заказа -> ID; отсутствующие номера не кэшируются
+    public Optional<Long> resolveOrderNumber(String orderNumber, Function<String, Optional<Long>> resolver) {
+        return Optional.ofNullable(idsByOrderNumber.get(orderNumber, number -> resolver.apply(number).orElse(null)));
+    }
+
+    public Optional<Long> resolvePaymentId(String paymentId, Function<String, Optional<Long>> resolver) {
+        return Optional.ofNullable(idsByPaymentId.get(paymentId, id -> resolver.apply(id).orElse(null)));
+    }
+
+    public List<OrderDto> getUserOrders(Long userId, Supplier<List<OrderDto>> loader) {
+        List<OrderDto> cached = ordersByUser.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(userId);
+        long stamp = userStamps.get(stripe);
+        List<OrderDto> loaded = List.copyOf(loader.get());
+        ordersByUser.asMap().compute(userId, (id, existing) -> userStamps.get(stripe) == stamp ? loaded : existing);
+        return loaded;
+    }
+
+    // Сбрасывает заказ и список заказов владельца сразу и еще раз после коммита текущей транзакции
+    public void evict(Long orderId, Long userId) {
+        invalidate(orderId, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(orderId, userId);
+                }
+            });
+        }
+    }
+
+    // Пакетный вариант evict: одна регистрация afterCommit на весь пакет
+    public void evictAll(Collection<Long> orderIds, Collection<Long> userIds) {
+        invalidateAll(orderIds, userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll(orderIds, userIds);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            orderStamps.incrementAndGet(i);
+            userStamps.incrementAndGet(i);
+        }
+        ordersById.invalidateAll();
+        ordersByUser.invalidateAll();
+    }
+
+    private void invalidate(Long orderId, Long userId) {
+        if (orderId != null) {
+            orderStamps.incrementAndGet(stripe(orderId));
+            ordersById.invalidate(orderId);
+        }
+        if (userId != null) {
+            userStamps.incrementAndGet(stripe(userId));
+            ordersByUser.invalidate(userId);
+        }
+    }
+
+    private void invalidateAll(Collection<Long> orderIds, Collection<Long> userIds) {
+        orderIds.forEach(orderId -> orderStamps.incrementAndGet(stripe(orderId)));
+        userIds.forEach(userId -> userStamps.incrementAndGet(stripe(userId)));
+        ordersById.invalidateAll(orderIds);
+        ordersByUser.invalidateAll(userIds);
+    }
+
+    private void indexAliases(OrderDto order) {
+        if (order.getOrderNumber() != null) {
+            idsByOrderNumber.put(order.getOrderNumber(), order.getId());
+        }
+        if (order.getPaymentId() != null) {
+            idsByPaymentId.put(order.getPaymentId(), order.getId());
+        }
+    }
+
+    private static int stripe(Long key) {
+        return (int) (key ^ (key >>> 32)) & (STRIPES - 1);
+    }
+}
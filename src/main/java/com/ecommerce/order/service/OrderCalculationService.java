@@ -1,23 +1,29 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.common.money.Money;
+import com.ecommerce.order.entity.ShippingAddress;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.pricing.dto.PricingRequest;
+import com.ecommerce.pricing.service.PricingEngine;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 @Service
+@RequiredArgsConstructor
 public class OrderCalculationService {
-    
-    public BigDecimal calculateShippingCost(BigDecimal subtotal) {
-        // Примерная логика расчета стоимости доставки
-        return subtotal.compareTo(BigDecimal.valueOf(100)) > 0 ? BigDecimal.ZERO : BigDecimal.valueOf(10);
-    }
-
-    public BigDecimal calculateTax(BigDecimal subtotal) {
-        // Примерная логика расчета налога (10%)
-        return subtotal.multiply(BigDecimal.valueOf(0.1));
-    }
+    private final PricingEngine pricingEngine;
 
-    public BigDecimal calculateTotal(BigDecimal subtotal, BigDecimal shippingCost, BigDecimal tax) {
-        return subtotal.add(shippingCost).add(tax);
+    // Скидка, доставка и налог по правилам для юрисдикции адреса доставки
+    public PriceQuote calculate(Money subtotal, ShippingAddress address, String promoCode, String carrier) {
+        PricingRequest request = new PricingRequest();
+        request.setSubtotal(subtotal);
+        if (address != null) {
+            request.setCountry(address.getCountry());
+            request.setState(address.getState());
+            request.setPostalCode(address.getPostalCode());
+        }
+        request.setPromoCode(promoCode);
+        request.setCarrier(carrier);
+        return pricingEngine.quote(request);
     }
-} 
\ No newline at end of file
+}
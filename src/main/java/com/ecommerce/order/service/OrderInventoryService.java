@@ -0,0 +1,39 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.OrderStatusException;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.products.entity.Product;
+import com.ecommerce.products.service.ProductReservationService;
+import com.ecommerce.products.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class OrderInventoryService {
+    private final ProductService productService;
+    private final ProductReservationService productReservationService;
+
+    // Списание идет условным UPDATE: конкурентные подтверждения не теряют изменения остатка
+    @Transactional
+    public void deductStock(Order order) {
+        for (OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            if (!productService.decrementStock(product.getId(), item.getQuantity())) {
+                throw new OrderStatusException("Not enough stock for product: " + product.getName());
+            }
+            
+            // Освобождаем резервирование после списания
+            productReservationService.releaseReservationsForOrder(product, order.getUser());
+        }
+    }
+
+    @Transactional
+    public void releaseReservations(Order order) {
+        for (OrderItem item : order.getItems()) {
+            productReservationService.releaseReservationsForOrder(item.getProduct(), order.getUser());
+        }
+    }
+}
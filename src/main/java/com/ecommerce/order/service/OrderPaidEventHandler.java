@@ -0,0 +1,35 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.event.OrderLifecycleEvent;
+import com.ecommerce.order.event.OrderLifecycleEventType;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.outbox.entity.OutboxEvent;
+import com.ecommerce.outbox.entity.OutboxEventType;
+import com.ecommerce.outbox.service.OutboxEventHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Списание остатков и снятие резервов после подтвержденной оплаты (вне транзакции запроса)
+@Component
+@RequiredArgsConstructor
+public class OrderPaidEventHandler implements OutboxEventHandler {
+    private final OrderRepository orderRepository;
+    private final OrderInventoryService orderInventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public OutboxEventType getEventType() {
+        return OutboxEventType.ORDER_PAID;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Order order = orderRepository.findById(event.getAggregateId())
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + event.getAggregateId()));
+        orderInventoryService.deductStock(order);
+        eventPublisher.publishEvent(OrderLifecycleEvent.of(OrderLifecycleEventType.PAID, order));
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.InvalidCursorException;
+import com.ecommerce.order.dto.OrderSearchCriteria;
+import com.ecommerce.order.dto.OrderSearchPageDto;
+import com.ecommerce.order.dto.OrderSearchRowDto;
+import com.ecommerce.order.repository.OrderSearchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OrderSearchService {
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final String CSV_HEADER = "id,orderNumber,userId,status,paymentStatus,total,paymentId,createdAt";
+
+    private final OrderSearchRepository searchRepository;
+
+    public OrderSearchPageDto search(OrderSearchCriteria criteria, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor after = cursor != null ? decodeCursor(cursor) : null;
+
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница
+        List<OrderSearchRowDto> rows = searchRepository.search(criteria,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = encodeCursor(rows.get(pageSize - 1));
+        }
+        return new OrderSearchPageDto(rows, nextCursor);
+    }
+
+    // Выгрузка идет короткими keyset-запросами по EXPORT_CHUNK_SIZE строк: память постоянна,
+    // а соединение с БД не удерживается, пока клиент медленно читает ответ
+    public void exportCsv(OrderSearchCriteria criteria, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        List<OrderSearchRowDto> rows;
+        do {
+            rows = searchRepository.search(criteria, afterCreatedAt, afterId, EXPORT_CHUNK_SIZE);
+            for (OrderSearchRowDto row : rows) {
+                writeCsvRow(writer, row);
+            }
+            if (!rows.isEmpty()) {
+                OrderSearchRowDto last = rows.get(rows.size() - 1);
+                afterCreatedAt = last.getCreatedAt();
+                afterId = last.getId();
+            }
+            writer.flush();
+        } while (rows.size() == EXPORT_CHUNK_SIZE);
+    }
+
+    private static void writeCsvRow(Writer writer, OrderSearchRowDto row) throws IOException {
+        writer.write(String.valueOf(row.getId()));
+        writer.write(',');
+        writer.write(csv(row.getOrderNumber()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getUserId()));
+        writer.write(',');
+        writer.write(row.getStatus().name());
+        writer.write(',');
+        writer.write(row.getPaymentStatus().name());
+        writer.write(',');
+        writer.write(row.getTotal() != null ? row.getTotal().toPlainString() : "");
+        writer.write(',');
+        writer.write(csv(row.getPaymentId()));
+        writer.write(',');
+        writer.write(row.getCreatedAt() != null ? row.getCreatedAt().toString() : "");
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String encodeCursor(OrderSearchRowDto row) {
+        String raw = row.getCreatedAt() + "|" + row.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+}
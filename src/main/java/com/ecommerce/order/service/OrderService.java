@@ -2,70 +2,155 @@ package com.ecommerce.order.service;
 
 import com.ecommerce.order.dto.*;
 import com.ecommerce.order.entity.*;
+import com.ecommerce.order.event.OrderLifecycleEvent;
+import com.ecommerce.order.event.OrderLifecycleEventType;
 import com.ecommerce.order.repository.OrderItemRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSnapshotRepository;
+import com.ecommerce.outbox.entity.OutboxEventType;
+import com.ecommerce.outbox.service.OutboxService;
 import com.ecommerce.payment.dto.PayPalPaymentResponse;
 import com.ecommerce.payment.service.PayPalService;
-import com.ecommerce.products.dto.UpdateProductDto;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.products.dto.ProductDto;
 import com.ecommerce.products.entity.Product;
-import com.ecommerce.products.service.ProductService;
 import com.ecommerce.products.service.ProductReservationService;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.service.UserService;
 import com.ecommerce.common.exception.ResourceNotFoundException;
 import com.ecommerce.common.exception.OrderStatusException;
+import com.ecommerce.common.id.SnowflakeIdGenerator;
+import com.ecommerce.common.transaction.RetryingTransactionExecutor;
 import com.paypal.api.payments.Payment;
 import com.paypal.base.rest.PayPalRESTException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Set<OrderStatus> ARCHIVABLE_STATUSES =
+            EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final UserService userService;
-    private final ProductService productService;
     private final OrderCalculationService calculationService;
     private final ProductReservationService productReservationService;
     private final PayPalService payPalService;
+    private final RetryingTransactionExecutor retryingExecutor;
+    private final OrderInventoryService orderInventoryService;
+    private final OutboxService outboxService;
+    private final SnowflakeIdGenerator idGenerator;
+    private final OrderCache orderCache;
+    private final OrderSnapshotService orderSnapshotService;
+    private final OrderSnapshotRepository orderSnapshotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderArchive orderArchive;
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "orders", key = "#orderId")
     public OrderDto getOrderById(Long orderId) {
-        return orderRepository.findById(orderId)
-                .map(this::convertToDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        // Снимок -> горячие таблицы -> архив закрытых заказов
+        return orderCache.getOrder(orderId, () -> orderSnapshotService.find(orderId)
+                .or(() -> orderRepository.findById(orderId).map(this::convertToDto))
+                .or(() -> orderArchive.find(orderId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId)));
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "orders", key = "#orderNumber")
     public OrderDto getOrderByNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber)
-                .map(this::convertToDto)
+        Long orderId = orderCache.resolveOrderNumber(orderNumber, number ->
+                        orderRepository.findIdByOrderNumber(number).or(() -> orderArchive.findIdByOrderNumber(number)))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with number: " + orderNumber));
+        return getOrderById(orderId);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderDto getOrderByPaymentId(String paymentId) {
+        Long orderId = orderCache.resolvePaymentId(paymentId, id ->
+                        orderRepository.findIdByPaymentId(id).or(() -> orderArchive.findIdByPaymentId(id)))
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found for payment: " + paymentId));
+        return getOrderById(orderId);
     }
 
     @Transactional(readOnly = true)
-    @Cacheable(value = "userOrders", key = "#userId")
     public List<OrderDto> getUserOrders(Long userId) {
-        User user = userService.getUserById(userId);
-        return orderRepository.findByUser(user).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderCache.getUserOrders(userId, () -> {
+            userService.getUserById(userId);
+            List<Long> orderIds = orderRepository.findIdsByUserId(userId);
+            Map<Long, OrderDto> orders = orderSnapshotService.findAll(orderIds);
+
+            // Заказы без снимка (еще не обработанные OrderSnapshotBackfill) собираем из таблиц
+            List<Long> missing = orderIds.stream().filter(id -> !orders.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                orderRepository.findAllById(missing).forEach(order -> orders.put(order.getId(), convertToDto(order)));
+            }
+            // Закрытые заказы, перенесенные ArchivalScheduler, остаются в списке пользователя
+            orderArchive.findByUser(userId).forEach(order -> orders.putIfAbsent(order.getId(), order));
+            return orders.values().stream()
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(OrderDto::getId))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public OrderHistoryPageDto getUserOrderHistory(Long userId, Long cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        long beforeId = cursor != null ? cursor : Long.MAX_VALUE;
+        // Запрашиваем на одну запись больше, чтобы понять, есть ли следующая страница.
+        // Архивные заказы сливаются с горячими по id: курсор продолжается в архив, когда горячие закончились
+        List<OrderSummaryDto> orders = mergeByIdDesc(
+                orderRepository.findSummariesByUserId(userId, beforeId, PageRequest.of(0, pageSize + 1)),
+                orderArchive.findSummaries(userId, beforeId, pageSize + 1),
+                pageSize + 1);
+
+        Long nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            nextCursor = orders.get(pageSize - 1).getId();
+        }
+        return new OrderHistoryPageDto(orders, nextCursor);
+    }
+
+    private static List<OrderSummaryDto> mergeByIdDesc(List<OrderSummaryDto> hot, List<OrderSummaryDto> archived, int limit) {
+        List<OrderSummaryDto> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < hot.size() || j < archived.size())) {
+            if (j >= archived.size() || (i < hot.size() && hot.get(i).getId() >= archived.get(j).getId())) {
+                OrderSummaryDto next = hot.get(i++);
+                // Заказ, пойманный посреди архивации, берется из горячей таблицы
+                if (j < archived.size() && archived.get(j).getId().equals(next.getId())) {
+                    j++;
+                }
+                merged.add(next);
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
     }
 
     @Transactional
-    @CacheEvict(value = "userOrders", key = "#userId")
     public OrderDto createOrder(Long userId, OrderRequest request) {
         if (request.getItems() == null || request.getItems().isEmpty()) {
             throw new OrderStatusException("Order must contain at least one item");
@@ -80,121 +165,103 @@ public class OrderService {
         order.setPaymentStatus(PaymentStatus.PENDING);
         order.setShippingAddress(convertToEntity(request.getShippingAddress()));
         
-        // Создаем элементы заказа
+        // Собираем количества по товарам и резервируем всю корзину одним вызовом
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (OrderItemRequest itemRequest : request.getItems()) {
             if (itemRequest.getQuantity() <= 0) {
                 throw new OrderStatusException("Item quantity must be positive");
             }
+            quantities.merge(itemRequest.getProduct().getId(), itemRequest.getQuantity(), Integer::sum);
+        }
 
-            Product product = productService.getProductEntityById(itemRequest.getProduct().getId());
+        Map<Long, Product> products = productReservationService.reserveProducts(user, quantities);
+
+        // Создаем элементы заказа
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
             
             if (product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
                 throw new OrderStatusException("Product price must be positive");
             }
             
-            // Проверяем резервирование
-            productReservationService.reserveProduct(product.getId(), userId, itemRequest.getQuantity());
-            
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(product);
-            orderItem.setQuantity(itemRequest.getQuantity());
+            orderItem.setQuantity(entry.getValue());
             orderItem.setUnitPrice(product.getPrice());
-            
-            order.addItem(orderItem);
+            orderItems.add(orderItem);
+        }
+        order.addItems(orderItems);
+
+        // Итоги считаем один раз по всей корзине, затем скидку, доставку и налог по правилам
+        order.recalculateTotals();
+        PriceQuote quote = calculationService.calculate(order.getSubtotalMoney(), order.getShippingAddress(),
+                request.getPromoCode(), request.getShippingCarrier());
+        if (request.getPromoCode() != null && !request.getPromoCode().isBlank()
+                && quote.getAppliedPromoCode() == null) {
+            throw new OrderStatusException("Promo code is not applicable: " + request.getPromoCode());
         }
         
-        // Сохраняем заказ, чтобы сработал @PrePersist и установились базовые значения
-        Order savedOrder = orderRepository.save(order);
-        
-        // Обновляем значения после сохранения
-        BigDecimal subtotal = savedOrder.getSubtotal();
-        BigDecimal shippingCost = calculationService.calculateShippingCost(subtotal);
-        BigDecimal tax = calculationService.calculateTax(subtotal);
-        BigDecimal total = calculationService.calculateTotal(subtotal, shippingCost, tax);
-        
-        savedOrder.setSubtotal(subtotal);
-        savedOrder.setShippingCost(shippingCost);
-        savedOrder.setTax(tax);
-        savedOrder.setTotal(total);
-        
-        // Сохраняем обновленные значения
-        savedOrder = orderRepository.save(savedOrder);
+        order.setDiscount(quote.getDiscount().toBigDecimal());
+        order.setPromoCode(quote.getAppliedPromoCode());
+        order.setShippingCost(quote.getShippingCost().toBigDecimal());
+        order.setTax(quote.getTax().toBigDecimal());
+        order.setTotal(quote.getTotal().toBigDecimal());
         
-        return convertToDto(savedOrder);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderLifecycleEvent.of(OrderLifecycleEventType.CREATED, savedOrder));
+        return orderChanged(savedOrder);
     }
 
-    @Transactional
-    @CacheEvict(value = "orders", key = "#orderId")
     public OrderDto updateOrderStatus(Long orderId, UpdateOrderStatusDto updateDto) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-        
-        // Если заказ переходит в статус CONFIRMED, списываем товары с остатка
-        if (updateDto.getStatus() == OrderStatus.CONFIRMED && order.getStatus() != OrderStatus.CONFIRMED) {
-            for (OrderItem item : order.getItems()) {
-                Product product = item.getProduct();
-                int newQuantity = product.getStockQuantity() - item.getQuantity();
-                if (newQuantity < 0) {
-                    throw new OrderStatusException("Not enough stock for product: " + product.getName());
-                }
-                
-                // Создаем DTO для обновления
-                UpdateProductDto updateProductDto = new UpdateProductDto();
-                updateProductDto.setStockQuantity(newQuantity);
-                productService.updateProduct(product.getId(), updateProductDto);
-                
-                // Освобождаем резервирование после списания
-                productReservationService.releaseReservationsForOrder(product, order.getUser());
+        return retryingExecutor.execute(() -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+            
+            // Если заказ переходит в статус CONFIRMED, списываем товары с остатка
+            if (updateDto.getStatus() == OrderStatus.CONFIRMED && order.getStatus() != OrderStatus.CONFIRMED) {
+                orderInventoryService.deductStock(order);
             }
-        }
-        
-        order.setStatus(updateDto.getStatus());
-        if (updateDto.getPaymentStatus() != null) {
-            order.setPaymentStatus(updateDto.getPaymentStatus());
-        }
-        if (updateDto.getTrackingNumber() != null) {
-            order.setTrackingNumber(updateDto.getTrackingNumber());
-        }
-        
-        return convertToDto(orderRepository.save(order));
+            
+            order.setStatus(updateDto.getStatus());
+            if (updateDto.getPaymentStatus() != null) {
+                order.setPaymentStatus(updateDto.getPaymentStatus());
+            }
+            if (updateDto.getTrackingNumber() != null) {
+                order.setTrackingNumber(updateDto.getTrackingNumber());
+            }
+            
+            return orderChanged(orderRepository.save(order));
+        });
     }
 
-    @Transactional
-    @CacheEvict(value = "orders", key = "#orderId")
     public void cancelOrder(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-        
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new OrderStatusException("Only pending orders can be cancelled");
-        }
-        
-        // Освобождаем резервирования для каждого товара в заказе
-        for (OrderItem item : order.getItems()) {
-            productReservationService.releaseReservationsForOrder(item.getProduct(), order.getUser());
-        }
-        
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        retryingExecutor.executeWithoutResult(() -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+            
+            if (order.getStatus() != OrderStatus.PENDING) {
+                throw new OrderStatusException("Only pending orders can be cancelled");
+            }
+            
+            // Освобождаем резервирования для каждого товара в заказе
+            orderInventoryService.releaseReservations(order);
+            
+            order.setStatus(OrderStatus.CANCELLED);
+            orderRepository.save(order);
+            orderChanged(order);
+            eventPublisher.publishEvent(OrderLifecycleEvent.of(OrderLifecycleEventType.CANCELLED, order));
+        });
     }
 
-    @Transactional
-    @CacheEvict(value = "orders", key = "#orderId")
+    // Вызов PayPal идет вне транзакции: соединение с БД не удерживается, пока шлюз ждет ответа
     public PayPalPaymentResponse createPayment(Long orderId) throws PayPalRESTException {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
-        if (order.getPaymentStatus() != PaymentStatus.PENDING) {
-            throw new OrderStatusException("Order is not in pending payment status");
-        }
-
-        if (order.getPaymentId() != null) {
-            throw new OrderStatusException("Payment already initiated for this order");
-        }
+        requirePaymentNotStarted(order);
 
         Payment payment = payPalService.createPayment(
-                order.getTotal().doubleValue(),
-                "USD",
+                order.getTotalMoney(),
                 "paypal",
                 "sale",
                 "Order #" + order.getOrderNumber(),
@@ -202,53 +269,66 @@ public class OrderService {
                 "http://localhost:3000/orders/payment/success"
         );
 
-        // Сохраняем информацию о платеже
-        order.setPaymentId(payment.getId());
-        order.setPaymentMethod("PAYPAL");
-        order.setPaymentStatus(PaymentStatus.PROCESSING);
-        orderRepository.save(order);
+        retryingExecutor.executeWithoutResult(() -> {
+            Order current = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+            // Параллельный запрос мог успеть привязать свой платеж, пока шел вызов PayPal
+            requirePaymentNotStarted(current);
+
+            // Сохраняем информацию о платеже
+            current.setPaymentId(payment.getId());
+            current.setPaymentMethod("PAYPAL");
+            current.setPaymentStatus(PaymentStatus.PROCESSING);
+            orderRepository.save(current);
+            orderChanged(current);
+        });
 
         return PayPalPaymentResponse.success(payment);
     }
 
-    @Transactional
-    @CacheEvict(value = "orders", key = "#orderId")
+    private static void requirePaymentNotStarted(Order order) {
+        if (order.getPaymentStatus() != PaymentStatus.PENDING) {
+            throw new OrderStatusException("Order is not in pending payment status");
+        }
+
+        if (order.getPaymentId() != null) {
+            throw new OrderStatusException("Payment already initiated for this order");
+        }
+    }
+
     public void processSuccessfulPayment(String paymentId, String payerId) throws PayPalRESTException {
-        Order order = orderRepository.findByPaymentId(paymentId)
+        Order existing = orderRepository.findByPaymentId(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found for payment: " + paymentId));
+        if (existing.getPaymentStatus() == PaymentStatus.COMPLETED) {
+            // Платеж уже проведен: повторный executePayment завершился бы ошибкой PayPal
+            return;
+        }
 
+        // Вызов PayPal идет вне транзакции, чтобы не держать соединение с БД во время HTTP-запроса
         Payment payment = payPalService.executePayment(paymentId, payerId);
         
-        if (payment.getState().equals("approved")) {
-            order.setPayerId(payerId);
-            order.setPaymentDate(LocalDateTime.now());
-            order.setPaymentStatus(PaymentStatus.COMPLETED);
-            order.setStatus(OrderStatus.CONFIRMED);
-            
-            // Списываем товары с остатка
-            for (OrderItem item : order.getItems()) {
-                Product product = item.getProduct();
-                int newQuantity = product.getStockQuantity() - item.getQuantity();
-                if (newQuantity < 0) {
-                    throw new OrderStatusException("Not enough stock for product: " + product.getName());
-                }
-                
-                UpdateProductDto updateProductDto = new UpdateProductDto();
-                updateProductDto.setStockQuantity(newQuantity);
-                productService.updateProduct(product.getId(), updateProductDto);
-                
-                productReservationService.releaseReservationsForOrder(product, order.getUser());
+        retryingExecutor.executeWithoutResult(() -> {
+            Order order = orderRepository.findByPaymentId(paymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found for payment: " + paymentId));
+            if (order.getPaymentStatus() == PaymentStatus.COMPLETED) {
+                // Вебхук PayPal успел подтвердить оплату, пока шел executePayment
+                return;
             }
-        } else {
-            order.setPaymentStatus(PaymentStatus.FAILED);
-            order.setPaymentError("Payment was not approved: " + payment.getState());
-        }
-        
-        orderRepository.save(order);
+
+            if (payment.getState().equals("approved")) {
+                order.setPayerId(payerId);
+                markPaid(order);
+            } else {
+                order.setPaymentStatus(PaymentStatus.FAILED);
+                order.setPaymentError("Payment was not approved: " + payment.getState());
+            }
+            
+            orderRepository.save(order);
+            orderChanged(order);
+        });
     }
 
     @Transactional
-    @CacheEvict(value = "orders", key = "#orderId")
     public void handlePaymentFailure(String paymentId, String errorMessage) {
         Order order = orderRepository.findByPaymentId(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found for payment: " + paymentId));
@@ -256,10 +336,74 @@ public class OrderService {
         order.setPaymentStatus(PaymentStatus.FAILED);
         order.setPaymentError(errorMessage);
         orderRepository.save(order);
+        orderChanged(order);
+    }
+
+    // Оплата подтверждена PayPal (вебхук или сверка): платеж уже проведен, executePayment не нужен.
+    // Возвращает false, если платеж не относится ни к одному заказу
+    @Transactional
+    public boolean confirmProviderPayment(String paymentId) {
+        Order order = orderRepository.findByPaymentId(paymentId).orElse(null);
+        if (order == null) {
+            return false;
+        }
+        if (order.getPaymentStatus() == PaymentStatus.COMPLETED) {
+            return true;
+        }
+        markPaid(order);
+        orderRepository.save(order);
+        orderChanged(order);
+        return true;
+    }
+
+    // Отказ PayPal по платежу; уже проведенную оплату отказ не отменяет
+    @Transactional
+    public boolean rejectProviderPayment(String paymentId, String reason) {
+        Order order = orderRepository.findByPaymentId(paymentId).orElse(null);
+        if (order == null) {
+            return false;
+        }
+        if (order.getPaymentStatus() == PaymentStatus.COMPLETED || order.getPaymentStatus() == PaymentStatus.FAILED) {
+            return true;
+        }
+        order.setPaymentStatus(PaymentStatus.FAILED);
+        order.setPaymentError(reason);
+        orderRepository.save(order);
+        orderChanged(order);
+        return true;
+    }
+
+    // Отменяет пачку заказов, чей платеж PayPal истек или отклонен, и снимает их резервы в одной транзакции.
+    // Заказы, статус оплаты которых успел измениться, пропускаются; вызывается PaymentReconciliationJob
+    @Transactional
+    public int expireUnpaidOrders(Collection<Long> orderIds, String reason) {
+        int expired = 0;
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            if (order.getPaymentStatus() != PaymentStatus.PROCESSING || order.getStatus() != OrderStatus.PENDING) {
+                continue;
+            }
+            orderInventoryService.releaseReservations(order);
+            order.setPaymentStatus(PaymentStatus.FAILED);
+            order.setPaymentError(reason);
+            order.setStatus(OrderStatus.CANCELLED);
+            orderRepository.save(order);
+            orderChanged(order);
+            eventPublisher.publishEvent(OrderLifecycleEvent.of(OrderLifecycleEventType.CANCELLED, order));
+            expired++;
+        }
+        return expired;
+    }
+
+    private void markPaid(Order order) {
+        order.setPaymentDate(LocalDateTime.now());
+        order.setPaymentStatus(PaymentStatus.COMPLETED);
+        order.setStatus(OrderStatus.CONFIRMED);
+
+        // Списание остатков и снятие резервов выполняются после коммита обработчиком outbox
+        outboxService.publish(OutboxEventType.ORDER_PAID, order.getId());
     }
 
     @Transactional
-    @CacheEvict(value = "orders", key = "#orderId")
     public void handlePaymentCancellation(String paymentId) {
         Order order = orderRepository.findByPaymentId(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found for payment: " + paymentId));
@@ -267,10 +411,58 @@ public class OrderService {
         order.setPaymentStatus(PaymentStatus.FAILED);
         order.setPaymentError("Payment was cancelled by user");
         orderRepository.save(order);
+        orderChanged(order);
+    }
+
+    // Заказы без снимка досоздаются пачками; вызывается OrderSnapshotBackfill
+    @Transactional
+    public int backfillSnapshots(int batchSize) {
+        List<Long> orderIds = orderSnapshotRepository.findOrderIdsWithoutSnapshot(PageRequest.of(0, batchSize));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        for (Order order : orderRepository.findAllById(orderIds)) {
+            orderSnapshotService.save(order.getUser().getId(), convertToDto(order));
+        }
+        return orderIds.size();
+    }
+
+    // Переносит пачку закрытых заказов старше cutoff в archived_orders и удаляет их из горячих таблиц
+    // (позиции и адрес удаляются каскадом); вызывается ArchivalScheduler
+    @Transactional
+    public int archiveClosedOrders(LocalDateTime cutoff, int batchSize) {
+        List<Long> orderIds = orderRepository.findArchivableIds(ARCHIVABLE_STATUSES, cutoff, PageRequest.of(0, batchSize));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Order> orders = orderRepository.findAllById(orderIds);
+        Set<Long> userIds = new HashSet<>();
+        for (Order order : orders) {
+            Long userId = order.getUser().getId();
+            orderArchive.store(userId, convertToDto(order));
+            userIds.add(userId);
+        }
+        orderSnapshotRepository.deleteByOrderIds(orderIds);
+        orderRepository.deleteAll(orders);
+        orderCache.evictAll(List.copyOf(orderIds), List.copyOf(userIds));
+        return orders.size();
+    }
+
+    // Перезаписывает снимок заказа в текущей транзакции и сбрасывает кэш.
+    // flush выполняет @PreUpdate, чтобы снимок содержал итоговый updatedAt
+    private OrderDto orderChanged(Order order) {
+        orderRepository.flush();
+        OrderDto dto = convertToDto(order);
+        Long userId = order.getUser() != null ? order.getUser().getId() : null;
+        if (userId != null) {
+            orderSnapshotService.save(userId, dto);
+        }
+        orderCache.evict(order.getId(), userId);
+        return dto;
     }
 
     private String generateOrderNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return "ORD-" + idGenerator.nextEncodedId();
     }
 
     private OrderDto convertToDto(Order order) {
@@ -284,6 +476,8 @@ public class OrderService {
                 .map(this::convertToDto)
                 .collect(Collectors.toList()));
         dto.setSubtotal(order.getSubtotal());
+        dto.setDiscount(order.getDiscount());
+        dto.setPromoCode(order.getPromoCode());
         dto.setShippingCost(order.getShippingCost());
         dto.setTax(order.getTax());
         dto.setTotal(order.getTotal());
@@ -301,13 +495,23 @@ public class OrderService {
     private OrderItemDto convertToDto(OrderItem item) {
         OrderItemDto dto = new OrderItemDto();
         dto.setId(item.getId());
-        dto.setProduct(productService.convertToDto(item.getProduct()));
+        dto.setProduct(convertToLineDto(item.getProduct()));
         dto.setQuantity(item.getQuantity());
         dto.setUnitPrice(item.getUnitPrice());
         dto.setTotalPrice(item.getTotalPrice());
         return dto;
     }
 
+    // Строка заказа хранит только неизменные для заказа данные товара: остатки, категория
+    // и описание в снимке и архиве устаревали бы, а цена строки - unitPrice
+    private static ProductDto convertToLineDto(Product product) {
+        ProductDto dto = new ProductDto();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setSku(product.getSku());
+        return dto;
+    }
+
     private ShippingAddressDto convertToDto(ShippingAddress address) {
         ShippingAddressDto dto = new ShippingAddressDto();
         dto.setId(address.getId());
@@ -0,0 +1,33 @@
+package com.ecommerce.order.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Досоздает снимки для заказов, у которых их нет (заказы, созданные до появления модели чтения).
+// До этого такие заказы читаются из таблиц заказа
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSnapshotBackfill {
+    private final OrderService orderService;
+
+    @Value("${app.order-snapshot.backfill-batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.order-snapshot.backfill-interval-ms:300000}")
+    public void backfill() {
+        int total = 0;
+        int written;
+        do {
+            written = orderService.backfillSnapshots(batchSize);
+            total += written;
+        } while (written == batchSize);
+
+        if (total > 0) {
+            log.info("Backfilled {} order snapshots", total);
+        }
+    }
+}
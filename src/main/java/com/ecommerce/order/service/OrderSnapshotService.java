@@ -0,0 +1,95 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.entity.OrderSnapshot;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.repository.OrderSnapshotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Чтение заказа - одна строка по первичному ключу и десериализация вместо
+// загрузки Order -> items -> Product -> Category и ShippingAddress.
+// Отсутствующий или нечитаемый снимок означает, что заказ нужно собрать из таблиц
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderSnapshotService {
+    private final OrderSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+
+    // Вызывается только внутри транзакции, изменившей заказ
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void save(Long userId, OrderDto order) {
+        OrderSnapshot snapshot = new OrderSnapshot();
+        snapshot.setOrderId(order.getId());
+        snapshot.setUserId(userId);
+        snapshot.setPayload(serialize(order));
+        snapshot.setUpdatedAt(LocalDateTime.now());
+        snapshotRepository.save(snapshot);
+    }
+
+    // Массовая смена статуса: правит статус и updatedAt в существующих снимках без загрузки заказов.
+    // Нечитаемые снимки удаляются - их пересоберет OrderSnapshotBackfill
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateStatus(Collection<Long> orderIds, OrderStatus status, LocalDateTime updatedAt) {
+        List<OrderSnapshot> unreadable = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (OrderSnapshot snapshot : snapshotRepository.findAllById(orderIds)) {
+            Optional<OrderDto> order = deserialize(snapshot);
+            if (order.isEmpty()) {
+                unreadable.add(snapshot);
+                continue;
+            }
+            order.get().setStatus(status);
+            order.get().setUpdatedAt(updatedAt);
+            snapshot.setPayload(serialize(order.get()));
+            snapshot.setUpdatedAt(now);
+        }
+        snapshotRepository.deleteAll(unreadable);
+    }
+
+    public Optional<OrderDto> find(Long orderId) {
+        return snapshotRepository.findById(orderId).flatMap(this::deserialize);
+    }
+
+    public Map<Long, OrderDto> findAll(Collection<Long> orderIds) {
+        Map<Long, OrderDto> orders = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return orders;
+        }
+        for (OrderSnapshot snapshot : snapshotRepository.findAllById(orderIds)) {
+            deserialize(snapshot).ifPresent(order -> orders.put(snapshot.getOrderId(), order));
+        }
+        return orders;
+    }
+
+    private String serialize(OrderDto order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order snapshot", e);
+        }
+    }
+
+    private Optional<OrderDto> deserialize(OrderSnapshot snapshot) {
+        try {
+            return Optional.of(objectMapper.readValue(snapshot.getPayload(), OrderDto.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable snapshot for order {}", snapshot.getOrderId(), e);
+            return Optional.empty();
+        }
+    }
+}
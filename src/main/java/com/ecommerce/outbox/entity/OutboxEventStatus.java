@@ -0,0 +1,7 @@
+package com.ecommerce.outbox.entity;
+
+public enum OutboxEventStatus {
+    PENDING,    // Ожидает обработки
+    PROCESSED,  // Обработано
+    FAILED      // Исчерпаны попытки, нужна ручная проверка
+}
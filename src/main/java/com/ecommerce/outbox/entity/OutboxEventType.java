@@ -0,0 +1,5 @@
+package com.ecommerce.outbox.entity;
+
+public enum OutboxEventType {
+    ORDER_PAID         // Оплата подтверждена: списать остатки, снять резервы
+}
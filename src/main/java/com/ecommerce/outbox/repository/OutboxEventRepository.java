@@ -0,0 +1,25 @@
+package com.ecommerce.outbox.repository;
+
+import com.ecommerce.outbox.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = com.ecommerce.outbox.entity.OutboxEventStatus.PENDING " +
+           "AND e.availableAt <= :now ORDER BY e.id")
+    List<Long> findDispatchableIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Захват события: только один обработчик переведет его из PENDING
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.ecommerce.outbox.entity.OutboxEventStatus.PROCESSED, " +
+           "e.processedAt = :now WHERE e.id = :id AND e.status = com.ecommerce.outbox.entity.OutboxEventStatus.PENDING")
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.outbox.service;
+
+import com.ecommerce.outbox.entity.OutboxEvent;
+import com.ecommerce.outbox.entity.OutboxEventType;
+
+// Обработчик вызывается в той же транзакции, в которой событие помечается обработанным,
+// поэтому его изменения в БД применяются ровно один раз.
+public interface OutboxEventHandler {
+    OutboxEventType getEventType();
+
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,122 @@
+package com.ecommerce.outbox.service;
+
+import com.ecommerce.outbox.entity.OutboxEvent;
+import com.ecommerce.outbox.entity.OutboxEventStatus;
+import com.ecommerce.outbox.entity.OutboxEventType;
+import com.ecommerce.outbox.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Доставляет события outbox обработчикам на выделенном пуле потоков.
+// Будится после коммита публикующей транзакции; опрос по расписанию подбирает
+// пропущенные события и повторы после ошибок.
+@Slf4j
+@Component
+public class OutboxRelay {
+    static final int MAX_ATTEMPTS = 10;
+    private static final int BATCH_SIZE = 100;
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final Map<OutboxEventType, OutboxEventHandler> handlers = new EnumMap<>(OutboxEventType.class);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Qualifier("outboxExecutor") Executor executor,
+                       List<OutboxEventHandler> handlers) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = executor;
+        handlers.forEach(handler -> this.handlers.put(handler.getEventType(), handler));
+    }
+
+    public void wakeUp() {
+        wakeUpRequested.set(true);
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Пул уже занят разбором очереди — событие подхватит текущий или плановый проход
+            log.debug("Outbox relay is busy, event will be picked up by the running drain");
+        }
+    }
+
+    // Обработчики выполняются на пуле outbox, а не на общем потоке планировщика
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    void drain() {
+        // Один проход за раз на инстанс: так сохраняется порядок событий по заказу
+        while (wakeUpRequested.get() && draining.compareAndSet(false, true)) {
+            try {
+                wakeUpRequested.set(false);
+                List<Long> ids;
+                do {
+                    ids = outboxEventRepository.findDispatchableIds(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+                    ids.forEach(this::dispatch);
+                } while (ids.size() == BATCH_SIZE);
+            } catch (RuntimeException e) {
+                log.error("Outbox drain failed: {}", e.getMessage());
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    void dispatch(Long eventId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (outboxEventRepository.markProcessed(eventId, LocalDateTime.now()) == 0) {
+                    return;
+                }
+                OutboxEvent event = outboxEventRepository.findById(eventId).orElseThrow();
+                OutboxEventHandler handler = handlers.get(event.getEventType());
+                if (handler != null) {
+                    handler.handle(event);
+                } else {
+                    log.debug("No handler for outbox event type {}", event.getEventType());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Outbox event {} failed: {}", eventId, e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> recordFailure(eventId, e));
+        }
+    }
+
+    private void recordFailure(Long eventId, RuntimeException error) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error.getMessage());
+            if (attempts >= MAX_ATTEMPTS) {
+                event.setStatus(OutboxEventStatus.FAILED);
+                log.error("Outbox event {} ({}) moved to FAILED after {} attempts",
+                        eventId, event.getEventType(), attempts);
+            } else {
+                long delaySeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << attempts);
+                event.setAvailableAt(LocalDateTime.now().plusSeconds(delaySeconds));
+            }
+            outboxEventRepository.save(event);
+        });
+    }
+}
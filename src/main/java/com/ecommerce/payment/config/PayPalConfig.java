@@ -1,8 +1,6 @@
 package com.ecommerce.payment.config;
 
-import com.paypal.base.rest.APIContext;
-import com.paypal.base.rest.OAuthTokenCredential;
-import com.paypal.base.rest.PayPalRESTException;
+import com.paypal.base.Constants;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -24,26 +22,17 @@ public class PayPalConfig {
     public Map<String, String> paypalSdkConfig() {
         Map<String, String> configMap = new HashMap<>();
         configMap.put("mode", payPalProperties.getMode());
+        // Без таймаутов зависший PayPal держит поток бесконечно
+        configMap.put("http.ConnectionTimeOut", String.valueOf(payPalProperties.getHttp().getConnectTimeoutMs()));
+        configMap.put("http.ReadTimeOut", String.valueOf(payPalProperties.getHttp().getReadTimeoutMs()));
+        // Повторы SDK отключены: создание платежа неидемпотентно, а ожидание множилось бы на число попыток
+        configMap.put("http.Retry", "0");
+        String endpoint = payPalProperties.getEndpoint();
+        if (endpoint != null && !endpoint.isBlank()) {
+            String baseUrl = endpoint.endsWith("/") ? endpoint : endpoint + "/";
+            configMap.put(Constants.ENDPOINT, baseUrl);
+            configMap.put(Constants.OAUTH_ENDPOINT, baseUrl);
+        }
         return configMap;
     }
-
-    @Bean
-    public OAuthTokenCredential oAuthTokenCredential() {
-        return new OAuthTokenCredential(
-                payPalProperties.getClient().getId(),
-                payPalProperties.getClient().getSecret(),
-                paypalSdkConfig()
-        );
-    }
-
-    @Bean
-    public APIContext apiContext() throws PayPalRESTException {
-        APIContext context = new APIContext(
-                payPalProperties.getClient().getId(),
-                payPalProperties.getClient().getSecret(),
-                payPalProperties.getMode()
-        );
-        context.setConfigurationMap(paypalSdkConfig());
-        return context;
-    }
 } 
\ No newline at end of file
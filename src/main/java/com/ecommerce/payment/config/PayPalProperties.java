@@ -8,6 +8,12 @@ import org.springframework.context.annotation.Configuration;
 public class PayPalProperties {
     private Client client = new Client();
     private String mode;
+    // Базовый URL REST API вместо определяемого по mode (например, симулятор)
+    private String endpoint;
+    private Http http = new Http();
+    private Resilience resilience = new Resilience();
+    private Token token = new Token();
+    private Webhook webhook = new Webhook();
 
     public static class Client {
         private String id;
@@ -30,6 +36,159 @@ public class PayPalProperties {
         }
     }
 
+    // Таймауты соединения и чтения SDK, мс
+    public static class Http {
+        private int connectTimeoutMs = 5000;
+        private int readTimeoutMs = 15000;
+
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public int getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(int readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+    }
+
+    public static class Resilience {
+        // Одновременных вызовов PayPal на инстанс
+        private int maxConcurrentCalls = 20;
+        // Общий лимит на вызов, включая ожидание в пуле
+        private long callTimeoutMs = 25000;
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRatePercent = 50;
+        private long openDurationMs = 30000;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public long getCallTimeoutMs() {
+            return callTimeoutMs;
+        }
+
+        public void setCallTimeoutMs(long callTimeoutMs) {
+            this.callTimeoutMs = callTimeoutMs;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRatePercent() {
+            return failureRatePercent;
+        }
+
+        public void setFailureRatePercent(int failureRatePercent) {
+            this.failureRatePercent = failureRatePercent;
+        }
+
+        public long getOpenDurationMs() {
+            return openDurationMs;
+        }
+
+        public void setOpenDurationMs(long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+        }
+    }
+
+    public static class Token {
+        // Токен обновляется заранее, за столько секунд до истечения
+        private long refreshAheadSeconds = 300;
+        private long refreshCheckIntervalMs = 60000;
+
+        public long getRefreshAheadSeconds() {
+            return refreshAheadSeconds;
+        }
+
+        public void setRefreshAheadSeconds(long refreshAheadSeconds) {
+            this.refreshAheadSeconds = refreshAheadSeconds;
+        }
+
+        public long getRefreshCheckIntervalMs() {
+            return refreshCheckIntervalMs;
+        }
+
+        public void setRefreshCheckIntervalMs(long refreshCheckIntervalMs) {
+            this.refreshCheckIntervalMs = refreshCheckIntervalMs;
+        }
+    }
+
+    public static class Webhook {
+        // ID вебхука в кабинете PayPal; без него подпись не проверить и события отклоняются
+        private String id;
+        private int workerThreads = 4;
+        private int batchSize = 200;
+        private int maxAttempts = 10;
+        // Обработанные события хранятся для дедупликации повторов PayPal (до 3 дней)
+        private int retentionDays = 7;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+    }
+
     public Client getClient() {
         return client;
     }
@@ -45,4 +204,44 @@ public class PayPalProperties {
     public void setMode(String mode) {
         this.mode = mode;
     }
-} 
\ No newline at end of file
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
+    public Resilience getResilience() {
+        return resilience;
+    }
+
+    public void setResilience(Resilience resilience) {
+        this.resilience = resilience;
+    }
+
+    public Token getToken() {
+        return token;
+    }
+
+    public void setToken(Token token) {
+        this.token = token;
+    }
+
+    public Webhook getWebhook() {
+        return webhook;
+    }
+
+    public void setWebhook(Webhook webhook) {
+        this.webhook = webhook;
+    }
+}
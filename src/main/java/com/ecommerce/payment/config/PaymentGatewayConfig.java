@@ -0,0 +1,53 @@
+package com.ecommerce.payment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PaymentGatewayConfig {
+
+    // Пул вызовов PayPal отделен от потоков Tomcat; его размер совпадает с bulkhead, и лишние вызовы
+    // отклоняются bulkhead до постановки в пул. Небольшая очередь нужна для окна, когда слот уже
+    // освобожден, а поток еще не вернулся за новой задачей: без нее пул отклонял бы разрешенный вызов
+    @Bean
+    public ThreadPoolTaskExecutor paypalExecutor(PayPalProperties payPalProperties) {
+        int maxConcurrentCalls = payPalProperties.getResilience().getMaxConcurrentCalls();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentCalls);
+        executor.setMaxPoolSize(maxConcurrentCalls);
+        executor.setQueueCapacity(maxConcurrentCalls);
+        executor.setThreadNamePrefix("paypal-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Один поток раздает ожидающие вебхуки; очередь из одной задачи схлопывает повторные пробуждения
+    @Bean
+    public ThreadPoolTaskExecutor paymentWebhookDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("webhook-dispatch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Воркеры получают все события одного платежа одной задачей; при заполнении пула
+    // оставшиеся события ждут в таблице следующего прохода
+    @Bean
+    public ThreadPoolTaskExecutor paymentWebhookWorkerExecutor(PayPalProperties payPalProperties) {
+        int workerThreads = payPalProperties.getWebhook().getWorkerThreads();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setQueueCapacity(workerThreads * 4);
+        executor.setThreadNamePrefix("webhook-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.payment.controller;
 
+import com.ecommerce.common.money.Money;
 import com.ecommerce.payment.dto.PayPalPaymentResponse;
 import com.ecommerce.payment.service.PayPalService;
 import com.paypal.api.payments.Payment;
@@ -8,6 +9,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
 @RestController
 @RequestMapping("/payments/paypal")
 public class PayPalController {
@@ -17,15 +22,14 @@ public class PayPalController {
 
     @PostMapping("/create")
     public ResponseEntity<PayPalPaymentResponse> createPayment(
-            @RequestParam("amount") Double amount,
+            @RequestParam("amount") BigDecimal amount,
             @RequestParam("currency") String currency,
             @RequestParam("description") String description,
             @RequestParam(value = "successUrl", required = false, defaultValue = "http://localhost:3000/payment/success") String successUrl,
             @RequestParam(value = "cancelUrl", required = false, defaultValue = "http://localhost:3000/payment/cancel") String cancelUrl) {
         try {
             Payment payment = payPalService.createPayment(
-                    amount,
-                    currency,
+                    Money.of(amount, Currency.getInstance(currency), RoundingMode.HALF_UP),
                     "paypal",
                     "sale",
                     description,
@@ -0,0 +1,26 @@
+package com.ecommerce.payment.controller;
+
+import com.ecommerce.payment.service.PaymentWebhookIngestor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/payments/paypal/webhook")
+@RequiredArgsConstructor
+public class PayPalWebhookController {
+    private final PaymentWebhookIngestor ingestor;
+
+    // Тело принимается строкой: подпись PayPal считается по исходным байтам.
+    // Повтор уже принятого события тоже получает 200, иначе PayPal продолжит доставку
+    @PostMapping
+    public ResponseEntity<Void> receive(@RequestHeader HttpHeaders headers, @RequestBody String payload) {
+        ingestor.ingest(headers, payload);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.payment.dto;
+
+import java.time.LocalDateTime;
+
+// Проекция ожидающего вебхука для раздачи по воркерам без загрузки тела события
+public record PendingWebhookView(Long id, String partitionKey, LocalDateTime availableAt) {
+}
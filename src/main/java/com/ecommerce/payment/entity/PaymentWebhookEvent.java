@@ -0,0 +1,65 @@
+package com.ecommerce.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Входящий вебхук PayPal. Тело хранится без изменений: подпись проверяется по исходным байтам
+@Data
+@Entity
+@Table(name = "payment_webhook_events", indexes = {
+        @Index(name = "idx_payment_webhook_events_status_id", columnList = "status, id"),
+        @Index(name = "idx_payment_webhook_events_partition_key_id", columnList = "partitionKey, id"),
+        @Index(name = "idx_payment_webhook_events_processed_at", columnList = "processedAt")
+})
+public class PaymentWebhookEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // ID события PayPal; уникальность отсекает повторные доставки
+    @Column(nullable = false, unique = true, length = 64)
+    private String eventId;
+
+    @Column(nullable = false, length = 100)
+    private String eventType;
+
+    // События с одним ключом (ID платежа) обрабатываются строго по порядку поступления
+    @Column(nullable = false, length = 100)
+    private String partitionKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // Заголовки PAYPAL-TRANSMISSION-*, нужные для проверки подписи
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String headers;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentWebhookStatus status = PaymentWebhookStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column
+    private LocalDateTime processedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.payment.entity;
+
+public enum PaymentWebhookStatus {
+    PENDING,    // Принято, ожидает проверки подписи и обработки
+    PROCESSED,  // Обработано (или тип события нам не нужен)
+    REJECTED,   // Подпись не прошла проверку
+    FAILED      // Исчерпаны попытки, нужна ручная проверка
+}
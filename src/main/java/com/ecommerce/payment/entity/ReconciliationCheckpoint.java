@@ -0,0 +1,25 @@
+package com.ecommerce.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Позиция сверки платежей: следующий проход продолжит после (lastCreatedAt, lastOrderId)
+@Data
+@Entity
+@Table(name = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    @Column(nullable = false)
+    private Long lastOrderId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.payment.repository;
+
+import com.ecommerce.payment.dto.PendingWebhookView;
+import com.ecommerce.payment.entity.PaymentWebhookEvent;
+import com.ecommerce.payment.entity.PaymentWebhookStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+    // Ожидающие события, до которых (включительно) по тому же платежу нет отложенного повтора.
+    // Отложенное событие удерживает более поздние события своего платежа, но не занимает место
+    // в выборке и не задерживает раздачу других платежей
+    @Query("SELECT new com.ecommerce.payment.dto.PendingWebhookView(e.id, e.partitionKey, e.availableAt) " +
+           "FROM PaymentWebhookEvent e WHERE e.status = com.ecommerce.payment.entity.PaymentWebhookStatus.PENDING " +
+           "AND NOT EXISTS (SELECT b.id FROM PaymentWebhookEvent b " +
+           "WHERE b.status = com.ecommerce.payment.entity.PaymentWebhookStatus.PENDING " +
+           "AND b.partitionKey = e.partitionKey AND b.id <= e.id AND b.availableAt > :now) " +
+           "ORDER BY e.id")
+    List<PendingWebhookView> findDispatchable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Захват события: только один обработчик переведет его из PENDING
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :status, e.processedAt = :now " +
+           "WHERE e.id = :id AND e.status = com.ecommerce.payment.entity.PaymentWebhookStatus.PENDING")
+    int complete(@Param("id") Long id, @Param("status") PaymentWebhookStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM PaymentWebhookEvent e WHERE e.status <> com.ecommerce.payment.entity.PaymentWebhookStatus.PENDING " +
+           "AND e.processedAt < :before")
+    int deleteCompletedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.common.exception.PaymentGatewayUnavailableException;
+import com.ecommerce.common.resilience.Bulkhead;
+import com.ecommerce.common.resilience.CircuitBreaker;
+import com.ecommerce.payment.config.PayPalProperties;
+import com.paypal.base.rest.PayPalRESTException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Все вызовы PayPal SDK проходят через bulkhead, размыкатель и общий таймаут и выполняются
+// на пуле paypalExecutor. При недоступности PayPal вызов сразу завершается
+// PaymentGatewayUnavailableException (503), а не занимает поток запроса до таймаута сокета
+@Slf4j
+@Component
+public class PayPalGateway {
+    private final Executor executor;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final long callTimeoutMs;
+
+    public PayPalGateway(@Qualifier("paypalExecutor") Executor executor, PayPalProperties payPalProperties) {
+        PayPalProperties.Resilience resilience = payPalProperties.getResilience();
+        this.executor = executor;
+        this.bulkhead = new Bulkhead(resilience.getMaxConcurrentCalls());
+        this.circuitBreaker = new CircuitBreaker("paypal", resilience.getSlidingWindowSize(),
+                resilience.getMinimumCalls(), resilience.getFailureRatePercent(),
+                Duration.ofMillis(resilience.getOpenDurationMs()));
+        this.callTimeoutMs = resilience.getCallTimeoutMs();
+    }
+
+    @FunctionalInterface
+    public interface PayPalCall<T> {
+        T call() throws PayPalRESTException;
+    }
+
+    public <T> CompletableFuture<T> submit(String operation, PayPalCall<T> call) {
+        if (!bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayUnavailableException("Too many concurrent payment requests, please retry"));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayUnavailableException("Payment provider is temporarily unavailable, please retry later"));
+        }
+
+        CompletableFuture<T> result;
+        try {
+            // Слот bulkhead держится, пока вызов реально выполняется на пуле, в том числе после таймаута ожидания
+            result = CompletableFuture.supplyAsync(() -> invoke(operation, call), executor)
+                    .whenComplete((value, error) -> bulkhead.release());
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.releasePermission();
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayUnavailableException("Too many concurrent payment requests, please retry", e));
+        }
+        return result
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof TimeoutException) {
+                        log.warn("PayPal {} timed out after {} ms", operation, callTimeoutMs);
+                        return CompletableFuture.failedFuture(new PaymentGatewayUnavailableException(
+                                "Payment provider did not respond in time, please retry later", cause));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    // Синхронный вариант для вызывающего кода, которому нужен результат в том же потоке
+    public <T> T call(String operation, PayPalCall<T> call) throws PayPalRESTException {
+        try {
+            return submit(operation, call).join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof PayPalRESTException payPalError) {
+                throw payPalError;
+            }
+            if (cause instanceof RuntimeException runtimeError) {
+                throw runtimeError;
+            }
+            throw new PaymentGatewayUnavailableException("PayPal " + operation + " failed", cause);
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public int getActiveCalls() {
+        return bulkhead.getActiveCalls();
+    }
+
+    private <T> T invoke(String operation, PayPalCall<T> call) {
+        try {
+            T value = call.call();
+            circuitBreaker.onSuccess();
+            return value;
+        } catch (PayPalRESTException e) {
+            // Ответ 4xx означает, что PayPal работает и отклонил запрос; размыкатель считает только сбои
+            if (isGatewayFailure(e)) {
+                circuitBreaker.onFailure();
+                log.warn("PayPal {} failed (HTTP {}): {}", operation, e.getResponsecode(), e.getMessage());
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw new CompletionException(e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            log.warn("PayPal {} failed: {}", operation, e.getMessage());
+            throw e;
+        }
+    }
+
+    private static boolean isGatewayFailure(PayPalRESTException e) {
+        int status = e.getResponsecode();
+        return status == 0 || status == 429 || status >= 500;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -1,29 +1,34 @@
 package com.ecommerce.payment.service;
 
+import com.ecommerce.common.money.Money;
 import com.paypal.api.payments.*;
 import com.paypal.base.rest.APIContext;
 import com.paypal.base.rest.PayPalRESTException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class PayPalService {
 
-    private APIContext apiContext;
+    private PayPalTokenManager tokenManager;
+    private PayPalGateway gateway;
 
     @Autowired
-    public void setApiContext(APIContext apiContext) {
-        this.apiContext = apiContext;
+    public void setTokenManager(PayPalTokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+    }
+
+    @Autowired
+    public void setGateway(PayPalGateway gateway) {
+        this.gateway = gateway;
     }
 
     public Payment createPayment(
-            Double total,
-            String currency,
+            Money total,
             String method,
             String intent,
             String description,
@@ -31,9 +36,9 @@ public class PayPalService {
             String successUrl) throws PayPalRESTException {
         
         Amount amount = new Amount();
-        amount.setCurrency(currency);
-        total = new BigDecimal(total).setScale(2, RoundingMode.HALF_UP).doubleValue();
-        amount.setTotal(String.format("%.2f", total));
+        // Сумма уже в центах валюты, без промежуточного double
+        amount.setCurrency(total.getCurrency().getCurrencyCode());
+        amount.setTotal(total.toPlainString());
 
         Transaction transaction = new Transaction();
         transaction.setDescription(description);
@@ -55,7 +60,8 @@ public class PayPalService {
         redirectUrls.setReturnUrl(successUrl);
         payment.setRedirectUrls(redirectUrls);
 
-        return payment.create(apiContext);
+        APIContext context = tokenManager.newContext();
+        return gateway.call("create-payment", () -> payment.create(context));
     }
 
     public Payment executePayment(String paymentId, String payerId) throws PayPalRESTException {
@@ -63,6 +69,18 @@ public class PayPalService {
         payment.setId(paymentId);
         PaymentExecution paymentExecute = new PaymentExecution();
         paymentExecute.setPayerId(payerId);
-        return payment.execute(apiContext, paymentExecute);
+        APIContext context = tokenManager.newContext();
+        return gateway.call("execute-payment", () -> payment.execute(context, paymentExecute));
+    }
+
+    // Текущее состояние платежа; запрос идет асинхронно через шлюз, чтобы сверка опрашивала платежи параллельно
+    public CompletableFuture<Payment> getPaymentAsync(String paymentId) {
+        APIContext context;
+        try {
+            context = tokenManager.newContext();
+        } catch (PayPalRESTException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return gateway.submit("get-payment", () -> Payment.get(context, paymentId));
     }
-} 
\ No newline at end of file
+}
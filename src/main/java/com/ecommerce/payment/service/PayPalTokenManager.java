@@ -0,0 +1,185 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.common.exception.PaymentGatewayUnavailableException;
+import com.ecommerce.payment.config.PayPalProperties;
+import com.paypal.base.rest.APIContext;
+import com.paypal.base.rest.OAuthTokenCredential;
+import com.paypal.base.rest.PayPalRESTException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+// Кэширует OAuth-токен PayPal до момента незадолго до истечения.
+// Токен получает только один поток (single-flight), остальные ждут его результат.
+// Плановая проверка обновляет токен заранее, поэтому запросы платежей почти никогда не ждут
+// получения токена. Для каждого вызова создается свой APIContext с общим токеном:
+// общий APIContext хранит один PayPal-Request-Id и отправлял бы его во всех запросах.
+@Slf4j
+@Component
+public class PayPalTokenManager {
+    private final TokenFetcher fetcher;
+    private final Map<String, String> sdkConfig;
+    private final long refreshAheadNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+    private final Counter cacheHits;
+    private final Counter fetchFailures;
+    private final Timer fetchTimer;
+
+    private volatile CachedToken current;
+
+    @Autowired
+    public PayPalTokenManager(PayPalProperties payPalProperties,
+                              @Qualifier("paypalSdkConfig") Map<String, String> sdkConfig,
+                              PayPalGateway gateway,
+                              MeterRegistry meterRegistry) {
+        this(() -> gateway.call("oauth-token", () -> {
+                    OAuthTokenCredential credential = new OAuthTokenCredential(
+                            payPalProperties.getClient().getId(),
+                            payPalProperties.getClient().getSecret(),
+                            sdkConfig);
+                    String accessToken = credential.getAccessToken();
+                    return new FetchedToken(accessToken, credential.expiresIn());
+                }),
+                sdkConfig,
+                Duration.ofSeconds(payPalProperties.getToken().getRefreshAheadSeconds()),
+                meterRegistry,
+                System::nanoTime);
+    }
+
+    PayPalTokenManager(TokenFetcher fetcher, Map<String, String> sdkConfig, Duration refreshAhead,
+                       MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.fetcher = fetcher;
+        this.sdkConfig = Map.copyOf(sdkConfig);
+        this.refreshAheadNanos = refreshAhead.toNanos();
+        this.nanoTime = nanoTime;
+        this.cacheHits = meterRegistry.counter("paypal.oauth.token.cache.hits");
+        this.fetchFailures = meterRegistry.counter("paypal.oauth.token.fetches.failed");
+        this.fetchTimer = meterRegistry.timer("paypal.oauth.token.fetches");
+    }
+
+    @FunctionalInterface
+    interface TokenFetcher {
+        FetchedToken fetch() throws PayPalRESTException;
+    }
+
+    record FetchedToken(String accessToken, long expiresInSeconds) {
+    }
+
+    // Новый контекст на вызов: токен общий, PayPal-Request-Id у каждого запроса свой
+    public APIContext newContext() throws PayPalRESTException {
+        APIContext context = new APIContext(getAccessToken());
+        context.setConfigurationMap(new HashMap<>(sdkConfig));
+        return context;
+    }
+
+    public String getAccessToken() throws PayPalRESTException {
+        CachedToken token = current;
+        long now = nanoTime.getAsLong();
+        boolean valid = token != null && now < token.expiresAt();
+        // Пока токен действителен и его уже обновляет другой поток, запрос не ждет обновления
+        if (valid && (now < token.refreshAt() || inFlight.get() != null)) {
+            cacheHits.increment();
+            return token.value();
+        }
+        try {
+            return refresh().value();
+        } catch (PayPalRESTException | RuntimeException e) {
+            if (valid) {
+                log.warn("PayPal token refresh failed, using current token until it expires: {}", e.getMessage());
+                return token.value();
+            }
+            throw e;
+        }
+    }
+
+    // Заранее обновляет токен, срок которого подходит к концу; пока токен не получен впервые, ничего не делает
+    @Scheduled(fixedDelayString = "${paypal.token.refresh-check-interval-ms:60000}")
+    public void refreshIfExpiring() {
+        CachedToken token = current;
+        if (token == null || nanoTime.getAsLong() < token.refreshAt()) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (PayPalRESTException | RuntimeException e) {
+            // Действующий токен остается в кэше; следующая проверка повторит попытку
+            log.warn("Proactive PayPal token refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private CachedToken refresh() throws PayPalRESTException {
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        CompletableFuture<CachedToken> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            // Вызывающий мог прочитать current до завершения предыдущего обновления и выиграть CAS
+            // уже после него: свежий токен отдаем без повторного запроса
+            CachedToken fresh = current;
+            if (fresh != null && nanoTime.getAsLong() < fresh.refreshAt()) {
+                mine.complete(fresh);
+                return fresh;
+            }
+            CachedToken token = fetch();
+            current = token;
+            mine.complete(token);
+            return token;
+        } catch (PayPalRESTException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    private CachedToken fetch() throws PayPalRESTException {
+        long started = nanoTime.getAsLong();
+        try {
+            FetchedToken fetched = fetcher.fetch();
+            long fetchedAt = nanoTime.getAsLong();
+            fetchTimer.record(fetchedAt - started, TimeUnit.NANOSECONDS);
+            // Истечение отсчитывается от начала запроса, чтобы не переоценить срок жизни токена
+            long expiresAt = started + TimeUnit.SECONDS.toNanos(fetched.expiresInSeconds());
+            long refreshAt = Math.max(fetchedAt, expiresAt - refreshAheadNanos);
+            log.info("Fetched PayPal access token valid for {} s", fetched.expiresInSeconds());
+            return new CachedToken(fetched.accessToken(), expiresAt, refreshAt);
+        } catch (PayPalRESTException | RuntimeException e) {
+            fetchFailures.increment();
+            throw e;
+        }
+    }
+
+    private static CachedToken await(CompletableFuture<CachedToken> running) throws PayPalRESTException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PayPalRESTException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentGatewayUnavailableException("Failed to obtain PayPal access token", e.getCause());
+        }
+    }
+
+    private record CachedToken(String value, long expiresAt, long refreshAt) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.config.PayPalProperties;
+import com.paypal.api.payments.Event;
+import com.paypal.base.Constants;
+import com.paypal.base.rest.APIContext;
+import com.paypal.base.rest.PayPalRESTException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Проверка подписи вебхука PayPal по сертификату отправителя (SDK кэширует загруженные сертификаты).
+// Выполняется воркером очереди, а не потоком приема: загрузка сертификата - сетевой вызов
+@Slf4j
+@Component
+public class PayPalWebhookVerifier {
+    private final PayPalGateway gateway;
+    private final Map<String, String> sdkConfig;
+    private final String webhookId;
+
+    public PayPalWebhookVerifier(PayPalGateway gateway,
+                                 @Qualifier("paypalSdkConfig") Map<String, String> sdkConfig,
+                                 PayPalProperties payPalProperties) {
+        this.gateway = gateway;
+        this.sdkConfig = Map.copyOf(sdkConfig);
+        this.webhookId = payPalProperties.getWebhook().getId();
+    }
+
+    // false - подпись недействительна; сетевые ошибки пробрасываются, чтобы событие было повторено
+    public boolean verify(Map<String, String> headers, String payload) throws PayPalRESTException {
+        if (webhookId == null || webhookId.isBlank()) {
+            log.warn("paypal.webhook.id is not configured, webhook signature cannot be verified");
+            return false;
+        }
+        Map<String, String> config = new HashMap<>(sdkConfig);
+        config.put(Constants.PAYPAL_WEBHOOK_ID, webhookId);
+        APIContext context = new APIContext();
+        context.setConfigurationMap(config);
+
+        return gateway.call("verify-webhook", () -> {
+            try {
+                return Event.validateReceivedEvent(context, new HashMap<>(headers), payload);
+            } catch (GeneralSecurityException e) {
+                log.warn("Webhook signature check failed: {}", e.getMessage());
+                return false;
+            }
+        });
+    }
+}
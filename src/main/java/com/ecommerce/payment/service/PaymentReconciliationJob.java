@@ -0,0 +1,238 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.order.dto.PendingPaymentView;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.payment.entity.ReconciliationCheckpoint;
+import com.ecommerce.payment.repository.ReconciliationCheckpointRepository;
+import com.paypal.api.payments.Payer;
+import com.paypal.api.payments.Payment;
+import com.paypal.base.rest.PayPalRESTException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+// Сверка заказов, зависших в PROCESSING (платеж создан, но не проведен или потерян callback).
+// Заказы читаются пачками по keyset-курсору (createdAt, id), состояние платежей запрашивается
+// у PayPal параллельно с ограничением числа одновременных запросов. Позиция сохраняется после
+// каждой пачки, поэтому прерванный по времени или падению проход продолжается с того же места.
+@Slf4j
+@Component
+public class PaymentReconciliationJob {
+    static final String CHECKPOINT_NAME = "paypal-payments";
+    static final String EXPIRED_REASON = "PayPal payment was not completed in time";
+    private static final LocalDateTime SWEEP_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final PayPalService payPalService;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final Duration staleAfter;
+    private final Duration expireAfter;
+    private final int chunkSize;
+    private final int maxConcurrency;
+    private final Duration maxDuration;
+
+    public PaymentReconciliationJob(OrderRepository orderRepository,
+                                    OrderService orderService,
+                                    PayPalService payPalService,
+                                    ReconciliationCheckpointRepository checkpointRepository,
+                                    @Value("${app.payment-reconciliation.stale-after:PT30M}") Duration staleAfter,
+                                    @Value("${app.payment-reconciliation.expire-after:PT3H}") Duration expireAfter,
+                                    @Value("${app.payment-reconciliation.chunk-size:100}") int chunkSize,
+                                    @Value("${app.payment-reconciliation.max-concurrency:8}") int maxConcurrency,
+                                    @Value("${app.payment-reconciliation.max-duration:PT10M}") Duration maxDuration) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.payPalService = payPalService;
+        this.checkpointRepository = checkpointRepository;
+        this.staleAfter = staleAfter;
+        this.expireAfter = expireAfter;
+        this.chunkSize = chunkSize;
+        this.maxConcurrency = maxConcurrency;
+        this.maxDuration = maxDuration;
+    }
+
+    enum Outcome {
+        SETTLE,   // Платеж проведен в PayPal - подтверждаем заказ
+        EXECUTE,  // Покупатель одобрил платеж, но executePayment не был вызван
+        EXPIRE,   // Платеж отклонен или истек - отменяем заказ и снимаем резервы
+        WAIT      // Покупатель еще может завершить оплату
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment-reconciliation.interval-ms:900000}",
+               initialDelayString = "${app.payment-reconciliation.initial-delay-ms:60000}")
+    public void run() {
+        Counts counts = reconcile(System.nanoTime() + maxDuration.toNanos());
+        if (counts.total() > 0) {
+            log.info("Payment reconciliation: settled {}, expired {}, waiting {}, lookup failures {}",
+                    counts.settled, counts.expired, counts.waiting, counts.failed);
+        }
+    }
+
+    Counts reconcile(long deadlineNanos) {
+        Counts counts = new Counts();
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(PaymentReconciliationJob::sweepStart);
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+
+        while (true) {
+            List<PendingPaymentView> chunk = orderRepository.findPendingPayments(PaymentStatus.PROCESSING, cutoff,
+                    checkpoint.getLastCreatedAt(), checkpoint.getLastOrderId(), PageRequest.of(0, chunkSize));
+            if (!chunk.isEmpty()) {
+                reconcileChunk(chunk, counts);
+                PendingPaymentView last = chunk.get(chunk.size() - 1);
+                checkpoint.setLastCreatedAt(last.createdAt());
+                checkpoint.setLastOrderId(last.id());
+            }
+            if (chunk.size() < chunkSize) {
+                // Проход завершен: следующий запуск начнет сначала
+                checkpoint.setLastCreatedAt(SWEEP_START);
+                checkpoint.setLastOrderId(0L);
+                saveCheckpoint(checkpoint);
+                return counts;
+            }
+            saveCheckpoint(checkpoint);
+            if (System.nanoTime() >= deadlineNanos) {
+                log.info("Payment reconciliation stopped by time limit, will resume after order {}",
+                        checkpoint.getLastOrderId());
+                return counts;
+            }
+        }
+    }
+
+    private void reconcileChunk(List<PendingPaymentView> chunk, Counts counts) {
+        Map<PendingPaymentView, CompletableFuture<Payment>> lookups = lookup(chunk);
+        List<Long> toExpire = new ArrayList<>();
+
+        for (Map.Entry<PendingPaymentView, CompletableFuture<Payment>> entry : lookups.entrySet()) {
+            PendingPaymentView order = entry.getKey();
+            Payment payment;
+            try {
+                payment = entry.getValue().join();
+            } catch (CompletionException e) {
+                // Состояние неизвестно - заказ останется для следующего прохода
+                log.debug("PayPal lookup for payment {} failed: {}", order.paymentId(), e.getCause().getMessage());
+                counts.failed++;
+                continue;
+            }
+            try {
+                switch (decide(payment, order)) {
+                    case SETTLE -> {
+                        orderService.confirmProviderPayment(order.paymentId());
+                        counts.settled++;
+                    }
+                    case EXECUTE -> {
+                        orderService.processSuccessfulPayment(order.paymentId(), payerId(payment));
+                        counts.settled++;
+                    }
+                    case EXPIRE -> toExpire.add(order.id());
+                    case WAIT -> counts.waiting++;
+                }
+            } catch (PayPalRESTException | RuntimeException e) {
+                log.warn("Failed to reconcile order {} (payment {}): {}", order.id(), order.paymentId(), e.getMessage());
+                counts.failed++;
+            }
+        }
+
+        if (!toExpire.isEmpty()) {
+            counts.expired += orderService.expireUnpaidOrders(toExpire, EXPIRED_REASON);
+        }
+    }
+
+    // Не больше maxConcurrency запросов к PayPal одновременно; шлюз дополнительно ограничивает общий поток вызовов
+    private Map<PendingPaymentView, CompletableFuture<Payment>> lookup(List<PendingPaymentView> chunk) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Map<PendingPaymentView, CompletableFuture<Payment>> lookups = new LinkedHashMap<>();
+        for (PendingPaymentView order : chunk) {
+            if (order.paymentId() == null) {
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            CompletableFuture<Payment> lookup;
+            try {
+                lookup = payPalService.getPaymentAsync(order.paymentId());
+            } catch (RuntimeException e) {
+                lookup = CompletableFuture.failedFuture(e);
+            }
+            // Единственное место освобождения слота, в том числе для синхронной ошибки
+            lookup.whenComplete((payment, error) -> permits.release());
+            lookups.put(order, lookup);
+        }
+        return lookups;
+    }
+
+    Outcome decide(Payment payment, PendingPaymentView order) {
+        String state = payment.getState() != null ? payment.getState() : "";
+        switch (state) {
+            case "approved":
+                return Outcome.SETTLE;
+            case "failed":
+            case "canceled":
+            case "expired":
+                return Outcome.EXPIRE;
+            default:
+                if (payerId(payment) != null) {
+                    return Outcome.EXECUTE;
+                }
+                return createdAt(payment, order).isBefore(Instant.now().minus(expireAfter)) ? Outcome.EXPIRE : Outcome.WAIT;
+        }
+    }
+
+    private static String payerId(Payment payment) {
+        Payer payer = payment.getPayer();
+        return payer != null && payer.getPayerInfo() != null ? payer.getPayerInfo().getPayerId() : null;
+    }
+
+    // Срок отсчитывается от создания платежа в PayPal, а не заказа: оплату могли начать позже
+    private static Instant createdAt(Payment payment, PendingPaymentView order) {
+        if (payment.getCreateTime() != null) {
+            try {
+                return Instant.parse(payment.getCreateTime());
+            } catch (DateTimeParseException e) {
+                log.debug("Unparseable PayPal create_time {}", payment.getCreateTime());
+            }
+        }
+        return order.createdAt().atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private void saveCheckpoint(ReconciliationCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private static ReconciliationCheckpoint sweepStart() {
+        ReconciliationCheckpoint checkpoint = new ReconciliationCheckpoint();
+        checkpoint.setName(CHECKPOINT_NAME);
+        checkpoint.setLastCreatedAt(SWEEP_START);
+        checkpoint.setLastOrderId(0L);
+        return checkpoint;
+    }
+
+    static final class Counts {
+        int settled;
+        int expired;
+        int waiting;
+        int failed;
+
+        int total() {
+            return settled + expired + waiting + failed;
+        }
+    }
+}
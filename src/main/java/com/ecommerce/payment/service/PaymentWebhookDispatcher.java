@@ -0,0 +1,221 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.common.exception.PaymentGatewayUnavailableException;
+import com.ecommerce.payment.config.PayPalProperties;
+import com.ecommerce.payment.dto.PendingWebhookView;
+import com.ecommerce.payment.entity.PaymentWebhookEvent;
+import com.ecommerce.payment.entity.PaymentWebhookStatus;
+import com.ecommerce.payment.repository.PaymentWebhookEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paypal.base.rest.PayPalRESTException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Раздает ожидающие вебхуки воркерам. Все события одного платежа уходят одной задачей и
+// обрабатываются по порядку ID; пока ключ в работе, новые события по нему ждут следующего прохода.
+// Неудачное событие с отложенным повтором задерживает более поздние события того же платежа.
+// Недоступность шлюза (открытый автомат, полный bulkhead) откладывает событие без учета попытки.
+@Slf4j
+@Component
+public class PaymentWebhookDispatcher {
+    private static final long MAX_BACKOFF_SECONDS = 600;
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    private final PaymentWebhookEventRepository eventRepository;
+    private final PayPalWebhookVerifier verifier;
+    private final PaymentWebhookHandler handler;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor dispatchExecutor;
+    private final Executor workerExecutor;
+    private final PayPalProperties.Webhook settings;
+    // Повтор после недоступности шлюза - когда автомат снова пропустит пробный запрос
+    private final long gatewayRetryDelayMs;
+    private final Set<String> activeKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean();
+
+    public PaymentWebhookDispatcher(PaymentWebhookEventRepository eventRepository,
+                                    PayPalWebhookVerifier verifier,
+                                    PaymentWebhookHandler handler,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("paymentWebhookDispatchExecutor") Executor dispatchExecutor,
+                                    @Qualifier("paymentWebhookWorkerExecutor") Executor workerExecutor,
+                                    PayPalProperties payPalProperties) {
+        this.eventRepository = eventRepository;
+        this.verifier = verifier;
+        this.handler = handler;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dispatchExecutor = dispatchExecutor;
+        this.workerExecutor = workerExecutor;
+        this.settings = payPalProperties.getWebhook();
+        this.gatewayRetryDelayMs = payPalProperties.getResilience().getOpenDurationMs();
+    }
+
+    public void wakeUp() {
+        wakeUpRequested.set(true);
+        try {
+            dispatchExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Раздача уже идет - событие подхватит текущий или плановый проход
+            log.debug("Payment webhook dispatcher is busy, event will be picked up by the running drain");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${paypal.webhook.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUpRequested.set(true);
+        drain();
+    }
+
+    @Scheduled(cron = "${paypal.webhook.cleanup-cron:0 30 3 * * *}")
+    public void cleanupCompleted() {
+        LocalDateTime before = LocalDateTime.now().minusDays(settings.getRetentionDays());
+        Integer deleted = transactionTemplate.execute(status -> eventRepository.deleteCompletedBefore(before));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} completed payment webhook events", deleted);
+        }
+    }
+
+    void drain() {
+        while (wakeUpRequested.get() && draining.compareAndSet(false, true)) {
+            try {
+                wakeUpRequested.set(false);
+                LocalDateTime now = LocalDateTime.now();
+                Map<String, List<PendingWebhookView>> byKey = new LinkedHashMap<>();
+                for (PendingWebhookView event : eventRepository.findDispatchable(now, PageRequest.of(0, settings.getBatchSize()))) {
+                    byKey.computeIfAbsent(event.partitionKey(), key -> new ArrayList<>()).add(event);
+                }
+                for (Map.Entry<String, List<PendingWebhookView>> group : byKey.entrySet()) {
+                    List<PendingWebhookView> events = group.getValue();
+                    if (!activeKeys.add(group.getKey())) {
+                        continue;
+                    }
+                    try {
+                        workerExecutor.execute(() -> processGroup(group.getKey(), events));
+                    } catch (RejectedExecutionException e) {
+                        // Воркеры заняты: оставшиеся ключи раздаст проход после завершения текущих задач
+                        activeKeys.remove(group.getKey());
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Payment webhook drain failed: {}", e.getMessage());
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    private void processGroup(String key, List<PendingWebhookView> events) {
+        boolean progressed = false;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (PendingWebhookView event : events) {
+                if (event.availableAt().isAfter(now) || !process(event.id())) {
+                    break;
+                }
+                progressed = true;
+            }
+        } finally {
+            activeKeys.remove(key);
+        }
+        if (progressed) {
+            // По ключу могли прийти новые события, пока группа была в работе
+            wakeUp();
+        }
+    }
+
+    // true - событие завершено (обработано, отклонено или окончательно провалено), можно идти дальше
+    boolean process(Long eventId) {
+        PaymentWebhookEvent event = eventRepository.findById(eventId).orElse(null);
+        if (event == null || event.getStatus() != PaymentWebhookStatus.PENDING) {
+            return true;
+        }
+        try {
+            // Проверка подписи - сетевой вызов, поэтому она идет до транзакции
+            if (!verifier.verify(readHeaders(event), event.getPayload())) {
+                transactionTemplate.executeWithoutResult(status ->
+                        eventRepository.complete(eventId, PaymentWebhookStatus.REJECTED, LocalDateTime.now()));
+                log.warn("Payment webhook {} ({}) rejected: invalid signature", event.getEventId(), event.getEventType());
+                return true;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (eventRepository.complete(eventId, PaymentWebhookStatus.PROCESSED, LocalDateTime.now()) == 1) {
+                    handler.handle(event);
+                }
+            });
+            return true;
+        } catch (PaymentGatewayUnavailableException e) {
+            // Автомат PayPal открыт или bulkhead заполнен - это не ошибка события, попытка не засчитывается
+            log.debug("Payment webhook {} deferred: {}", event.getEventId(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> defer(eventId, e));
+            return false;
+        } catch (PayPalRESTException | RuntimeException e) {
+            log.warn("Payment webhook {} failed: {}", event.getEventId(), e.getMessage());
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> recordFailure(eventId, e)));
+        }
+    }
+
+    private boolean recordFailure(Long eventId, Exception error) {
+        PaymentWebhookEvent event = eventRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            return true;
+        }
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(error.getMessage());
+        boolean exhausted = attempts >= settings.getMaxAttempts();
+        if (exhausted) {
+            event.setStatus(PaymentWebhookStatus.FAILED);
+            event.setProcessedAt(LocalDateTime.now());
+            log.error("Payment webhook {} ({}) moved to FAILED after {} attempts",
+                    event.getEventId(), event.getEventType(), attempts);
+        } else {
+            long delaySeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << attempts);
+            event.setAvailableAt(LocalDateTime.now().plusSeconds(delaySeconds));
+        }
+        eventRepository.save(event);
+        return exhausted;
+    }
+
+    private void defer(Long eventId, Exception error) {
+        eventRepository.findById(eventId).ifPresent(event -> {
+            event.setLastError(error.getMessage());
+            event.setAvailableAt(LocalDateTime.now().plus(Duration.ofMillis(gatewayRetryDelayMs)));
+            eventRepository.save(event);
+        });
+    }
+
+    private Map<String, String> readHeaders(PaymentWebhookEvent event) {
+        try {
+            return objectMapper.readValue(event.getHeaders(), HEADERS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored webhook headers are unreadable", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.payment.entity.PaymentWebhookEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// Применяет проверенный вебхук PayPal к заказу. Вызывается в транзакции захвата события
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentWebhookHandler {
+    static final String SALE_COMPLETED = "PAYMENT.SALE.COMPLETED";
+    static final String SALE_DENIED = "PAYMENT.SALE.DENIED";
+
+    private final OrderService orderService;
+
+    public void handle(PaymentWebhookEvent event) {
+        String paymentId = event.getPartitionKey();
+        boolean known = switch (event.getEventType()) {
+            case SALE_COMPLETED -> orderService.confirmProviderPayment(paymentId);
+            case SALE_DENIED -> orderService.rejectProviderPayment(paymentId, "Payment was denied by PayPal");
+            default -> {
+                log.debug("Payment webhook type {} is not handled", event.getEventType());
+                yield true;
+            }
+        };
+        if (!known) {
+            // Платеж создан не через заказ (например, напрямую через /payments/paypal/create)
+            log.info("Payment webhook {} refers to unknown payment {}", event.getEventId(), paymentId);
+        }
+    }
+}
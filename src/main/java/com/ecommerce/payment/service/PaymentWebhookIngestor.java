@@ -0,0 +1,113 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.common.exception.InvalidWebhookException;
+import com.ecommerce.payment.entity.PaymentWebhookEvent;
+import com.ecommerce.payment.repository.PaymentWebhookEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paypal.base.Constants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Прием вебхуков PayPal: только разбор конверта и одна вставка в payment_webhook_events.
+// Проверка подписи и применение события к заказу выполняются воркерами PaymentWebhookDispatcher,
+// поэтому ответ PayPal не зависит от загрузки потоков обработки заказов.
+@Slf4j
+@Service
+public class PaymentWebhookIngestor {
+    static final List<String> SIGNATURE_HEADERS = List.of(
+            Constants.PAYPAL_HEADER_TRANSMISSION_ID,
+            Constants.PAYPAL_HEADER_TRANSMISSION_TIME,
+            Constants.PAYPAL_HEADER_TRANSMISSION_SIG,
+            Constants.PAYPAL_HEADER_CERT_URL,
+            Constants.PAYPAL_HEADER_AUTH_ALGO);
+
+    private final PaymentWebhookEventRepository eventRepository;
+    private final PaymentWebhookDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+    // Недавно принятые ID: повторы PayPal отсекаются без обращения к БД
+    private final Cache<String, Boolean> recentEventIds = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public PaymentWebhookIngestor(PaymentWebhookEventRepository eventRepository,
+                                  PaymentWebhookDispatcher dispatcher,
+                                  ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    // true - событие поставлено в очередь, false - повтор уже принятого события
+    public boolean ingest(HttpHeaders headers, String payload) {
+        Map<String, String> signatureHeaders = new LinkedHashMap<>();
+        for (String name : SIGNATURE_HEADERS) {
+            String value = headers.getFirst(name);
+            if (value == null || value.isBlank()) {
+                throw new InvalidWebhookException("Missing webhook header: " + name);
+            }
+            signatureHeaders.put(name, value);
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new InvalidWebhookException("Webhook body is not valid JSON");
+        }
+        String eventId = root.path("id").asText("");
+        String eventType = root.path("event_type").asText("");
+        if (eventId.isEmpty() || eventType.isEmpty()) {
+            throw new InvalidWebhookException("Webhook body must contain id and event_type");
+        }
+        if (recentEventIds.getIfPresent(eventId) != null) {
+            return false;
+        }
+
+        PaymentWebhookEvent event = new PaymentWebhookEvent();
+        event.setEventId(eventId);
+        event.setEventType(eventType);
+        event.setPartitionKey(partitionKey(root.path("resource"), eventId));
+        event.setPayload(payload);
+        event.setHeaders(serialize(signatureHeaders));
+        try {
+            eventRepository.save(event);
+        } catch (DataIntegrityViolationException e) {
+            recentEventIds.put(eventId, Boolean.TRUE);
+            log.debug("Duplicate payment webhook {} ignored", eventId);
+            return false;
+        }
+        recentEventIds.put(eventId, Boolean.TRUE);
+        dispatcher.wakeUp();
+        return true;
+    }
+
+    // События продажи относятся к платежу parent_payment; остальные - к своему ресурсу
+    private static String partitionKey(JsonNode resource, String eventId) {
+        String parentPayment = resource.path("parent_payment").asText("");
+        if (!parentPayment.isEmpty()) {
+            return parentPayment;
+        }
+        String resourceId = resource.path("id").asText("");
+        return resourceId.isEmpty() ? eventId : resourceId;
+    }
+
+    private String serialize(Map<String, String> headers) {
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store webhook headers", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.pricing.controller;
+
+import com.ecommerce.pricing.service.PricingEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/pricing")
+@RequiredArgsConstructor
+public class PricingController {
+    private final PricingEngine pricingEngine;
+
+    // Только ADMIN, см. SecurityConfig
+    @PostMapping("/rules/reload")
+    public ResponseEntity<Map<String, Integer>> reloadRules() {
+        return ResponseEntity.ok(Map.of("rules", pricingEngine.reload()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.pricing.dto;
+
+import com.ecommerce.common.money.Money;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class PriceQuote {
+    private final Money subtotal;
+    private final Money discount;
+    private final Money shippingCost;
+    private final Money tax;
+    private final Money total;
+    // null, если промокод не передан или не применим
+    private final String appliedPromoCode;
+}
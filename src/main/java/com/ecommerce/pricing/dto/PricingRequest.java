@@ -0,0 +1,14 @@
+package com.ecommerce.pricing.dto;
+
+import com.ecommerce.common.money.Money;
+import lombok.Data;
+
+@Data
+public class PricingRequest {
+    private Money subtotal;
+    private String country;
+    private String state;
+    private String postalCode;
+    private String promoCode;
+    private String carrier;
+}
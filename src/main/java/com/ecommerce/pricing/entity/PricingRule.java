@@ -0,0 +1,71 @@
+package com.ecommerce.pricing.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Одна строка правила; какие поля значимы, зависит от type:
+// TAX - country/state/postalPrefix + rate; PROMO_CODE - promoCode + rate или amount;
+// TIERED_DISCOUNT - minSubtotal + rate; SHIPPING - carrier + minSubtotal + amount
+@Data
+@Entity
+@Table(name = "pricing_rules")
+public class PricingRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PricingRuleType type;
+
+    @Column
+    private String name;
+
+    @Column(length = 2)
+    private String country;
+
+    @Column(length = 8)
+    private String state;
+
+    @Column(length = 16)
+    private String postalPrefix;
+
+    @Column(length = 64)
+    private String promoCode;
+
+    @Column(length = 32)
+    private String carrier;
+
+    // Доля: 0.0825 = 8.25%
+    @Column(precision = 7, scale = 4)
+    private BigDecimal rate;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal minSubtotal;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
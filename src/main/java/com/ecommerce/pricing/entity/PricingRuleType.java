@@ -0,0 +1,8 @@
+package com.ecommerce.pricing.entity;
+
+public enum PricingRuleType {
+    TAX,
+    PROMO_CODE,
+    TIERED_DISCOUNT,
+    SHIPPING
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.pricing.repository;
+
+import com.ecommerce.pricing.entity.PricingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+    List<PricingRule> findByActiveTrue();
+
+    // Дешевая проверка, менялся ли набор правил с последней загрузки
+    @Query("SELECT MAX(r.updatedAt) FROM PricingRule r")
+    LocalDateTime findLatestUpdate();
+}
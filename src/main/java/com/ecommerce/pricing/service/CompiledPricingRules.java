@@ -0,0 +1,268 @@
+package com.ecommerce.pricing.service;
+
+import com.ecommerce.common.money.Money;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.pricing.dto.PricingRequest;
+import com.ecommerce.pricing.entity.PricingRule;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+// Неизменяемый снимок правил ценообразования, разложенный по индексам.
+// Оценка корзины - несколько поисков в HashMap и бинарный поиск по порогам, без обращений к БД.
+public final class CompiledPricingRules {
+    private static final String ANY = "*";
+
+    private final Currency currency;
+    private final int ruleCount;
+
+    // Ключ country|state|postalPrefix, где state и postalPrefix могут быть "*"
+    private final Map<String, BigDecimal> taxRates;
+    private final int maxPostalPrefixLength;
+    private final BigDecimal defaultTaxRate;
+
+    private final Map<String, PromoRule> promoCodes;
+
+    private final long[] tierThresholds;
+    private final BigDecimal[] tierRates;
+
+    private final Map<String, ShippingTiers> shippingByCarrier;
+    private final ShippingTiers defaultShipping;
+
+    private CompiledPricingRules(Currency currency, int ruleCount,
+                                 Map<String, BigDecimal> taxRates, int maxPostalPrefixLength,
+                                 BigDecimal defaultTaxRate, Map<String, PromoRule> promoCodes,
+                                 long[] tierThresholds, BigDecimal[] tierRates,
+                                 Map<String, ShippingTiers> shippingByCarrier, ShippingTiers defaultShipping) {
+        this.currency = currency;
+        this.ruleCount = ruleCount;
+        this.taxRates = taxRates;
+        this.maxPostalPrefixLength = maxPostalPrefixLength;
+        this.defaultTaxRate = defaultTaxRate;
+        this.promoCodes = promoCodes;
+        this.tierThresholds = tierThresholds;
+        this.tierRates = tierRates;
+        this.shippingByCarrier = shippingByCarrier;
+        this.defaultShipping = defaultShipping;
+    }
+
+    // Ошибка в любом правиле отклоняет весь набор, чтобы текущие правила остались в силе
+    public static CompiledPricingRules compile(Collection<PricingRule> rules, Currency currency) {
+        Map<String, BigDecimal> taxRates = new HashMap<>();
+        int maxPostalPrefixLength = 0;
+        BigDecimal defaultTaxRate = BigDecimal.ZERO;
+        Map<String, PromoRule> promoCodes = new HashMap<>();
+        TreeMap<Long, BigDecimal> tiers = new TreeMap<>();
+        Map<String, TreeMap<Long, Long>> shipping = new HashMap<>();
+
+        for (PricingRule rule : rules) {
+            if (rule.getType() == null) {
+                throw invalid(rule, "type is required");
+            }
+            switch (rule.getType()) {
+                case TAX -> {
+                    BigDecimal rate = requireRate(rule);
+                    if (rule.getCountry() == null) {
+                        defaultTaxRate = rate;
+                        continue;
+                    }
+                    String prefix = normalizePostal(rule.getPostalPrefix());
+                    String key = key(normalize(rule.getCountry()), normalize(rule.getState()), prefix);
+                    if (taxRates.put(key, rate) != null) {
+                        throw invalid(rule, "duplicate tax jurisdiction " + key);
+                    }
+                    if (prefix != null) {
+                        maxPostalPrefixLength = Math.max(maxPostalPrefixLength, prefix.length());
+                    }
+                }
+                case PROMO_CODE -> {
+                    String code = normalize(rule.getPromoCode());
+                    if (code == null) {
+                        throw invalid(rule, "promo code is required");
+                    }
+                    if ((rule.getRate() == null) == (rule.getAmount() == null)) {
+                        throw invalid(rule, "promo code needs either rate or amount");
+                    }
+                    PromoRule promo = new PromoRule(
+                            rule.getRate() != null ? requireRate(rule) : null,
+                            rule.getAmount() != null ? toMinor(rule.getAmount(), currency) : 0,
+                            toMinor(rule.getMinSubtotal(), currency));
+                    if (promoCodes.put(code, promo) != null) {
+                        throw invalid(rule, "duplicate promo code " + code);
+                    }
+                }
+                case TIERED_DISCOUNT -> {
+                    if (rule.getMinSubtotal() == null) {
+                        throw invalid(rule, "minSubtotal is required");
+                    }
+                    if (tiers.put(toMinor(rule.getMinSubtotal(), currency), requireRate(rule)) != null) {
+                        throw invalid(rule, "duplicate discount tier");
+                    }
+                }
+                case SHIPPING -> {
+                    if (rule.getAmount() == null || rule.getAmount().signum() < 0) {
+                        throw invalid(rule, "non-negative amount is required");
+                    }
+                    String carrier = rule.getCarrier() != null ? normalize(rule.getCarrier()) : ANY;
+                    TreeMap<Long, Long> carrierTiers = shipping.computeIfAbsent(carrier, c -> new TreeMap<>());
+                    if (carrierTiers.put(toMinor(rule.getMinSubtotal(), currency),
+                            toMinor(rule.getAmount(), currency)) != null) {
+                        throw invalid(rule, "duplicate shipping tier for carrier " + carrier);
+                    }
+                }
+            }
+        }
+
+        Map<String, ShippingTiers> shippingByCarrier = new HashMap<>();
+        shipping.forEach((carrier, carrierTiers) -> shippingByCarrier.put(carrier, ShippingTiers.of(carrierTiers)));
+        ShippingTiers defaultShipping = shippingByCarrier.getOrDefault(ANY, ShippingTiers.FREE);
+
+        long[] tierThresholds = new long[tiers.size()];
+        BigDecimal[] tierRates = new BigDecimal[tiers.size()];
+        int i = 0;
+        for (Map.Entry<Long, BigDecimal> tier : tiers.entrySet()) {
+            tierThresholds[i] = tier.getKey();
+            tierRates[i] = tier.getValue();
+            i++;
+        }
+
+        return new CompiledPricingRules(currency, rules.size(),
+                Map.copyOf(taxRates), maxPostalPrefixLength, defaultTaxRate, Map.copyOf(promoCodes),
+                tierThresholds, tierRates, Map.copyOf(shippingByCarrier), defaultShipping);
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    public PriceQuote evaluate(PricingRequest request) {
+        Money subtotal = request.getSubtotal();
+        if (!subtotal.getCurrency().equals(currency)) {
+            throw new IllegalArgumentException("Unsupported currency: " + subtotal.getCurrency());
+        }
+
+        // Явный промокод заменяет ступенчатую скидку, скидки не суммируются
+        String appliedPromoCode = null;
+        Money discount = Money.zero(currency);
+        String code = normalize(request.getPromoCode());
+        PromoRule promo = code != null ? promoCodes.get(code) : null;
+        if (promo != null && subtotal.getMinorUnits() >= promo.minSubtotalMinor) {
+            discount = promo.rate != null
+                    ? subtotal.multiply(promo.rate, RoundingMode.HALF_UP)
+                    : Money.ofMinor(promo.amountMinor, currency);
+            appliedPromoCode = code;
+        } else {
+            int tier = floorIndex(tierThresholds, subtotal.getMinorUnits());
+            if (tier >= 0) {
+                discount = subtotal.multiply(tierRates[tier], RoundingMode.HALF_UP);
+            }
+        }
+        if (discount.isGreaterThan(subtotal)) {
+            discount = subtotal;
+        }
+
+        Money discounted = subtotal.minus(discount);
+        ShippingTiers carrierShipping = request.getCarrier() != null
+                ? shippingByCarrier.getOrDefault(normalize(request.getCarrier()), defaultShipping)
+                : defaultShipping;
+        Money shippingCost = Money.ofMinor(carrierShipping.costFor(discounted.getMinorUnits()), currency);
+        Money tax = discounted.multiply(
+                taxRate(request.getCountry(), request.getState(), request.getPostalCode()), RoundingMode.HALF_UP);
+        Money total = discounted.plus(shippingCost).plus(tax);
+
+        return new PriceQuote(subtotal, discount, shippingCost, tax, total, appliedPromoCode);
+    }
+
+    BigDecimal taxRate(String country, String state, String postalCode) {
+        String c = normalize(country);
+        if (c == null) {
+            return defaultTaxRate;
+        }
+        String s = normalize(state);
+        String postal = normalizePostal(postalCode);
+
+        // Самый длинный почтовый префикс побеждает, затем штат, затем страна
+        if (postal != null) {
+            for (int len = Math.min(maxPostalPrefixLength, postal.length()); len > 0; len--) {
+                String prefix = postal.substring(0, len);
+                BigDecimal rate = s != null ? taxRates.get(key(c, s, prefix)) : null;
+                if (rate == null) {
+                    rate = taxRates.get(key(c, null, prefix));
+                }
+                if (rate != null) {
+                    return rate;
+                }
+            }
+        }
+        if (s != null) {
+            BigDecimal rate = taxRates.get(key(c, s, null));
+            if (rate != null) {
+                return rate;
+            }
+        }
+        return taxRates.getOrDefault(key(c, null, null), defaultTaxRate);
+    }
+
+    // Индекс наибольшего порога, не превышающего value, или -1
+    private static int floorIndex(long[] thresholds, long value) {
+        int idx = Arrays.binarySearch(thresholds, value);
+        return idx >= 0 ? idx : -idx - 2;
+    }
+
+    private static String key(String country, String state, String postalPrefix) {
+        return country + '|' + (state != null ? state : ANY) + '|' + (postalPrefix != null ? postalPrefix : ANY);
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String normalizePostal(String value) {
+        String normalized = normalize(value);
+        return normalized != null ? normalized.replaceAll("[\\s-]", "") : null;
+    }
+
+    private static BigDecimal requireRate(PricingRule rule) {
+        BigDecimal rate = rule.getRate();
+        if (rate == null || rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+            throw invalid(rule, "rate must be between 0 and 1");
+        }
+        return rate;
+    }
+
+    private static long toMinor(BigDecimal amount, Currency currency) {
+        return amount != null ? Money.of(amount, currency, RoundingMode.HALF_UP).getMinorUnits() : 0;
+    }
+
+    private static IllegalStateException invalid(PricingRule rule, String reason) {
+        return new IllegalStateException("Invalid pricing rule " + rule.getId() + " (" + rule.getName() + "): " + reason);
+    }
+
+    private record PromoRule(BigDecimal rate, long amountMinor, long minSubtotalMinor) {
+    }
+
+    private record ShippingTiers(long[] thresholds, long[] costs) {
+        static final ShippingTiers FREE = new ShippingTiers(new long[0], new long[0]);
+
+        static ShippingTiers of(TreeMap<Long, Long> tiers) {
+            long[] thresholds = new long[tiers.size()];
+            long[] costs = new long[tiers.size()];
+            int i = 0;
+            for (Map.Entry<Long, Long> tier : tiers.entrySet()) {
+                thresholds[i] = tier.getKey();
+                costs[i] = tier.getValue();
+                i++;
+            }
+            return new ShippingTiers(thresholds, costs);
+        }
+
+        long costFor(long subtotalMinor) {
+            int idx = floorIndex(thresholds, subtotalMinor);
+            return idx >= 0 ? costs[idx] : 0;
+        }
+    }
+}
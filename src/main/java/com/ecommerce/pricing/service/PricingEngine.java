@@ -0,0 +1,92 @@
+package com.ecommerce.pricing.service;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.pricing.dto.PricingRequest;
+import com.ecommerce.pricing.entity.PricingRule;
+import com.ecommerce.pricing.entity.PricingRuleType;
+import com.ecommerce.pricing.repository.PricingRuleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+public class PricingEngine {
+    private final PricingRuleRepository ruleRepository;
+    private final AtomicReference<CompiledPricingRules> rules;
+    // Отпечаток набора правил в БД на момент последней загрузки
+    private volatile String loadedFingerprint;
+
+    public PricingEngine(PricingRuleRepository ruleRepository) {
+        this.ruleRepository = ruleRepository;
+        this.rules = new AtomicReference<>(CompiledPricingRules.compile(defaultRules(), Order.CURRENCY));
+    }
+
+    // Читает текущий снимок без блокировок; перезагрузка подменяет его целиком
+    public PriceQuote quote(PricingRequest request) {
+        return rules.get().evaluate(request);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        try {
+            if (!Objects.equals(loadedFingerprint, fingerprint())) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh pricing rules, keeping current set", e);
+        }
+    }
+
+    public int reload() {
+        String fingerprint = fingerprint();
+        List<PricingRule> activeRules = ruleRepository.findByActiveTrue();
+        // Пока правила не заведены, действуют прежние значения: 10% налог, доставка $10 до $100
+        CompiledPricingRules compiled = CompiledPricingRules.compile(
+                activeRules.isEmpty() ? defaultRules() : activeRules, Order.CURRENCY);
+        rules.set(compiled);
+        loadedFingerprint = fingerprint;
+        log.info("Loaded {} pricing rules", compiled.getRuleCount());
+        return compiled.getRuleCount();
+    }
+
+    private String fingerprint() {
+        LocalDateTime latestUpdate = ruleRepository.findLatestUpdate();
+        return ruleRepository.count() + ":" + latestUpdate;
+    }
+
+    static List<PricingRule> defaultRules() {
+        PricingRule tax = new PricingRule();
+        tax.setType(PricingRuleType.TAX);
+        tax.setName("default tax");
+        tax.setRate(new BigDecimal("0.10"));
+
+        PricingRule flatShipping = new PricingRule();
+        flatShipping.setType(PricingRuleType.SHIPPING);
+        flatShipping.setName("flat shipping");
+        flatShipping.setMinSubtotal(BigDecimal.ZERO);
+        flatShipping.setAmount(new BigDecimal("10.00"));
+
+        PricingRule freeShipping = new PricingRule();
+        freeShipping.setType(PricingRuleType.SHIPPING);
+        freeShipping.setName("free shipping over 100");
+        freeShipping.setMinSubtotal(new BigDecimal("100.01"));
+        freeShipping.setAmount(BigDecimal.ZERO);
+
+        return List.of(tax, flatShipping, freeShipping);
+    }
+}
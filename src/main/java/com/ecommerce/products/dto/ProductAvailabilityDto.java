@@ -0,0 +1,14 @@
+package com.ecommerce.products.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductAvailabilityDto {
+    private Long productId;
+    private String name;
+    private BigDecimal price;
+    private boolean active;
+    private int availableQuantity;
+}
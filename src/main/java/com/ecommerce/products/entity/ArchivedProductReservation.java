@@ -0,0 +1,41 @@
+package com.ecommerce.products.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Неактивное резервирование, перенесенное из product_reservations; только для аудита
+@Data
+@Entity
+@Table(name = "archived_product_reservations", indexes = {
+        @Index(name = "idx_archived_reservations_product_id", columnList = "productId")
+})
+public class ArchivedProductReservation {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime reservedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
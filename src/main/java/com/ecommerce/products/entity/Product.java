@@ -45,6 +45,12 @@ public class Product {
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<ProductSpecification> specifications;
 
+    // DEFAULT 0 нужен ddl-auto: update, чтобы существующие строки получили версию, а не NULL;
+    // примитив, чтобы Spring Data определял новизну сущности по id, а не по версии
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version = 0L;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
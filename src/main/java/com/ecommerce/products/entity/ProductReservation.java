@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "product_reservations")
+@Table(name = "product_reservations", indexes = {
+        // Выборка неактивных резервирований для архивации
+        @Index(name = "idx_product_reservations_active_updated", columnList = "active, updated_at, id")
+})
 public class ProductReservation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +36,12 @@ public class ProductReservation {
     @Column(nullable = false)
     private boolean active = true;
 
+    // DEFAULT 0 нужен ddl-auto: update, чтобы существующие строки получили версию, а не NULL;
+    // примитив, чтобы Spring Data определял новизну сущности по id, а не по версии
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version = 0L;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,9 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.entity.ArchivedProductReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedProductReservationRepository extends JpaRepository<ArchivedProductReservation, Long> {
+}
@@ -7,11 +7,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -31,6 +35,27 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.active = true")
     List<Product> findActiveByCategoryId(@Param("categoryId") Long categoryId);
 
+    // Блокирует строки товаров в порядке возрастания ID (защита от взаимных блокировок)
+    // и за один запрос возвращает сумму активных резервирований по каждому товару
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p, (SELECT COALESCE(SUM(r.quantity), 0) FROM ProductReservation r " +
+           "WHERE r.product.id = p.id AND r.active = true) " +
+           "FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Object[]> findAllForReservation(@Param("ids") Collection<Long> ids);
+
+    // То же без блокировки: id, name, price, active, stockQuantity, сумма активных резервирований
+    @Query("SELECT p.id, p.name, p.price, p.active, p.stockQuantity, " +
+           "(SELECT COALESCE(SUM(r.quantity), 0) FROM ProductReservation r " +
+           "WHERE r.product.id = p.id AND r.active = true) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findAvailability(@Param("ids") Collection<Long> ids);
+
+    // Условное списание: строка меняется только если остатка хватает, без чтения и блокировки
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1, " +
+           "p.updatedAt = CURRENT_TIMESTAMP WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
     default Page<Product> findAll(ProductSpecification specification, Pageable pageable) {
         return findAll((Specification<Product>) specification, pageable);
     }
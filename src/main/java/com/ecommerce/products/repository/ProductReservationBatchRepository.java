@@ -0,0 +1,9 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.entity.ProductReservation;
+
+import java.util.List;
+
+public interface ProductReservationBatchRepository {
+    int[] batchInsert(List<ProductReservation> reservations);
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.products.repository;
+
+import com.ecommerce.products.entity.ProductReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductReservationBatchRepositoryImpl implements ProductReservationBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO product_reservations " +
+            "(product_id, user_id, quantity, reserved_at, expires_at, active, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // IDENTITY-ключи отключают batching в Hibernate, поэтому вставляем одним JDBC-батчем
+    @Override
+    public int[] batchInsert(List<ProductReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(INSERT_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setLong(1, reservation.getProduct().getId());
+            ps.setLong(2, reservation.getUser().getId());
+            ps.setInt(3, reservation.getQuantity());
+            ps.setTimestamp(4, Timestamp.valueOf(reservation.getReservedAt()));
+            ps.setTimestamp(5, Timestamp.valueOf(reservation.getExpiresAt()));
+            ps.setBoolean(6, reservation.isActive());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        })[0];
+    }
+}
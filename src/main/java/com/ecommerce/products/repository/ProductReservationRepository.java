@@ -3,18 +3,21 @@ package com.ecommerce.products.repository;
 import com.ecommerce.products.entity.Product;
 import com.ecommerce.products.entity.ProductReservation;
 import com.ecommerce.user.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductReservationRepository extends JpaRepository<ProductReservation, Long> {
+public interface ProductReservationRepository extends JpaRepository<ProductReservation, Long>, ProductReservationBatchRepository {
     Optional<ProductReservation> findByProductIdAndUserIdAndActiveTrue(Long productId, Long userId);
     
     List<ProductReservation> findByProductIdAndActiveTrue(Long productId);
@@ -25,11 +28,26 @@ public interface ProductReservationRepository extends JpaRepository<ProductReser
     
     @Modifying
     @Transactional
-    @Query("UPDATE ProductReservation pr SET pr.active = false WHERE pr.expiresAt < ?1 AND pr.active = true")
+    @Query("UPDATE ProductReservation pr SET pr.active = false, pr.version = pr.version + 1 WHERE pr.expiresAt < ?1 AND pr.active = true")
     int deactivateExpiredReservations(LocalDateTime dateTime);
     
     @Modifying
     @Transactional
-    @Query("UPDATE ProductReservation pr SET pr.active = false WHERE pr.product = ?1 AND pr.user = ?2 AND pr.active = true")
+    @Query("UPDATE ProductReservation pr SET pr.active = false, pr.version = pr.version + 1 WHERE pr.product = ?1 AND pr.user = ?2 AND pr.active = true")
     int deactivateReservationsForUser(Product product, User user);
+
+    @Query("SELECT pr.id FROM ProductReservation pr WHERE pr.active = false AND pr.updatedAt < :cutoff ORDER BY pr.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Копирование одним INSERT ... SELECT без загрузки сущностей
+    @Modifying
+    @Query("INSERT INTO ArchivedProductReservation (id, productId, userId, quantity, reservedAt, expiresAt, " +
+           "createdAt, updatedAt, archivedAt) " +
+           "SELECT pr.id, pr.product.id, pr.user.id, pr.quantity, pr.reservedAt, pr.expiresAt, " +
+           "pr.createdAt, pr.updatedAt, :archivedAt FROM ProductReservation pr WHERE pr.id IN :ids AND pr.active = false")
+    int copyToArchive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query("DELETE FROM ProductReservation pr WHERE pr.id IN :ids AND pr.active = false")
+    int deleteInactiveByIds(@Param("ids") Collection<Long> ids);
 } 
\ No newline at end of file
@@ -2,26 +2,37 @@ package com.ecommerce.products.service;
 
 import com.ecommerce.common.exception.InsufficientStockException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.products.dto.ProductAvailabilityDto;
 import com.ecommerce.products.dto.ProductReservationDto;
 import com.ecommerce.products.entity.Product;
 import com.ecommerce.products.entity.ProductReservation;
+import com.ecommerce.products.repository.ProductRepository;
 import com.ecommerce.products.repository.ProductReservationRepository;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductReservationService {
     private final ProductReservationRepository productReservationRepository;
+    private final ProductRepository productRepository;
     private final ProductService productService;
     private final UserService userService;
     
@@ -55,6 +66,65 @@ public class ProductReservationService {
         return productReservationRepository.save(reservation);
     }
     
+    // Резервирует всю корзину за один проход: товары блокируются в порядке ID,
+    // резервирования вставляются одним батчем. Если не хватает хотя бы одной позиции,
+    // не резервируется ничего. Возвращает заблокированные товары по их ID.
+    @Transactional
+    public Map<Long, Product> reserveProducts(User user, Map<Long, Integer> quantities) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        Map<Long, Product> products = new LinkedHashMap<>();
+        List<ProductReservation> reservations = new ArrayList<>(ordered.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Object[] row : productRepository.findAllForReservation(ordered.keySet())) {
+            Product product = (Product) row[0];
+            int reservedQuantity = ((Number) row[1]).intValue();
+            int quantity = ordered.get(product.getId());
+
+            if (product.getStockQuantity() - reservedQuantity < quantity) {
+                throw new InsufficientStockException("Not enough stock available for product: " + product.getName());
+            }
+
+            ProductReservation reservation = new ProductReservation();
+            reservation.setProduct(product);
+            reservation.setUser(user);
+            reservation.setQuantity(quantity);
+            reservation.setReservedAt(now);
+            reservation.setExpiresAt(now.plusMinutes(RESERVATION_DURATION_MINUTES));
+            reservation.setActive(true);
+
+            products.put(product.getId(), product);
+            reservations.add(reservation);
+        }
+
+        ordered.keySet().stream()
+                .filter(productId -> !products.containsKey(productId))
+                .findFirst()
+                .ifPresent(productId -> {
+                    throw new ResourceNotFoundException("Product not found with id: " + productId);
+                });
+
+        productReservationRepository.batchInsert(reservations);
+        return products;
+    }
+    
+    // Доступный остаток (склад минус активные резервирования) одним запросом без блокировок.
+    // Для предварительной проверки; окончательно остаток проверяется в reserveProducts.
+    @Transactional(readOnly = true)
+    public Map<Long, ProductAvailabilityDto> getAvailability(Collection<Long> productIds) {
+        Map<Long, ProductAvailabilityDto> availability = new HashMap<>();
+        for (Object[] row : productRepository.findAvailability(productIds)) {
+            ProductAvailabilityDto dto = new ProductAvailabilityDto();
+            dto.setProductId((Long) row[0]);
+            dto.setName((String) row[1]);
+            dto.setPrice((BigDecimal) row[2]);
+            dto.setActive((Boolean) row[3]);
+            dto.setAvailableQuantity((Integer) row[4] - ((Number) row[5]).intValue());
+            availability.put(dto.getProductId(), dto);
+        }
+        return availability;
+    }
+    
     @Transactional
     public ProductReservationDto createReservation(Long productId, Integer quantity) {
         User user = userService.getUserByEmail(SecurityContextHolder.getContext().getAuthentication().getName());
@@ -85,6 +155,18 @@ public class ProductReservationService {
         productReservationRepository.deactivateExpiredReservations(now);
     }
     
+    // Переносит пачку неактивных резервирований в archived_product_reservations; возвращает их число
+    @Transactional
+    public int archiveInactiveReservations(LocalDateTime cutoff, int batchSize) {
+        List<Long> ids = productReservationRepository.findArchivableIds(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        productReservationRepository.copyToArchive(ids, LocalDateTime.now());
+        productReservationRepository.deleteInactiveByIds(ids);
+        return ids.size();
+    }
+
     public List<ProductReservation> getUserReservations(Long userId) {
         return productReservationRepository.findByUserIdAndActiveTrue(userId);
     }
@@ -105,6 +105,12 @@ public class ProductService {
         productRepository.delete(product);
     }
 
+    @Transactional
+    @CacheEvict(value = "products", allEntries = true)
+    public boolean decrementStock(Long id, int quantity) {
+        return productRepository.decrementStock(id, quantity) == 1;
+    }
+
     @Transactional(readOnly = true)
     public Product getProductEntityById(Long id) {
         return productRepository.findById(id)
@@ -5,6 +5,7 @@ import com.ecommerce.security.handler.CognitoLogoutHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -44,6 +45,16 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/users/register", "/users/confirm", "/users/resend-code", 
                                "/users/login", "/users/reset-password", "/users/confirm-reset").permitAll()
+                // Вебхуки PayPal без JWT; подлинность проверяется по подписи при обработке
+                .requestMatchers(HttpMethod.POST, "/payments/paypal/webhook").permitAll()
+                // Вебхуки отслеживания Shippo; подлинность проверяется по секретному token в URL
+                .requestMatchers(HttpMethod.POST, "/shipping/tracking/webhook").permitAll()
+                // Ролевые правила задаются здесь: @PreAuthorize без @EnableMethodSecurity не действует
+                .requestMatchers("/admin/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/pricing/rules/reload").hasRole("ADMIN")
+                .requestMatchers("/analytics/**").hasRole("ADMIN")
+                // Пакетная покупка платных лейблов - администраторы и склад
+                .requestMatchers(HttpMethod.POST, "/shipping/labels/batch").hasAnyRole("ADMIN", "WAREHOUSE")
                 .requestMatchers("/users/profile", "/users/update", "/users/refresh-token").authenticated()
                 .anyRequest().authenticated()
             )
@@ -1,20 +1,32 @@
 package com.ecommerce.shipping.config;
 
+import com.ecommerce.common.http.OutboundCallInterceptor;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class OkHttpConfig {
 
     @Bean
-    public OkHttpClient okHttpClient() {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+    public OkHttpClient okHttpClient(ShippoProperties shippoProperties, OutboundCallInterceptor outboundCallInterceptor) {
+        ShippoProperties.Http http = shippoProperties.getHttp();
+        // По умолчанию OkHttp пускает только 5 одновременных запросов на хост - для Shippo мало
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(http.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(http.getMaxRequestsPerHost());
 
         return new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(http.getMaxIdleConnections(), http.getKeepAliveMs(), TimeUnit.MILLISECONDS))
+                .connectTimeout(http.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(http.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .callTimeout(http.getCallTimeoutMs(), TimeUnit.MILLISECONDS)
+                .addInterceptor(outboundCallInterceptor)
                 .build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.shipping.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ShippingLabelConfig {
+
+    // Общий пул покупок лейблов для всех пакетов: ограничивает одновременные транзакции Shippo.
+    // Каждый пакет держит не больше max-concurrency покупок, поэтому очереди хватает на все пакеты сразу
+    @Bean
+    public ThreadPoolTaskExecutor shippingLabelExecutor(@Value("${app.shipping-labels.max-concurrency:8}") int maxConcurrency,
+                                                        @Value("${app.shipping-labels.max-batches:4}") int maxBatches) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(maxConcurrency * maxBatches);
+        executor.setThreadNamePrefix("shipping-label-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Потоки, ведущие пакеты и отдающие прогресс клиенту; сами покупки идут на shippingLabelExecutor.
+    // Без очереди: лишний пакет отклоняется сразу, а не ждет и не покупает лейблы после ухода клиента
+    @Bean
+    public ThreadPoolTaskExecutor shippingLabelBatchExecutor(@Value("${app.shipping-labels.max-batches:4}") int maxBatches) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxBatches);
+        executor.setMaxPoolSize(maxBatches);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("shipping-label-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "shippo")
 public class ShippoProperties {
     private Api api = new Api();
+    private Http http = new Http();
+    private Webhook webhook = new Webhook();
 
     public Api getApi() {
         return api;
@@ -16,8 +18,25 @@ public class ShippoProperties {
         this.api = api;
     }
 
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
+    public Webhook getWebhook() {
+        return webhook;
+    }
+
+    public void setWebhook(Webhook webhook) {
+        this.webhook = webhook;
+    }
+
     public static class Api {
         private String key;
+        private String baseUrl = "https://api.goshippo.com";
 
         public String getKey() {
             return key;
@@ -26,5 +45,93 @@ public class ShippoProperties {
         public void setKey(String key) {
             this.key = key;
         }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+    }
+
+    // Пул соединений и лимиты диспетчера OkHttp для асинхронных вызовов Shippo
+    public static class Http {
+        private long connectTimeoutMs = 5000;
+        private long readTimeoutMs = 15000;
+        private long callTimeoutMs = 30000;
+        private int maxIdleConnections = 32;
+        private long keepAliveMs = 300000;
+        private int maxRequests = 128;
+        private int maxRequestsPerHost = 64;
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public long getCallTimeoutMs() {
+            return callTimeoutMs;
+        }
+
+        public void setCallTimeoutMs(long callTimeoutMs) {
+            this.callTimeoutMs = callTimeoutMs;
+        }
+
+        public int getMaxIdleConnections() {
+            return maxIdleConnections;
+        }
+
+        public void setMaxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+        }
+
+        public long getKeepAliveMs() {
+            return keepAliveMs;
+        }
+
+        public void setKeepAliveMs(long keepAliveMs) {
+            this.keepAliveMs = keepAliveMs;
+        }
+
+        public int getMaxRequests() {
+            return maxRequests;
+        }
+
+        public void setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        public int getMaxRequestsPerHost() {
+            return maxRequestsPerHost;
+        }
+
+        public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+        }
+    }
+
+    // Shippo не подписывает вебхуки: URL регистрируется с секретным token, пустой token отключает прием
+    public static class Webhook {
+        private String token;
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
     }
-} 
\ No newline at end of file
+}
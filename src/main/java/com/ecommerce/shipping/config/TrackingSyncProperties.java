@@ -0,0 +1,22 @@
+package com.ecommerce.shipping.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.tracking-sync")
+public class TrackingSyncProperties {
+    private int requestsPerTick = 50; // Бюджет обращений к Shippo за один проход опроса
+    private int maxConcurrency = 8;
+    private int pageSize = 500;
+    private Duration labelCreatedInterval = Duration.ofHours(6); // Лейбл куплен, посылку еще не забрали
+    private Duration inTransitInterval = Duration.ofHours(2); // Первый интервал после смены статуса
+    private Duration maxInterval = Duration.ofHours(24); // Потолок удвоения интервала без изменений
+    private Duration webhookInterval = Duration.ofHours(24); // Контрольный опрос отправлений с вебхуками
+    private Duration maxAge = Duration.ofDays(60); // Дальше отправление не опрашивается
+    private Duration refillHorizon = Duration.ofMinutes(10); // Насколько вперед расписание подгружается из базы
+}
@@ -3,18 +3,45 @@ package com.ecommerce.shipping.controller;
 import com.ecommerce.shipping.dto.*;
 import com.ecommerce.shipping.model.ShippingInfo;
 import com.ecommerce.shipping.model.ShippingStatus;
+import com.ecommerce.shipping.service.ShippingLabelBatchService;
 import com.ecommerce.shipping.service.ShippingService;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
 
 @RestController
 @RequestMapping("/shipping")
-@RequiredArgsConstructor
 public class ShippingController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ShippingService shippingService;
+    private final ShippingLabelBatchService shippingLabelBatchService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor labelBatchExecutor;
+    private final Duration labelStreamTimeout;
+
+    public ShippingController(ShippingService shippingService,
+                              ShippingLabelBatchService shippingLabelBatchService,
+                              ObjectMapper objectMapper,
+                              @Qualifier("shippingLabelBatchExecutor") TaskExecutor labelBatchExecutor,
+                              @Value("${app.shipping-labels.stream-timeout:PT30M}") Duration labelStreamTimeout) {
+        this.shippingService = shippingService;
+        this.shippingLabelBatchService = shippingLabelBatchService;
+        this.objectMapper = objectMapper;
+        this.labelBatchExecutor = labelBatchExecutor;
+        this.labelStreamTimeout = labelStreamTimeout;
+    }
 
     @PostMapping("/rates")
     public ResponseEntity<ShippingRateResponseDto> calculateShippingRates(@RequestBody ShippingRateRequestDto request) throws IOException {
@@ -28,6 +55,28 @@ public class ShippingController {
         return ResponseEntity.ok(response);
     }
 
+    // Прогресс отдается построчно (NDJSON): по строке на заказ, по мере покупки лейблов.
+    // Таймаут задан явно: полный пакет идет дольше стандартного таймаута асинхронного запроса (30 с).
+    // Если все потоки пакетов заняты, TaskRejectedException отдается как 503 до начала потока
+    @PostMapping(value = "/labels/batch", produces = "application/x-ndjson")
+    public ResponseEntity<ResponseBodyEmitter> generateShippingLabels(@RequestBody @Valid BulkLabelRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(labelStreamTimeout.toMillis());
+        labelBatchExecutor.execute(() -> {
+            try {
+                shippingLabelBatchService.generateLabels(request, result -> writeLine(emitter, result));
+                emitter.complete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(emitter);
+    }
+
     @GetMapping("/labels/{orderId}")
     public ResponseEntity<ShippingInfoDto> getShippingLabel(@PathVariable String orderId) {
         ShippingInfoDto shippingInfo = shippingService.getShippingInfo(orderId);
@@ -41,4 +90,16 @@ public class ShippingController {
         shippingService.updateShippingStatus(orderId, status);
         return ResponseEntity.ok().build();
     }
-} 
\ No newline at end of file
+
+    private void writeLine(ResponseBodyEmitter emitter, BulkLabelItemResultDto result) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(result);
+            byte[] line = Arrays.copyOf(json, json.length + 1);
+            line[json.length] = '\n';
+            emitter.send(line, MediaType.APPLICATION_OCTET_STREAM);
+        } catch (IOException e) {
+            // Клиент отключился - пакет дорабатывает без него, результаты остаются в shipping_info
+            throw new UncheckedIOException(e);
+        }
+    }
+}
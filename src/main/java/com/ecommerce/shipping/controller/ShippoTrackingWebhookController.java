@@ -0,0 +1,26 @@
+package com.ecommerce.shipping.controller;
+
+import com.ecommerce.shipping.dto.ShippoWebhookEventDto;
+import com.ecommerce.shipping.service.TrackingSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/shipping/tracking/webhook")
+@RequiredArgsConstructor
+public class ShippoTrackingWebhookController {
+    private final TrackingSyncService trackingSyncService;
+
+    // События по неизвестным номерам и прочие типы событий тоже получают 200, иначе Shippo повторяет доставку
+    @PostMapping
+    public ResponseEntity<Void> receive(@RequestParam(value = "token", required = false) String token,
+                                        @RequestBody ShippoWebhookEventDto event) {
+        trackingSyncService.receiveWebhook(token, event);
+        return ResponseEntity.ok().build();
+    }
+}
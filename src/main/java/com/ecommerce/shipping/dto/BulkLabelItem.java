@@ -0,0 +1,17 @@
+package com.ecommerce.shipping.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLabelItem {
+    @NotBlank(message = "Order id is required")
+    private String orderId;
+
+    @NotBlank(message = "Rate id is required")
+    private String rateId; // Тариф, выбранный для заказа
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.shipping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Одна строка потока прогресса пакетной генерации лейблов
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLabelItemResultDto {
+    private String orderId;
+    private BulkLabelOutcome outcome;
+    private String transactionId;
+    private String trackingNumber;
+    private String labelUrl;
+    private int attempts; // Число обращений к Shippo, 0 - если покупка не понадобилась
+    private String error;
+    private int completed; // Сколько заказов пакета обработано, включая этот
+    private int total;
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.shipping.dto;
+
+public enum BulkLabelOutcome {
+    CREATED,         // Лейбл куплен, запись о доставке сохранена
+    ALREADY_EXISTS,  // У заказа уже есть запись о доставке
+    FAILED           // Shippo отказал или попытки исчерпаны
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.shipping.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkLabelRequest {
+    @NotEmpty(message = "Items are required")
+    @Size(max = 1000, message = "No more than 1000 labels per request")
+    private List<@Valid BulkLabelItem> items;
+
+    private String labelFormat; // Формат лейбла (PDF, PNG, ZPL)
+    private String labelSize; // Размер лейбла (4x6, 4x8, etc.)
+}
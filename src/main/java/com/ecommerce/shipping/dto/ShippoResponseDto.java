@@ -3,6 +3,8 @@ package com.ecommerce.shipping.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class ShippoResponseDto {
     private String objectId;
@@ -24,4 +26,6 @@ public class ShippoResponseDto {
     
     @JsonProperty("object_updated")
     private String objectUpdated;
+
+    private List<ShippoRateDto> rates; // Тарифы синхронно созданного отправления
 } 
\ No newline at end of file
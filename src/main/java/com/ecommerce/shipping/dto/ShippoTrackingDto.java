@@ -11,6 +11,7 @@ public class ShippoTrackingDto {
     private String objectId;
     private String status;
     private String message;
+    private String carrier;
     
     @JsonProperty("tracking_number")
     private String trackingNumber;
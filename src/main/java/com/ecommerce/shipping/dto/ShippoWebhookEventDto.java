@@ -0,0 +1,9 @@
+package com.ecommerce.shipping.dto;
+
+import lombok.Data;
+
+@Data
+public class ShippoWebhookEventDto {
+    private String event; // track_updated для событий отслеживания
+    private ShippoTrackingDto data;
+}
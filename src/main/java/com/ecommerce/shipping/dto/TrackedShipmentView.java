@@ -0,0 +1,10 @@
+package com.ecommerce.shipping.dto;
+
+import com.ecommerce.shipping.model.ShippingStatus;
+
+import java.time.LocalDateTime;
+
+// Отправление для опроса статуса у перевозчика; id - позиция keyset-курсора
+public record TrackedShipmentView(Long id, String trackingNumber, String carrier, ShippingStatus status,
+                                  LocalDateTime createdAt, LocalDateTime nextTrackingCheckAt) {
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.shipping.dto;
+
+import com.ecommerce.shipping.model.ShippingStatus;
+
+import java.time.LocalDateTime;
+
+// Результат синхронизации одного отправления; применяется, только если статус в базе все еще expectedStatus
+public record TrackingUpdate(Long id, ShippingStatus expectedStatus, ShippingStatus status, LocalDateTime nextCheckAt) {
+}
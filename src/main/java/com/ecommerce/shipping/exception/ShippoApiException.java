@@ -0,0 +1,17 @@
+package com.ecommerce.shipping.exception;
+
+import java.io.IOException;
+
+// Shippo ответил неуспешным статусом; по коду вызывающий решает, можно ли повторить запрос
+public class ShippoApiException extends IOException {
+    private final int statusCode;
+
+    public ShippoApiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
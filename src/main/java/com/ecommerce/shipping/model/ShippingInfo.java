@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "shipping_info")
+@Table(name = "shipping_info", indexes = {
+        @Index(name = "idx_shipping_info_tracking_number", columnList = "tracking_number"),
+        @Index(name = "idx_shipping_info_next_tracking_check", columnList = "next_tracking_check_at")
+})
 public class ShippingInfo {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -55,6 +58,10 @@ public class ShippingInfo {
     @Column(name = "status")
     private ShippingStatus status;
 
+    // Когда опросить перевозчика; null - отправление еще не в расписании или отслеживание завершено
+    @Column(name = "next_tracking_check_at")
+    private LocalDateTime nextTrackingCheckAt;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
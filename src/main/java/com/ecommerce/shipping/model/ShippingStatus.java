@@ -1,5 +1,6 @@
 package com.ecommerce.shipping.model;
 
+// Порядок объявления - порядок жизненного цикла отправления
 public enum ShippingStatus {
     PENDING,        // Ожидает обработки
     PROCESSING,     // В процессе
@@ -8,5 +9,14 @@ public enum ShippingStatus {
     IN_TRANSIT,     // В пути
     DELIVERED,      // Доставлено
     FAILED,         // Ошибка
-    CANCELLED       // Отменено
+    CANCELLED;      // Отменено
+
+    public boolean isTerminal() {
+        return this == DELIVERED || this == FAILED || this == CANCELLED;
+    }
+
+    // События перевозчика приходят не по порядку; статус только продвигается вперед
+    public boolean canAdvanceTo(ShippingStatus next) {
+        return !isTerminal() && next.ordinal() > ordinal();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ecommerce.shipping.repository;
+
+import com.ecommerce.shipping.dto.TrackingUpdate;
+import com.ecommerce.shipping.model.ShippingInfo;
+
+import java.util.List;
+
+public interface ShippingInfoBatchRepository {
+    int[] batchInsert(List<ShippingInfo> shippingInfos);
+
+    int[] batchUpdateTracking(List<TrackingUpdate> updates);
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.shipping.repository;
+
+import com.ecommerce.shipping.dto.TrackingUpdate;
+import com.ecommerce.shipping.model.ShippingInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ShippingInfoBatchRepositoryImpl implements ShippingInfoBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO shipping_info " +
+            "(order_id, shippo_rate_id, shippo_transaction_id, tracking_number, tracking_url, label_url, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Условие по статусу: если статус успели изменить параллельно, строка не перезаписывается
+    private static final String UPDATE_TRACKING_SQL =
+            "UPDATE shipping_info SET status = ?, next_tracking_check_at = ?, updated_at = ? " +
+            "WHERE id = ? AND status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // IDENTITY-ключи отключают batching в Hibernate, поэтому вставляем одним JDBC-батчем
+    @Override
+    public int[] batchInsert(List<ShippingInfo> shippingInfos) {
+        if (shippingInfos.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(INSERT_SQL, shippingInfos, shippingInfos.size(), (ps, info) -> {
+            ps.setString(1, info.getOrderId());
+            ps.setString(2, info.getShippoRateId());
+            ps.setString(3, info.getShippoTransactionId());
+            ps.setString(4, info.getTrackingNumber());
+            ps.setString(5, info.getTrackingUrl());
+            ps.setString(6, info.getLabelUrl());
+            ps.setString(7, info.getStatus().name());
+            ps.setTimestamp(8, now);
+            ps.setTimestamp(9, now);
+        })[0];
+    }
+
+    @Override
+    public int[] batchUpdateTracking(List<TrackingUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.batchUpdate(UPDATE_TRACKING_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setString(1, update.status().name());
+            ps.setTimestamp(2, update.nextCheckAt() != null ? Timestamp.valueOf(update.nextCheckAt()) : null);
+            ps.setTimestamp(3, now);
+            ps.setLong(4, update.id());
+            ps.setString(5, update.expectedStatus().name());
+        })[0];
+    }
+}
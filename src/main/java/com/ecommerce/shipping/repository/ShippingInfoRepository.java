@@ -1,13 +1,40 @@
 package com.ecommerce.shipping.repository;
 
+import com.ecommerce.shipping.dto.TrackedShipmentView;
 import com.ecommerce.shipping.model.ShippingInfo;
+import com.ecommerce.shipping.model.ShippingStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface ShippingInfoRepository extends JpaRepository<ShippingInfo, Long> {
+public interface ShippingInfoRepository extends JpaRepository<ShippingInfo, Long>, ShippingInfoBatchRepository {
     Optional<ShippingInfo> findByOrderId(String orderId);
     boolean existsByOrderId(String orderId);
+
+    Optional<ShippingInfo> findByTrackingNumber(String trackingNumber);
+
+    // Отправления, которые пора опросить; keyset по id, использует idx_shipping_info_next_tracking_check
+    @Query("SELECT new com.ecommerce.shipping.dto.TrackedShipmentView(" +
+           "s.id, s.trackingNumber, s.carrier, s.status, s.createdAt, s.nextTrackingCheckAt) " +
+           "FROM ShippingInfo s " +
+           "WHERE s.status IN :statuses AND s.trackingNumber IS NOT NULL AND s.createdAt >= :createdAfter " +
+           "AND (s.nextTrackingCheckAt IS NULL OR s.nextTrackingCheckAt <= :dueBefore) AND s.id > :afterId " +
+           "ORDER BY s.id")
+    List<TrackedShipmentView> findTrackingCandidates(@Param("statuses") Collection<ShippingStatus> statuses,
+                                                     @Param("createdAfter") LocalDateTime createdAfter,
+                                                     @Param("dueBefore") LocalDateTime dueBefore,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+
+    @Query("SELECT s.orderId FROM ShippingInfo s WHERE s.orderId IN :orderIds")
+    Set<String> findExistingOrderIds(@Param("orderIds") Collection<String> orderIds);
 } 
\ No newline at end of file
@@ -0,0 +1,273 @@
+package com.ecommerce.shipping.service;
+
+import com.ecommerce.common.resilience.RateLimiter;
+import com.ecommerce.shipping.dto.BulkLabelItem;
+import com.ecommerce.shipping.dto.BulkLabelItemResultDto;
+import com.ecommerce.shipping.dto.BulkLabelOutcome;
+import com.ecommerce.shipping.dto.BulkLabelRequest;
+import com.ecommerce.shipping.dto.ShippingLabelRequestDto;
+import com.ecommerce.shipping.dto.ShippingLabelResponseDto;
+import com.ecommerce.shipping.exception.ShippoApiException;
+import com.ecommerce.shipping.model.ShippingInfo;
+import com.ecommerce.shipping.model.ShippingStatus;
+import com.ecommerce.shipping.repository.ShippingInfoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+// Пакетная покупка лейблов для складских партий заказов.
+// Транзакции Shippo идут параллельно, но не больше max-concurrency на пакет и не чаще
+// requests-per-second на инстанс, чтобы оставаться под лимитом Shippo. Купленные лейблы
+// сохраняются JDBC-батчами: батч пишется, когда набран insert-batch-size или когда
+// готовых результатов больше нет и пришлось бы ждать Shippo. Результат по каждому заказу
+// отдается слушателю сразу после сохранения, в порядке готовности.
+@Slf4j
+@Service
+public class ShippingLabelBatchService {
+    private final ShippoService shippoService;
+    private final ShippingInfoRepository shippingInfoRepository;
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimiter rateLimiter;
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final int insertBatchSize;
+
+    public ShippingLabelBatchService(ShippoService shippoService,
+                                     ShippingInfoRepository shippingInfoRepository,
+                                     @Qualifier("shippingLabelExecutor") TaskExecutor executor,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.shipping-labels.requests-per-second:8}") double requestsPerSecond,
+                                     @Value("${app.shipping-labels.max-concurrency:8}") int maxConcurrency,
+                                     @Value("${app.shipping-labels.max-attempts:4}") int maxAttempts,
+                                     @Value("${app.shipping-labels.backoff-base:PT0.5S}") Duration backoffBase,
+                                     @Value("${app.shipping-labels.backoff-max:PT10S}") Duration backoffMax,
+                                     @Value("${app.shipping-labels.insert-batch-size:50}") int insertBatchSize) {
+        this.shippoService = shippoService;
+        this.shippingInfoRepository = shippingInfoRepository;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBase.toMillis();
+        this.backoffMaxMs = backoffMax.toMillis();
+        this.insertBatchSize = insertBatchSize;
+    }
+
+    public void generateLabels(BulkLabelRequest request, Consumer<BulkLabelItemResultDto> listener)
+            throws InterruptedException {
+        // Повтор заказа в пакете не должен купить второй лейбл
+        Map<String, BulkLabelItem> items = new LinkedHashMap<>();
+        request.getItems().forEach(item -> items.putIfAbsent(item.getOrderId(), item));
+        Progress progress = new Progress(items.size(), listener);
+
+        Set<String> existing = shippingInfoRepository.findExistingOrderIds(items.keySet());
+        BlockingQueue<Purchase> done = new LinkedBlockingQueue<>();
+        Semaphore slots = new Semaphore(maxConcurrency);
+        List<Purchase> bought = new ArrayList<>();
+        int outstanding = 0;
+
+        for (BulkLabelItem item : items.values()) {
+            if (existing.contains(item.getOrderId())) {
+                progress.report(item.getOrderId(), BulkLabelOutcome.ALREADY_EXISTS, null, 0,
+                        "Shipping info already exists for order: " + item.getOrderId());
+                continue;
+            }
+            // Пока все слоты заняты, сохраняем и отдаем готовые результаты
+            while (!slots.tryAcquire()) {
+                handle(next(done, bought, progress), bought, progress);
+                outstanding--;
+            }
+            try {
+                executor.execute(() -> {
+                    Purchase purchase = purchase(item, request);
+                    // Слот освобождается до публикации результата: получив результат, цикл найдет свободный слот
+                    slots.release();
+                    done.add(purchase);
+                });
+                outstanding++;
+            } catch (TaskRejectedException e) {
+                slots.release();
+                progress.report(item.getOrderId(), BulkLabelOutcome.FAILED, null, 0, "Label executor is saturated");
+            }
+        }
+        for (; outstanding > 0; outstanding--) {
+            handle(next(done, bought, progress), bought, progress);
+        }
+        flush(bought, progress);
+    }
+
+    private Purchase next(BlockingQueue<Purchase> done, List<Purchase> bought, Progress progress)
+            throws InterruptedException {
+        Purchase ready = done.poll();
+        if (ready != null) {
+            return ready;
+        }
+        // Дальше только ожидание Shippo - сохраняем накопленное, чтобы прогресс не отставал
+        flush(bought, progress);
+        return done.take();
+    }
+
+    private void handle(Purchase purchase, List<Purchase> bought, Progress progress) {
+        if (purchase.label() == null) {
+            progress.report(purchase.item().getOrderId(), BulkLabelOutcome.FAILED, null, purchase.attempts(),
+                    purchase.error());
+            return;
+        }
+        bought.add(purchase);
+        if (bought.size() >= insertBatchSize) {
+            flush(bought, progress);
+        }
+    }
+
+    private void flush(List<Purchase> bought, Progress progress) {
+        if (bought.isEmpty()) {
+            return;
+        }
+        try {
+            List<ShippingInfo> rows = bought.stream().map(ShippingLabelBatchService::toShippingInfo).toList();
+            transactionTemplate.executeWithoutResult(status -> shippingInfoRepository.batchInsert(rows));
+            bought.forEach(purchase -> progress.report(purchase.item().getOrderId(), BulkLabelOutcome.CREATED,
+                    purchase.label(), purchase.attempts(), null));
+        } catch (DataIntegrityViolationException e) {
+            // Запись для части заказов успели создать параллельно - сохраняем по одной
+            bought.forEach(purchase -> insertOne(purchase, progress));
+        }
+        bought.clear();
+    }
+
+    private void insertOne(Purchase purchase, Progress progress) {
+        String orderId = purchase.item().getOrderId();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    shippingInfoRepository.batchInsert(List.of(toShippingInfo(purchase))));
+            progress.report(orderId, BulkLabelOutcome.CREATED, purchase.label(), purchase.attempts(), null);
+        } catch (DataIntegrityViolationException e) {
+            String transactionId = purchase.label().getObjectId();
+            log.warn("Label {} was bought for order {} that already has shipping info; it must be refunded",
+                    transactionId, orderId);
+            progress.report(orderId, BulkLabelOutcome.ALREADY_EXISTS, purchase.label(), purchase.attempts(),
+                    "Shipping info already exists for order: " + orderId + "; label " + transactionId + " must be refunded");
+        }
+    }
+
+    private Purchase purchase(BulkLabelItem item, BulkLabelRequest request) {
+        ShippingLabelRequestDto labelRequest = new ShippingLabelRequestDto();
+        labelRequest.setOrderId(item.getOrderId());
+        labelRequest.setRateId(item.getRateId());
+        labelRequest.setLabelFormat(request.getLabelFormat());
+        labelRequest.setLabelSize(request.getLabelSize());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                rateLimiter.acquire();
+                ShippingLabelResponseDto label = shippoService.generateShippingLabel(labelRequest);
+                if (label.getError() != null) {
+                    return new Purchase(item, null, attempt, label.getError());
+                }
+                return new Purchase(item, label, attempt, null);
+            } catch (IOException e) {
+                if (!isRetryable(e) || attempt >= maxAttempts) {
+                    return new Purchase(item, null, attempt, e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return new Purchase(item, null, attempt, "Interrupted");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Purchase(item, null, attempt, "Interrupted");
+            } catch (RuntimeException e) {
+                log.error("Unexpected error buying label for order {}", item.getOrderId(), e);
+                return new Purchase(item, null, attempt, e.getMessage());
+            }
+        }
+    }
+
+    // Повторяем, только когда Shippo точно не провел покупку: после таймаута чтения
+    // или 5xx лейбл мог быть куплен, и повтор купил бы второй
+    static boolean isRetryable(IOException e) {
+        if (e instanceof ShippoApiException apiError) {
+            return apiError.getStatusCode() == 429 || apiError.getStatusCode() == 503;
+        }
+        return e instanceof ConnectException || e instanceof UnknownHostException;
+    }
+
+    // Экспоненциальная пауза со случайной половиной: повторы разных заказов не совпадают по времени
+    private long backoff(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static ShippingInfo toShippingInfo(Purchase purchase) {
+        ShippingInfo shippingInfo = new ShippingInfo();
+        shippingInfo.setOrderId(purchase.item().getOrderId());
+        shippingInfo.setShippoRateId(purchase.item().getRateId());
+        shippingInfo.setShippoTransactionId(purchase.label().getObjectId());
+        shippingInfo.setTrackingNumber(purchase.label().getTrackingNumber());
+        shippingInfo.setTrackingUrl(purchase.label().getTrackingUrlProvider());
+        shippingInfo.setLabelUrl(purchase.label().getLabelUrl());
+        shippingInfo.setStatus(ShippingStatus.LABEL_CREATED);
+        return shippingInfo;
+    }
+
+    private record Purchase(BulkLabelItem item, ShippingLabelResponseDto label, int attempts, String error) {
+    }
+
+    private static final class Progress {
+        private final int total;
+        private final Consumer<BulkLabelItemResultDto> listener;
+        private int completed;
+        private boolean detached;
+
+        private Progress(int total, Consumer<BulkLabelItemResultDto> listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        private void report(String orderId, BulkLabelOutcome outcome, ShippingLabelResponseDto label,
+                            int attempts, String error) {
+            completed++;
+            if (detached) {
+                return;
+            }
+            try {
+                listener.accept(new BulkLabelItemResultDto(orderId, outcome,
+                        label != null ? label.getObjectId() : null,
+                        label != null ? label.getTrackingNumber() : null,
+                        label != null ? label.getLabelUrl() : null,
+                        attempts, error, completed, total));
+            } catch (RuntimeException e) {
+                // Получатель прогресса отвалился; купленные лейблы все равно должны быть сохранены
+                log.warn("Label batch progress listener failed, continuing without it: {}", e.getMessage());
+                detached = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecommerce.shipping.service;
+
+import com.ecommerce.shipping.dto.ShippingRateRequestDto;
+import com.ecommerce.shipping.dto.ShippingRateResponseDto;
+import com.ecommerce.shipping.dto.ShippoAddressDto;
+import com.ecommerce.shipping.dto.ShippoParcelDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Кэш котировок доставки. Ключ - хэш нормализованного запроса: адреса без различий в регистре
+// и пробелах, ZIP+4 сокращается до ZIP, размеры округляются вверх до целых единиц, вес - вверх
+// до шага корзины. Отправление в Shippo создается уже с округленными размерами и весом, поэтому
+// тариф из кэша корректен для любой посылки своей корзины.
+// Адрес получателя входит в ключ целиком: object_id тарифа привязан к отправлению Shippo,
+// и лейбл, купленный по тарифу из кэша, должен уйти на тот же адрес.
+// Одновременные запросы с одним ключом ждут одну загрузку; ответы с ошибкой не кэшируются.
+@Component
+public class ShippingRateCache {
+    private static final String DEFAULT_CURRENCY = "USD";
+
+    private final Cache<String, ShippingRateResponseDto> quotes;
+    private final ConcurrentMap<String, CompletableFuture<ShippingRateResponseDto>> inFlight = new ConcurrentHashMap<>();
+    private final double weightStep;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public ShippingRateCache(MeterRegistry meterRegistry,
+                             @Value("${app.shipping-rate-cache.ttl:PT15M}") Duration ttl,
+                             @Value("${app.shipping-rate-cache.max-size:50000}") long maxSize,
+                             @Value("${app.shipping-rate-cache.weight-step:0.5}") double weightStep) {
+        this.quotes = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        this.weightStep = weightStep;
+        this.hits = meterRegistry.counter("shipping.rate.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("shipping.rate.cache.requests", "result", "miss");
+        this.coalesced = meterRegistry.counter("shipping.rate.cache.requests", "result", "coalesced");
+        // Доля котировок, отданных без обращения к Shippo
+        meterRegistry.gauge("shipping.rate.cache.hit.ratio", this, ShippingRateCache::hitRatio);
+        meterRegistry.gauge("shipping.rate.cache.size", quotes, Cache::estimatedSize);
+    }
+
+    public ShippingRateResponseDto get(ShippingRateRequestDto request, RateLoader loader) throws IOException {
+        ShippingRateRequestDto normalized = normalize(request);
+        String key = key(normalized);
+
+        ShippingRateResponseDto cached = quotes.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<ShippingRateResponseDto> mine = new CompletableFuture<>();
+        CompletableFuture<ShippingRateResponseDto> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        try {
+            ShippingRateResponseDto loaded = loader.load(normalized);
+            if (loaded.getError() == null) {
+                quotes.put(key, loaded);
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (IOException | RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void invalidateAll() {
+        quotes.invalidateAll();
+    }
+
+    double hitRatio() {
+        double local = hits.count() + coalesced.count();
+        double total = local + misses.count();
+        return total == 0 ? 0 : local / total;
+    }
+
+    private ShippingRateRequestDto normalize(ShippingRateRequestDto request) {
+        ShippingRateRequestDto normalized = new ShippingRateRequestDto();
+        normalized.setAddressFrom(normalize(request.getAddressFrom()));
+        normalized.setAddressTo(normalize(request.getAddressTo()));
+        normalized.setParcels(request.getParcels() == null ? null
+                : request.getParcels().stream().map(this::normalize).toList());
+        normalized.setCarriers(sorted(request.getCarriers()));
+        normalized.setServices(sorted(request.getServices()));
+        normalized.setCurrency(request.getCurrency() == null ? DEFAULT_CURRENCY : canonical(request.getCurrency()));
+        return normalized;
+    }
+
+    private static ShippoAddressDto normalize(ShippoAddressDto address) {
+        if (address == null) {
+            return null;
+        }
+        ShippoAddressDto normalized = new ShippoAddressDto();
+        normalized.setName(canonical(address.getName()));
+        normalized.setStreet1(canonical(address.getStreet1()));
+        normalized.setCity(canonical(address.getCity()));
+        normalized.setState(canonical(address.getState()));
+        normalized.setCountry(canonical(address.getCountry()));
+        normalized.setZip(postalCode(address.getZip(), normalized.getCountry()));
+        normalized.setPhone(address.getPhone());
+        normalized.setValidate(address.isValidate());
+        return normalized;
+    }
+
+    private ShippoParcelDto normalize(ShippoParcelDto parcel) {
+        ShippoParcelDto normalized = new ShippoParcelDto();
+        normalized.setLength(Math.ceil(parcel.getLength()));
+        normalized.setWidth(Math.ceil(parcel.getWidth()));
+        normalized.setHeight(Math.ceil(parcel.getHeight()));
+        normalized.setDistanceUnit(canonical(parcel.getDistanceUnit()));
+        // Округление вверх: заявленный вес не меньше фактического
+        normalized.setWeight(Math.ceil(parcel.getWeight() / weightStep) * weightStep);
+        normalized.setMassUnit(canonical(parcel.getMassUnit()));
+        return normalized;
+    }
+
+    private static String key(ShippingRateRequestDto request) {
+        StringBuilder canonical = new StringBuilder();
+        appendAddress(canonical, request.getAddressFrom());
+        appendAddress(canonical, request.getAddressTo());
+        if (request.getParcels() != null) {
+            for (ShippoParcelDto parcel : request.getParcels()) {
+                canonical.append(parcel.getLength()).append('x').append(parcel.getWidth()).append('x')
+                        .append(parcel.getHeight()).append(parcel.getDistanceUnit()).append(',')
+                        .append(parcel.getWeight()).append(parcel.getMassUnit()).append('|');
+            }
+        }
+        canonical.append(request.getCarriers()).append('|').append(request.getServices()).append('|')
+                .append(request.getCurrency());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void appendAddress(StringBuilder canonical, ShippoAddressDto address) {
+        if (address == null) {
+            canonical.append("-|");
+            return;
+        }
+        canonical.append(address.getName()).append(',').append(address.getStreet1()).append(',')
+                .append(address.getCity()).append(',').append(address.getState()).append(',')
+                .append(address.getZip()).append(',').append(address.getCountry()).append('|');
+    }
+
+    private static String postalCode(String zip, String country) {
+        if (zip == null) {
+            return null;
+        }
+        String compact = zip.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+        boolean us = country == null || "US".equals(country) || "USA".equals(country);
+        // ZIP+4 тарифицируется так же, как пятизначный ZIP
+        return us && compact.length() > 5 ? compact.substring(0, 5) : compact;
+    }
+
+    private static String canonical(String value) {
+        return value == null ? null : value.trim().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+    }
+
+    private static List<String> sorted(List<String> values) {
+        return values == null ? null : values.stream().map(ShippingRateCache::canonical).sorted().toList();
+    }
+
+    private static ShippingRateResponseDto await(CompletableFuture<ShippingRateResponseDto> running) throws IOException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @FunctionalInterface
+    public interface RateLoader {
+        ShippingRateResponseDto load(ShippingRateRequestDto request) throws IOException;
+    }
+}
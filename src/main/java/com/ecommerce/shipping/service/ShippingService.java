@@ -19,9 +19,10 @@ import java.io.IOException;
 public class ShippingService {
     private final ShippoService shippoService;
     private final ShippingInfoRepository shippingInfoRepository;
+    private final ShippingRateCache shippingRateCache;
 
     public ShippingRateResponseDto calculateShippingRates(ShippingRateRequestDto request) throws IOException {
-        return shippoService.calculateShippingRates(request);
+        return shippingRateCache.get(request, shippoService::calculateShippingRates);
     }
 
     @Transactional
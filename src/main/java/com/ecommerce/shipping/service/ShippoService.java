@@ -2,6 +2,8 @@ package com.ecommerce.shipping.service;
 
 import com.ecommerce.shipping.config.ShippoProperties;
 import com.ecommerce.shipping.dto.*;
+import com.ecommerce.shipping.exception.ShippoApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -10,160 +12,107 @@ import okhttp3.*;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ShippoService {
-    private static final String SHIPPO_API_URL = "https://api.goshippo.com";
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    private static final TypeReference<ShippoResponseDto> RESPONSE = new TypeReference<>() {};
+    private static final TypeReference<List<ShippoRateDto>> RATES = new TypeReference<>() {};
+    private static final TypeReference<ShippoTrackingDto> TRACKING = new TypeReference<>() {};
 
     private final ObjectMapper objectMapper;
     private final OkHttpClient httpClient;
     private final ShippoProperties shippoProperties;
 
     public ShippoResponseDto createAddress(ShippoAddressDto addressDto) throws IOException {
-        RequestBody body = RequestBody.create(objectMapper.writeValueAsString(addressDto), JSON);
-        
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/addresses")
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .post(body)
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to create address: {}", response.body().string());
-                throw new IOException("Failed to create address: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), ShippoResponseDto.class);
-        }
+        return await(createAddressAsync(addressDto));
+    }
+
+    public CompletableFuture<ShippoResponseDto> createAddressAsync(ShippoAddressDto addressDto) {
+        return post("/addresses", addressDto, "create address", RESPONSE);
     }
 
     public ShippoResponseDto createParcel(ShippoParcelDto parcelDto) throws IOException {
-        RequestBody body = RequestBody.create(objectMapper.writeValueAsString(parcelDto), JSON);
-        
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/parcels")
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .post(body)
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to create parcel: {}", response.body().string());
-                throw new IOException("Failed to create parcel: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), ShippoResponseDto.class);
-        }
+        return await(createParcelAsync(parcelDto));
+    }
+
+    public CompletableFuture<ShippoResponseDto> createParcelAsync(ShippoParcelDto parcelDto) {
+        return post("/parcels", parcelDto, "create parcel", RESPONSE);
     }
 
     public ShippoResponseDto createShipment(ShippoShipmentDto shipmentDto) throws IOException {
-        RequestBody body = RequestBody.create(objectMapper.writeValueAsString(shipmentDto), JSON);
-        
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/shipments")
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .post(body)
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to create shipment: {}", response.body().string());
-                throw new IOException("Failed to create shipment: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), ShippoResponseDto.class);
-        }
+        return await(createShipmentAsync(shipmentDto));
+    }
+
+    public CompletableFuture<ShippoResponseDto> createShipmentAsync(ShippoShipmentDto shipmentDto) {
+        return post("/shipments", shipmentDto, "create shipment", RESPONSE);
     }
 
     public List<ShippoRateDto> getShippingRates(String shipmentId) throws IOException {
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/shipments/" + shipmentId + "/rates")
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .get()
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to get shipping rates: {}", response.body().string());
-                throw new IOException("Failed to get shipping rates: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), new TypeReference<List<ShippoRateDto>>() {});
-        }
+        return await(getShippingRatesAsync(shipmentId));
+    }
+
+    public CompletableFuture<List<ShippoRateDto>> getShippingRatesAsync(String shipmentId) {
+        return get("/shipments/" + shipmentId + "/rates", "get shipping rates", RATES);
     }
 
     public ShippoResponseDto createLabel(String rateId) throws IOException {
-        RequestBody body = RequestBody.create(
-                "{\"rate\":\"" + rateId + "\",\"async\":false}",
-                JSON
-        );
-        
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/transactions")
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .post(body)
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to create label: {}", response.body().string());
-                throw new IOException("Failed to create label: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), ShippoResponseDto.class);
-        }
+        return await(createLabelAsync(rateId));
+    }
+
+    public CompletableFuture<ShippoResponseDto> createLabelAsync(String rateId) {
+        return post("/transactions", "{\"rate\":\"" + rateId + "\",\"async\":false}", "create label", RESPONSE);
     }
 
     public ShippoTrackingDto getTrackingInfo(String trackingNumber) throws IOException {
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/tracks/" + trackingNumber)
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .get()
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to get tracking info: {}", response.body().string());
-                throw new IOException("Failed to get tracking info: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), ShippoTrackingDto.class);
-        }
+        return await(getTrackingInfoAsync(trackingNumber));
+    }
+
+    public CompletableFuture<ShippoTrackingDto> getTrackingInfoAsync(String trackingNumber) {
+        return get("/tracks/" + trackingNumber, "get tracking info", TRACKING);
     }
 
     public ShippoTrackingDto getTrackingInfoByCarrier(String trackingNumber, String carrier) throws IOException {
-        Request request = new Request.Builder()
-                .url(SHIPPO_API_URL + "/tracks/" + carrier + "/" + trackingNumber)
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .get()
-                .build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to get tracking info: {}", response.body().string());
-                throw new IOException("Failed to get tracking info: " + response.code());
-            }
-            return objectMapper.readValue(response.body().string(), ShippoTrackingDto.class);
-        }
+        return await(getTrackingInfoByCarrierAsync(trackingNumber, carrier));
+    }
+
+    public CompletableFuture<ShippoTrackingDto> getTrackingInfoByCarrierAsync(String trackingNumber, String carrier) {
+        return get("/tracks/" + carrier + "/" + trackingNumber, "get tracking info", TRACKING);
     }
 
     public ShippingRateResponseDto calculateShippingRates(ShippingRateRequestDto request) throws IOException {
+        return await(calculateShippingRatesAsync(request));
+    }
+
+    public CompletableFuture<ShippingRateResponseDto> calculateShippingRatesAsync(ShippingRateRequestDto request) {
         // Создаем отправление для расчета
         ShippoShipmentDto shipmentDto = new ShippoShipmentDto();
         shipmentDto.setAddressFrom(request.getAddressFrom());
         shipmentDto.setAddressTo(request.getAddressTo());
         shipmentDto.setParcels(request.getParcels());
 
-        // Создаем отправление в Shippo
-        ShippoResponseDto shipmentResponse = createShipment(shipmentDto);
-        if (shipmentResponse.getStatus() != null && !shipmentResponse.getStatus().equals("SUCCESS")) {
-            ShippingRateResponseDto response = new ShippingRateResponseDto();
-            response.setError(shipmentResponse.getMessage());
-            return response;
-        }
+        return createShipmentAsync(shipmentDto).thenCompose(shipmentResponse -> {
+            if (shipmentResponse.getStatus() != null && !shipmentResponse.getStatus().equals("SUCCESS")) {
+                ShippingRateResponseDto response = new ShippingRateResponseDto();
+                response.setError(shipmentResponse.getMessage());
+                return CompletableFuture.completedFuture(response);
+            }
+            // Синхронно созданное отправление уже содержит тарифы - второй запрос не нужен
+            CompletableFuture<List<ShippoRateDto>> rates = shipmentResponse.getRates() != null
+                    ? CompletableFuture.completedFuture(shipmentResponse.getRates())
+                    : getShippingRatesAsync(shipmentResponse.getObjectId());
+            return rates.thenApply(ShippoService::toRateResponse);
+        });
+    }
 
-        // Получаем тарифы
-        List<ShippoRateDto> rates = getShippingRates(shipmentResponse.getObjectId());
-        
+    private static ShippingRateResponseDto toRateResponse(List<ShippoRateDto> rates) {
         // Преобразуем в наш формат ответа
         ShippingRateResponseDto response = new ShippingRateResponseDto();
         response.setRates(rates.stream()
@@ -182,11 +131,14 @@ public class ShippoService {
                     return dto;
                 })
                 .toList());
-
         return response;
     }
 
     public ShippingLabelResponseDto generateShippingLabel(ShippingLabelRequestDto labelRequest) throws IOException {
+        return await(generateShippingLabelAsync(labelRequest));
+    }
+
+    public CompletableFuture<ShippingLabelResponseDto> generateShippingLabelAsync(ShippingLabelRequestDto labelRequest) {
         // Создаем тело запроса для генерации лейбла
         String requestBody = String.format(
                 "{\"rate\":\"%s\",\"async\":%b,\"label_file_type\":\"%s\",\"label_size\":\"%s\"}",
@@ -196,23 +148,7 @@ public class ShippoService {
                 labelRequest.getLabelSize()
         );
 
-        RequestBody body = RequestBody.create(requestBody, JSON);
-        
-        Request httpRequest = new Request.Builder()
-                .url(SHIPPO_API_URL + "/transactions")
-                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey())
-                .post(body)
-                .build();
-
-        try (Response response = httpClient.newCall(httpRequest).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Failed to generate shipping label: {}", response.body().string());
-                throw new IOException("Failed to generate shipping label: " + response.code());
-            }
-
-            // Получаем ответ от Shippo
-            ShippoResponseDto shippoResponse = objectMapper.readValue(response.body().string(), ShippoResponseDto.class);
-            
+        return post("/transactions", requestBody, "generate shipping label", RESPONSE).thenApply(shippoResponse -> {
             // Преобразуем в наш формат ответа
             ShippingLabelResponseDto responseDto = new ShippingLabelResponseDto();
             responseDto.setObjectId(shippoResponse.getObjectId());
@@ -221,13 +157,83 @@ public class ShippoService {
             responseDto.setLabelUrl(shippoResponse.getLabelUrl());
             responseDto.setTrackingNumber(shippoResponse.getTrackingNumber());
             responseDto.setTrackingUrlProvider(shippoResponse.getTrackingUrlProvider());
-            
+
             // Если есть ошибка, устанавливаем её
             if (shippoResponse.getStatus() != null && !shippoResponse.getStatus().equals("SUCCESS")) {
                 responseDto.setError(shippoResponse.getMessage());
             }
-
             return responseDto;
+        });
+    }
+
+    private <T> CompletableFuture<T> post(String path, Object payload, String operation, TypeReference<T> type) {
+        try {
+            String json = payload instanceof String raw ? raw : objectMapper.writeValueAsString(payload);
+            return send(request(path).post(RequestBody.create(json, JSON)).build(), operation, type);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> get(String path, String operation, TypeReference<T> type) {
+        return send(request(path).get().build(), operation, type);
+    }
+
+    private Request.Builder request(String path) {
+        return new Request.Builder()
+                .url(shippoProperties.getApi().getBaseUrl() + path)
+                .addHeader("Authorization", "ShippoToken " + shippoProperties.getApi().getKey());
+    }
+
+    // Неблокирующий вызов: поток диспетчера OkHttp разбирает ответ прямо из потока тела,
+    // без промежуточной строки. Отмена future отменяет HTTP-запрос
+    private <T> CompletableFuture<T> send(Request request, String operation, TypeReference<T> type) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Call call = httpClient.newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call completedCall, Response response) {
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        // Тело ошибки уже залогировано OutboundCallInterceptor с обрезкой до max-body-bytes
+                        log.error("Failed to {}: HTTP {}", operation, response.code());
+                        throw new ShippoApiException("Failed to " + operation + ": " + response.code(), response.code());
+                    }
+                    result.complete(objectMapper.readValue(response.body().byteStream(), type));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return result;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Shippo");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,310 @@
+package com.ecommerce.shipping.service;
+
+import com.ecommerce.common.exception.InvalidWebhookException;
+import com.ecommerce.shipping.config.ShippoProperties;
+import com.ecommerce.shipping.config.TrackingSyncProperties;
+import com.ecommerce.shipping.dto.ShippoTrackingDto;
+import com.ecommerce.shipping.dto.ShippoWebhookEventDto;
+import com.ecommerce.shipping.dto.TrackedShipmentView;
+import com.ecommerce.shipping.dto.TrackingUpdate;
+import com.ecommerce.shipping.model.ShippingInfo;
+import com.ecommerce.shipping.model.ShippingStatus;
+import com.ecommerce.shipping.repository.ShippingInfoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+// Синхронизация статусов доставки с перевозчиками.
+// Отправления, по которым пришел вебхук Shippo, обновляются сразу и дальше опрашиваются
+// только для контроля раз в webhook-interval. Остальные опрашиваются по расписанию:
+// очередь с приоритетом по времени следующей проверки держит отправления, срок которых
+// наступает в пределах refill-horizon, и пополняется из базы по индексу next_tracking_check_at.
+// За проход опрашивается не больше requests-per-tick самых просроченных отправлений.
+// Интервал удваивается, пока статус не меняется, и сбрасывается при смене; после доставки
+// отправление выходит из расписания. Результаты прохода пишутся одним JDBC-батчем.
+@Slf4j
+@Service
+public class TrackingSyncService {
+    static final String TRACK_UPDATED = "track_updated";
+    private static final List<ShippingStatus> TRACKED_STATUSES =
+            List.of(ShippingStatus.LABEL_CREATED, ShippingStatus.SHIPPED, ShippingStatus.IN_TRANSIT);
+
+    private final ShippoService shippoService;
+    private final ShippingInfoRepository shippingInfoRepository;
+    private final ShippoProperties shippoProperties;
+    private final TrackingSyncProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter lookups;
+    private final Counter lookupFailures;
+    private final Counter polledChanges;
+    private final Counter webhookChanges;
+
+    // Доступ к расписанию - только под монитором сервиса
+    private final PriorityQueue<TrackedShipment> schedule = new PriorityQueue<>(
+            Comparator.comparing((TrackedShipment shipment) -> shipment.nextCheckAt).thenComparing(shipment -> shipment.id));
+    // Все известные отправления, включая те, что сейчас опрашиваются
+    private final Map<Long, TrackedShipment> known = new HashMap<>();
+
+    public TrackingSyncService(ShippoService shippoService,
+                               ShippingInfoRepository shippingInfoRepository,
+                               ShippoProperties shippoProperties,
+                               TrackingSyncProperties properties,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.shippoService = shippoService;
+        this.shippingInfoRepository = shippingInfoRepository;
+        this.shippoProperties = shippoProperties;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lookups = meterRegistry.counter("shipping.tracking.lookups", "result", "ok");
+        this.lookupFailures = meterRegistry.counter("shipping.tracking.lookups", "result", "failed");
+        this.polledChanges = meterRegistry.counter("shipping.tracking.status.changes", "source", "poll");
+        this.webhookChanges = meterRegistry.counter("shipping.tracking.status.changes", "source", "webhook");
+        meterRegistry.gauge("shipping.tracking.scheduled", this, TrackingSyncService::scheduledCount);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracking-sync.refill-interval-ms:300000}",
+               initialDelayString = "${app.tracking-sync.initial-delay-ms:30000}")
+    public void refillSchedule() {
+        int added = refill(LocalDateTime.now());
+        if (added > 0) {
+            log.debug("Scheduled {} shipments for tracking refresh", added);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracking-sync.poll-interval-ms:30000}",
+               initialDelayString = "${app.tracking-sync.initial-delay-ms:30000}")
+    public void pollDue() {
+        int polled = syncDue(LocalDateTime.now());
+        if (polled > 0) {
+            log.debug("Refreshed tracking for {} shipments", polled);
+        }
+    }
+
+    public void receiveWebhook(String token, ShippoWebhookEventDto event) {
+        String expected = shippoProperties.getWebhook().getToken();
+        if (expected == null || expected.isBlank() || token == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new InvalidWebhookException("Invalid Shippo webhook token");
+        }
+        if (TRACK_UPDATED.equals(event.getEvent())) {
+            applyTrackingEvent(event.getData(), LocalDateTime.now());
+        }
+    }
+
+    int refill(LocalDateTime now) {
+        LocalDateTime createdAfter = now.minus(properties.getMaxAge());
+        LocalDateTime dueBefore = now.plus(properties.getRefillHorizon());
+        int added = 0;
+        long afterId = 0;
+        while (true) {
+            List<TrackedShipmentView> page = shippingInfoRepository.findTrackingCandidates(TRACKED_STATUSES,
+                    createdAfter, dueBefore, afterId, PageRequest.of(0, properties.getPageSize()));
+            synchronized (this) {
+                for (TrackedShipmentView view : page) {
+                    if (!known.containsKey(view.id())) {
+                        TrackedShipment shipment = new TrackedShipment(view, now, initialInterval(view.status()));
+                        known.put(shipment.id, shipment);
+                        schedule.add(shipment);
+                        added++;
+                    }
+                }
+            }
+            if (page.size() < properties.getPageSize()) {
+                return added;
+            }
+            afterId = page.get(page.size() - 1).id();
+        }
+    }
+
+    int syncDue(LocalDateTime now) {
+        List<TrackedShipment> due = takeDue(now);
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime tooOld = now.minus(properties.getMaxAge());
+        Semaphore permits = new Semaphore(properties.getMaxConcurrency());
+        List<CompletableFuture<TrackingUpdate>> results = new ArrayList<>(due.size());
+        for (TrackedShipment shipment : due) {
+            if (shipment.createdAt.isBefore(tooOld)) {
+                // Слишком старое отправление: перестаем опрашивать, статус оставляем как есть
+                results.add(CompletableFuture.completedFuture(
+                        new TrackingUpdate(shipment.id, shipment.status, shipment.status, null)));
+                continue;
+            }
+            permits.acquireUninterruptibly();
+            results.add(lookup(shipment)
+                    .handle((tracking, error) -> nextState(shipment, tracking, error, now))
+                    .whenComplete((update, error) -> permits.release()));
+        }
+
+        List<TrackingUpdate> updates = results.stream().map(CompletableFuture::join).toList();
+        int[] applied = transactionTemplate.execute(status -> shippingInfoRepository.batchUpdateTracking(updates));
+        reschedule(due, updates, applied);
+        return due.size();
+    }
+
+    boolean applyTrackingEvent(ShippoTrackingDto tracking, LocalDateTime now) {
+        if (tracking == null || tracking.getTrackingNumber() == null) {
+            return false;
+        }
+        ShippingInfo shippingInfo = shippingInfoRepository.findByTrackingNumber(tracking.getTrackingNumber()).orElse(null);
+        if (shippingInfo == null || shippingInfo.getStatus() == null || shippingInfo.getStatus().isTerminal()) {
+            return false;
+        }
+
+        ShippingStatus current = shippingInfo.getStatus();
+        ShippingStatus reported = toShippingStatus(tracking);
+        ShippingStatus status = reported != null && current.canAdvanceTo(reported) ? reported : current;
+        LocalDateTime nextCheckAt = status.isTerminal() ? null : now.plus(properties.getWebhookInterval());
+        TrackingUpdate update = new TrackingUpdate(shippingInfo.getId(), current, status, nextCheckAt);
+        int[] applied = transactionTemplate.execute(tx -> shippingInfoRepository.batchUpdateTracking(List.of(update)));
+        if (applied == null || applied.length == 0 || applied[0] == 0) {
+            return false;
+        }
+
+        synchronized (this) {
+            TrackedShipment queued = known.get(shippingInfo.getId());
+            // Отправление в опросе прямо сейчас не трогаем: его запись не пройдет по условию статуса
+            if (queued != null && schedule.remove(queued)) {
+                if (nextCheckAt == null) {
+                    known.remove(queued.id);
+                } else {
+                    queued.status = status;
+                    queued.nextCheckAt = nextCheckAt;
+                    queued.interval = properties.getWebhookInterval();
+                    schedule.add(queued);
+                }
+            }
+        }
+        if (status != current) {
+            webhookChanges.increment();
+            return true;
+        }
+        return false;
+    }
+
+    synchronized int scheduledCount() {
+        return schedule.size();
+    }
+
+    private synchronized List<TrackedShipment> takeDue(LocalDateTime now) {
+        List<TrackedShipment> due = new ArrayList<>();
+        while (due.size() < properties.getRequestsPerTick() && !schedule.isEmpty()
+                && !schedule.peek().nextCheckAt.isAfter(now)) {
+            due.add(schedule.poll());
+        }
+        return due;
+    }
+
+    private CompletableFuture<ShippoTrackingDto> lookup(TrackedShipment shipment) {
+        try {
+            return shipment.carrier != null
+                    ? shippoService.getTrackingInfoByCarrierAsync(shipment.trackingNumber, shipment.carrier)
+                    : shippoService.getTrackingInfoAsync(shipment.trackingNumber);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private TrackingUpdate nextState(TrackedShipment shipment, ShippoTrackingDto tracking, Throwable error,
+                                     LocalDateTime now) {
+        Duration interval;
+        ShippingStatus status = shipment.status;
+        if (error != null) {
+            lookupFailures.increment();
+            log.debug("Tracking lookup failed for {}: {}", shipment.trackingNumber, error.getMessage());
+            interval = longer(shipment.interval);
+        } else {
+            lookups.increment();
+            ShippingStatus reported = toShippingStatus(tracking);
+            if (reported != null && status.canAdvanceTo(reported)) {
+                status = reported;
+                interval = initialInterval(status);
+                polledChanges.increment();
+            } else {
+                interval = longer(shipment.interval);
+            }
+        }
+        shipment.interval = interval;
+        return new TrackingUpdate(shipment.id, shipment.status, status, status.isTerminal() ? null : now.plus(interval));
+    }
+
+    private synchronized void reschedule(List<TrackedShipment> due, List<TrackingUpdate> updates, int[] applied) {
+        for (int i = 0; i < due.size(); i++) {
+            TrackedShipment shipment = due.get(i);
+            TrackingUpdate update = updates.get(i);
+            // 0 строк: статус изменили параллельно (вебхук, PATCH) - перечитаем при пополнении
+            boolean written = applied == null || i >= applied.length || applied[i] != 0;
+            if (!written || update.nextCheckAt() == null) {
+                known.remove(shipment.id);
+                continue;
+            }
+            shipment.status = update.status();
+            shipment.nextCheckAt = update.nextCheckAt();
+            schedule.add(shipment);
+        }
+    }
+
+    private Duration initialInterval(ShippingStatus status) {
+        return status == ShippingStatus.LABEL_CREATED ? properties.getLabelCreatedInterval() : properties.getInTransitInterval();
+    }
+
+    private Duration longer(Duration interval) {
+        Duration doubled = interval.multipliedBy(2);
+        return doubled.compareTo(properties.getMaxInterval()) > 0 ? properties.getMaxInterval() : doubled;
+    }
+
+    // Статусы Shippo: PRE_TRANSIT, TRANSIT, DELIVERED, RETURNED, FAILURE, UNKNOWN
+    static ShippingStatus toShippingStatus(ShippoTrackingDto tracking) {
+        if (tracking == null || tracking.getTrackingStatus() == null || tracking.getTrackingStatus().getStatus() == null) {
+            return null;
+        }
+        return switch (tracking.getTrackingStatus().getStatus()) {
+            case "PRE_TRANSIT" -> ShippingStatus.LABEL_CREATED;
+            case "TRANSIT" -> ShippingStatus.IN_TRANSIT;
+            case "DELIVERED" -> ShippingStatus.DELIVERED;
+            case "RETURNED", "FAILURE" -> ShippingStatus.FAILED;
+            default -> null;
+        };
+    }
+
+    private static final class TrackedShipment {
+        private final Long id;
+        private final String trackingNumber;
+        private final String carrier;
+        private final LocalDateTime createdAt;
+        private ShippingStatus status;
+        private LocalDateTime nextCheckAt;
+        private Duration interval;
+
+        private TrackedShipment(TrackedShipmentView view, LocalDateTime now, Duration interval) {
+            this.id = view.id();
+            this.trackingNumber = view.trackingNumber();
+            this.carrier = view.carrier();
+            this.createdAt = view.createdAt();
+            this.status = view.status();
+            this.nextCheckAt = view.nextTrackingCheckAt() != null ? view.nextTrackingCheckAt() : now;
+            this.interval = interval;
+        }
+    }
+}
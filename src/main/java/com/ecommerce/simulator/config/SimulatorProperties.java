@@ -0,0 +1,32 @@
+package com.ecommerce.simulator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Настройки встроенных симуляторов PayPal и Shippo (профиль simulator)
+@Data
+@Profile("simulator")
+@Configuration
+@ConfigurationProperties(prefix = "simulator")
+public class SimulatorProperties {
+    private int port = 18080;
+    // Потоки только формируют ответ; задержка выдерживается планировщиком без блокировки потока
+    private int threads = 8;
+    // Фиксированное зерно делает последовательность задержек и сбоев воспроизводимой
+    private Long seed;
+    private Gateway paypal = new Gateway();
+    private Gateway shippo = new Gateway();
+
+    @Data
+    public static class Gateway {
+        // Задержка распределена логнормально с заданными медианой и 99-м перцентилем
+        private long medianMs = 100;
+        private long p99Ms = 800;
+        private double errorRate;       // доля ответов 503
+        private double rateLimitRate;   // доля ответов 429
+        private double timeoutRate;     // доля запросов, отвечаемых только через timeoutMs
+        private long timeoutMs = 60000;
+    }
+}
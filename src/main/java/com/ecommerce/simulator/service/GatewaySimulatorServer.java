@@ -0,0 +1,113 @@
+package com.ecommerce.simulator.service;
+
+import com.ecommerce.simulator.config.SimulatorProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Встроенный HTTP-сервер, отвечающий вместо PayPal (/paypal) и Shippo (/shippo) в профиле simulator.
+// Клиенты приложения ходят к нему по настоящему HTTP, поэтому под нагрузкой работают их таймауты,
+// пулы соединений, размыкатель и разбор ответов. Задержка ответа выдерживается планировщиком,
+// а не спящим потоком, поэтому несколько потоков держат тысячи запросов в секунду.
+@Slf4j
+@Component
+@Profile("simulator")
+public class GatewaySimulatorServer {
+    private final SimulatorProperties properties;
+    private final ObjectMapper objectMapper;
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ScheduledExecutorService responder;
+
+    public GatewaySimulatorServer(SimulatorProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Random random = properties.getSeed() != null ? new Random(properties.getSeed()) : new Random();
+        handlers = Executors.newFixedThreadPool(properties.getThreads());
+        responder = Executors.newScheduledThreadPool(Math.max(1, properties.getThreads() / 2));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", properties.getPort()), 1024);
+        server.setExecutor(handlers);
+        PayPalSimulator paypal = new PayPalSimulator();
+        LatencyModel paypalLatency = new LatencyModel(properties.getPaypal(), random);
+        server.createContext("/paypal", exchange -> serve(exchange, "/paypal", paypal, paypalLatency));
+        ShippoSimulator shippo = new ShippoSimulator(objectMapper);
+        LatencyModel shippoLatency = new LatencyModel(properties.getShippo(), random);
+        server.createContext("/shippo", exchange -> serve(exchange, "/shippo", shippo, shippoLatency));
+        server.start();
+        log.info("Gateway simulator listening on port {}", getPort());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (responder != null) {
+            responder.shutdownNow();
+        }
+        if (handlers != null) {
+            handlers.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void serve(HttpExchange exchange, String prefix, SimulatedApi api, LatencyModel latency) {
+        LatencyModel.Decision decision = latency.next();
+        SimulatedApi.SimulatedResponse response;
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            response = switch (decision.outcome()) {
+                case ERROR -> new SimulatedApi.SimulatedResponse(503, "{\"message\":\"Simulated outage\"}");
+                case RATE_LIMITED -> new SimulatedApi.SimulatedResponse(429, "{\"message\":\"Simulated rate limit\"}");
+                default -> api.handle(exchange.getRequestMethod(),
+                        exchange.getRequestURI().getPath().substring(prefix.length()), body);
+            };
+        } catch (IOException | RuntimeException e) {
+            log.debug("Simulator failed to handle {}: {}", exchange.getRequestURI(), e.getMessage());
+            response = new SimulatedApi.SimulatedResponse(400, "{\"message\":\"Bad request\"}");
+        }
+
+        SimulatedApi.SimulatedResponse result = response;
+        responder.schedule(() -> send(exchange, result), decision.delayMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private static void send(HttpExchange exchange, SimulatedApi.SimulatedResponse response) {
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // Клиент уже закрыл соединение по таймауту - для симуляции зависаний это ожидаемо
+            log.trace("Simulator response dropped: {}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+}
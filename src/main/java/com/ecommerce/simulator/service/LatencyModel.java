@@ -0,0 +1,58 @@
+package com.ecommerce.simulator.service;
+
+import com.ecommerce.simulator.config.SimulatorProperties;
+
+import java.util.Random;
+
+// Модель поведения внешнего шлюза: исход запроса и задержка ответа.
+// Задержка логнормальная: медиана и p99 задают mu и sigma, поэтому хвост распределения
+// похож на реальные API, а не на равномерный шум.
+public class LatencyModel {
+    private static final double Z_99 = 2.3263478740408408;
+
+    public enum Outcome {
+        OK, ERROR, RATE_LIMITED, TIMEOUT
+    }
+
+    public record Decision(Outcome outcome, long delayMs) {
+    }
+
+    private final SimulatorProperties.Gateway settings;
+    private final Random random;
+    private final double mu;
+    private final double sigma;
+
+    public LatencyModel(SimulatorProperties.Gateway settings, Random random) {
+        this.settings = settings;
+        this.random = random;
+        long median = Math.max(1, settings.getMedianMs());
+        long p99 = Math.max(median, settings.getP99Ms());
+        this.mu = Math.log(median);
+        this.sigma = Math.log((double) p99 / median) / Z_99;
+    }
+
+    public Decision next() {
+        double roll;
+        double gaussian;
+        synchronized (random) {
+            roll = random.nextDouble();
+            gaussian = random.nextGaussian();
+        }
+        long delay = Math.round(Math.exp(mu + sigma * gaussian));
+
+        double threshold = settings.getTimeoutRate();
+        if (roll < threshold) {
+            return new Decision(Outcome.TIMEOUT, settings.getTimeoutMs());
+        }
+        threshold += settings.getErrorRate();
+        if (roll < threshold) {
+            return new Decision(Outcome.ERROR, delay);
+        }
+        threshold += settings.getRateLimitRate();
+        if (roll < threshold) {
+            // Лимит отвечает сразу, как настоящий шлюз
+            return new Decision(Outcome.RATE_LIMITED, 0);
+        }
+        return new Decision(Outcome.OK, delay);
+    }
+}
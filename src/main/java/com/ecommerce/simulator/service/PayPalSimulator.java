@@ -0,0 +1,80 @@
+package com.ecommerce.simulator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paypal.api.payments.Links;
+import com.paypal.api.payments.Payer;
+import com.paypal.api.payments.PayerInfo;
+import com.paypal.api.payments.Payment;
+import com.paypal.api.payments.PaymentExecution;
+import com.paypal.base.rest.JSONFormatter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Симулятор PayPal REST API v1 в объеме, который использует приложение: OAuth-токен,
+// создание, проведение и получение платежа. Ответы сериализуются моделями SDK,
+// поэтому клиентская сторона разбирает их так же, как ответы настоящего PayPal.
+public class PayPalSimulator implements SimulatedApi {
+    private static final Pattern EXECUTE = Pattern.compile("/v1/payments/payment/([^/]+)/execute");
+    private static final Pattern PAYMENT = Pattern.compile("/v1/payments/payment/([^/]+)");
+
+    // Созданные платежи; ограничено, чтобы долгий нагрузочный прогон не съел память
+    private final Cache<String, Payment> payments = Caffeine.newBuilder().maximumSize(1_000_000).build();
+
+    @Override
+    public SimulatedResponse handle(String method, String path, String body) {
+        if ("POST".equals(method) && path.equals("/v1/oauth2/token")) {
+            return SimulatedResponse.ok("{\"scope\":\"https://uri.paypal.com/services/payments/payment\","
+                    + "\"access_token\":\"SIM-" + UUID.randomUUID() + "\",\"token_type\":\"Bearer\","
+                    + "\"app_id\":\"APP-SIMULATOR\",\"expires_in\":32400}");
+        }
+        if ("POST".equals(method) && path.equals("/v1/payments/payment")) {
+            return SimulatedResponse.created(create(JSONFormatter.fromJSON(body, Payment.class)).toJSON());
+        }
+        Matcher execute = EXECUTE.matcher(path);
+        if ("POST".equals(method) && execute.matches()) {
+            Payment payment = payments.getIfPresent(execute.group(1));
+            if (payment == null) {
+                return SimulatedResponse.notFound();
+            }
+            return SimulatedResponse.ok(execute(payment, JSONFormatter.fromJSON(body, PaymentExecution.class)).toJSON());
+        }
+        Matcher get = PAYMENT.matcher(path);
+        if ("GET".equals(method) && get.matches()) {
+            Payment payment = payments.getIfPresent(get.group(1));
+            return payment != null ? SimulatedResponse.ok(payment.toJSON()) : SimulatedResponse.notFound();
+        }
+        return SimulatedResponse.notFound();
+    }
+
+    private Payment create(Payment request) {
+        String id = "PAYID-SIM" + UUID.randomUUID().toString().replace("-", "").substring(0, 20).toUpperCase();
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setIntent(request.getIntent());
+        payment.setPayer(request.getPayer());
+        payment.setTransactions(request.getTransactions());
+        payment.setState("created");
+        payment.setCreateTime(Instant.now().toString());
+        Links approval = new Links("https://simulator.local/checkout?token=" + id, "approval_url");
+        approval.setMethod("REDIRECT");
+        payment.setLinks(List.of(approval));
+        payments.put(id, payment);
+        return payment;
+    }
+
+    private synchronized Payment execute(Payment payment, PaymentExecution execution) {
+        PayerInfo payerInfo = new PayerInfo();
+        payerInfo.setPayerId(execution.getPayerId());
+        Payer payer = payment.getPayer() != null ? payment.getPayer() : new Payer();
+        payer.setPayerInfo(payerInfo);
+        payment.setPayer(payer);
+        payment.setState("approved");
+        payment.setUpdateTime(Instant.now().toString());
+        return payment;
+    }
+}
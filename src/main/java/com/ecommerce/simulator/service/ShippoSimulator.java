@@ -0,0 +1,117 @@
+package com.ecommerce.simulator.service;
+
+import com.ecommerce.shipping.dto.ShippoRateDto;
+import com.ecommerce.shipping.dto.ShippoResponseDto;
+import com.ecommerce.shipping.dto.ShippoTrackingDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Симулятор Shippo API для эндпоинтов, которые вызывает ShippoService.
+// Ответы строятся из тех же DTO, которыми ShippoService их читает
+public class ShippoSimulator implements SimulatedApi {
+    private static final Pattern RATES = Pattern.compile("/shipments/([^/]+)/rates");
+    private static final Pattern TRACK = Pattern.compile("/tracks/(?:[^/]+/)?([^/]+)");
+
+    private final ObjectMapper objectMapper;
+
+    public ShippoSimulator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public SimulatedResponse handle(String method, String path, String body) throws IOException {
+        if ("POST".equals(method)) {
+            switch (path) {
+                case "/addresses", "/parcels" -> {
+                    return SimulatedResponse.created(objectMapper.writeValueAsString(object(path.substring(1, 4))));
+                }
+                case "/shipments" -> {
+                    // Синхронно созданное отправление, как и в Shippo, возвращается вместе с тарифами
+                    ShippoResponseDto shipment = object("shi");
+                    shipment.setRates(rates());
+                    return SimulatedResponse.created(objectMapper.writeValueAsString(shipment));
+                }
+                case "/transactions" -> {
+                    return SimulatedResponse.created(objectMapper.writeValueAsString(label()));
+                }
+                default -> {
+                    return SimulatedResponse.notFound();
+                }
+            }
+        }
+        Matcher shipmentRates = RATES.matcher(path);
+        if ("GET".equals(method) && shipmentRates.matches()) {
+            return SimulatedResponse.ok(objectMapper.writeValueAsString(rates()));
+        }
+        Matcher track = TRACK.matcher(path);
+        if ("GET".equals(method) && track.matches()) {
+            return SimulatedResponse.ok(objectMapper.writeValueAsString(tracking(track.group(1))));
+        }
+        return SimulatedResponse.notFound();
+    }
+
+    private static ShippoResponseDto object(String prefix) {
+        ShippoResponseDto response = new ShippoResponseDto();
+        response.setObjectId(prefix + "_" + id());
+        response.setObjectState("VALID");
+        response.setStatus("SUCCESS");
+        response.setObjectCreated(LocalDateTime.now().toString());
+        return response;
+    }
+
+    private static ShippoResponseDto label() {
+        ShippoResponseDto response = object("txn");
+        String trackingNumber = "SIM" + id().substring(0, 18).toUpperCase();
+        response.setTrackingNumber(trackingNumber);
+        response.setLabelUrl("https://simulator.local/labels/" + trackingNumber + ".pdf");
+        response.setTrackingUrlProvider("https://simulator.local/track/" + trackingNumber);
+        return response;
+    }
+
+    private static List<ShippoRateDto> rates() {
+        return List.of(
+                rate("USPS", "Priority Mail", "7.58", 2),
+                rate("UPS", "Ground", "11.24", 4),
+                rate("FedEx", "2Day", "24.90", 2));
+    }
+
+    private static ShippoRateDto rate(String provider, String service, String amount, int days) {
+        ShippoRateDto rate = new ShippoRateDto();
+        rate.setObjectId("rate_" + id());
+        rate.setProvider(provider);
+        rate.setService(service);
+        rate.setCurrency("USD");
+        rate.setAmount(amount);
+        rate.setDays(String.valueOf(days));
+        rate.setEstimatedDays(String.valueOf(days));
+        rate.setDurationTerms("Delivery in " + days + " business days");
+        return rate;
+    }
+
+    private static ShippoTrackingDto tracking(String trackingNumber) {
+        ShippoTrackingDto.TrackingStatus status = new ShippoTrackingDto.TrackingStatus();
+        status.setStatus("TRANSIT");
+        status.setStatusDetails("Package is in transit");
+        status.setStatusDate(LocalDateTime.now().toString());
+        status.setLocation("Simulator Hub");
+
+        ShippoTrackingDto tracking = new ShippoTrackingDto();
+        tracking.setObjectId("trk_" + id());
+        tracking.setTrackingNumber(trackingNumber);
+        tracking.setTrackingStatus(status);
+        tracking.setTrackingHistory(List.of());
+        tracking.setObjectCreated(LocalDateTime.now());
+        tracking.setObjectUpdated(LocalDateTime.now());
+        return tracking;
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.simulator.service;
+
+import java.io.IOException;
+
+// Обработчик запросов к одному симулируемому API; путь передается без префикса шлюза
+@FunctionalInterface
+public interface SimulatedApi {
+    SimulatedResponse handle(String method, String path, String body) throws IOException;
+
+    record SimulatedResponse(int status, String body) {
+
+        public static SimulatedResponse ok(String body) {
+            return new SimulatedResponse(200, body);
+        }
+
+        public static SimulatedResponse created(String body) {
+            return new SimulatedResponse(201, body);
+        }
+
+        public static SimulatedResponse notFound() {
+            return new SimulatedResponse(404, "{\"message\":\"Not found\"}");
+        }
+    }
+}
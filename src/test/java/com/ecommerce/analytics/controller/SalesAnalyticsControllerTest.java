@@ -0,0 +1,60 @@
+package com.ecommerce.analytics.controller;
+
+import com.ecommerce.analytics.service.SalesAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+class SalesAnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getDaily_ShouldReturnBuckets_WhenAdmin() throws Exception {
+        when(salesAnalyticsService.getDaily(7)).thenReturn(List.of());
+
+        mockMvc.perform(get("/analytics/sales/daily").param("days", "7"))
+                .andExpect(status().isOk());
+
+        verify(salesAnalyticsService).getDaily(7);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void analytics_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(get("/analytics/sales/totals"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/analytics/sales/products"))
+                .andExpect(status().isForbidden());
+
+        verify(salesAnalyticsService, never()).getTotals();
+        verify(salesAnalyticsService, never()).getTopProducts(anyInt());
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.order.event.OrderLifecycleEvent;
+import com.ecommerce.order.event.OrderLifecycleEventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesAggregatesTest {
+    private static final Instant NOW = Instant.parse("2026-03-10T12:30:00Z");
+
+    @Test
+    void record_ShouldAggregateByHourProductAndCategory() {
+        SalesAggregates aggregates = new SalesAggregates(48, 30);
+        aggregates.record(event(OrderLifecycleEventType.CREATED, NOW, 0));
+        aggregates.record(event(OrderLifecycleEventType.CREATED, NOW, 0));
+        aggregates.record(event(OrderLifecycleEventType.PAID, NOW, 2500,
+                new OrderLifecycleEvent.Line(1L, 10L, 2, 2000),
+                new OrderLifecycleEvent.Line(2L, 10L, 1, 500)));
+        aggregates.record(event(OrderLifecycleEventType.CANCELLED, NOW.minus(2, ChronoUnit.HOURS), 0));
+
+        List<SalesAggregates.BucketState> hours = aggregates.hourly(NOW, 24);
+        assertEquals(2, hours.size());
+        SalesAggregates.BucketState current = hours.get(0);
+        assertEquals(2, current.created());
+        assertEquals(1, current.paid());
+        assertEquals(2500, current.revenueMinorUnits());
+        assertEquals(3, current.units());
+        assertEquals(1, hours.get(1).cancelled());
+
+        assertEquals(1L, aggregates.topProducts(1).get(0).id());
+        assertEquals(3, aggregates.topCategories(5).get(0).units());
+        assertEquals(2, aggregates.totals().created());
+    }
+
+    @Test
+    void record_ShouldDropBucketsOutsideRetention() {
+        SalesAggregates aggregates = new SalesAggregates(3, 30);
+        aggregates.record(event(OrderLifecycleEventType.CREATED, NOW.minus(5, ChronoUnit.HOURS), 0));
+        aggregates.record(event(OrderLifecycleEventType.CREATED, NOW, 0));
+
+        assertEquals(1, aggregates.hourly(NOW, 24).size());
+        assertEquals(2, aggregates.totals().created());
+    }
+
+    @Test
+    void checkpoint_ShouldRoundTripThroughJson() throws Exception {
+        SalesAggregates aggregates = new SalesAggregates(48, 30);
+        aggregates.record(event(OrderLifecycleEventType.PAID, NOW, 1000, new OrderLifecycleEvent.Line(7L, null, 4, 1000)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = objectMapper.writeValueAsString(aggregates.toCheckpoint());
+        SalesAggregates restored = new SalesAggregates(48, 30);
+        restored.restore(objectMapper.readValue(json, SalesAggregates.Checkpoint.class));
+
+        assertEquals(aggregates.hourly(NOW, 24), restored.hourly(NOW, 24));
+        assertEquals(aggregates.daily(NOW, 7), restored.daily(NOW, 7));
+        assertEquals(aggregates.topProducts(10), restored.topProducts(10));
+        assertTrue(restored.topCategories(10).isEmpty());
+    }
+
+    private static OrderLifecycleEvent event(OrderLifecycleEventType type, Instant at, long total,
+                                             OrderLifecycleEvent.Line... lines) {
+        return new OrderLifecycleEvent(type, 1L, at, total, List.of(lines));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.dto.CartDto;
+import com.ecommerce.cart.dto.CheckoutRequest;
+import com.ecommerce.cart.repository.CartSnapshotRepository;
+import com.ecommerce.common.exception.CartException;
+import com.ecommerce.common.exception.InsufficientStockException;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.ShippingAddressRequest;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.pricing.repository.PricingRuleRepository;
+import com.ecommerce.pricing.service.PricingEngine;
+import com.ecommerce.products.dto.ProductAvailabilityDto;
+import com.ecommerce.products.service.ProductReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+    @Mock
+    private ProductReservationService productReservationService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private CartSnapshotRepository snapshotRepository;
+
+    @Mock
+    private PricingRuleRepository pricingRuleRepository;
+
+    private CartStore cartStore;
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartStore = new CartStore(snapshotRepository, new ObjectMapper(), Duration.ofHours(2), 1000, false);
+        cartService = new CartService(cartStore, productReservationService,
+                new PricingEngine(pricingRuleRepository), orderService);
+    }
+
+    @Test
+    void setItemQuantity_ShouldUpdateTotalsIncrementally() {
+        stubAvailability(1L, "Keyboard", "25.50", 10);
+        stubAvailability(2L, "Mouse", "9.99", 10);
+
+        cartService.setItemQuantity(1L, 1L, 2);
+        cartService.setItemQuantity(1L, 2L, 1);
+        CartDto cart = cartService.setItemQuantity(1L, 1L, 3);
+
+        assertEquals(2, cart.getItems().size());
+        assertEquals(4, cart.getItemCount());
+        assertEquals(new BigDecimal("86.49"), cart.getSubtotal());
+        assertEquals(new BigDecimal("10.00"), cart.getShippingCost());
+        assertEquals(new BigDecimal("8.65"), cart.getTax());
+        assertEquals(new BigDecimal("105.14"), cart.getTotal());
+
+        CartDto afterRemoval = cartService.setItemQuantity(1L, 1L, 0);
+        assertEquals(1, afterRemoval.getItemCount());
+        assertEquals(new BigDecimal("9.99"), afterRemoval.getSubtotal());
+        verifyNoInteractions(snapshotRepository);
+    }
+
+    @Test
+    void setItemQuantity_ShouldRejectQuantityAboveAvailability() {
+        stubAvailability(1L, "Keyboard", "25.50", 2);
+
+        assertThrows(InsufficientStockException.class, () -> cartService.setItemQuantity(1L, 1L, 3));
+        assertTrue(cartService.getCart(1L, null).getItems().isEmpty());
+    }
+
+    @Test
+    void checkout_ShouldCreateOrderFromCartAndClearIt() {
+        stubAvailability(1L, "Keyboard", "25.50", 10);
+        cartService.setItemQuantity(7L, 1L, 2);
+
+        OrderDto order = new OrderDto();
+        order.setId(42L);
+        when(orderService.createOrder(eq(7L), any(OrderRequest.class))).thenReturn(order);
+
+        CheckoutRequest request = new CheckoutRequest();
+        request.setShippingAddress(new ShippingAddressRequest());
+        request.setPromoCode("SAVE10");
+
+        assertEquals(42L, cartService.checkout(7L, request).getId());
+
+        ArgumentCaptor<OrderRequest> captor = ArgumentCaptor.forClass(OrderRequest.class);
+        verify(orderService).createOrder(eq(7L), captor.capture());
+        assertEquals(1, captor.getValue().getItems().size());
+        assertEquals(1L, captor.getValue().getItems().get(0).getProduct().getId());
+        assertEquals(2, captor.getValue().getItems().get(0).getQuantity());
+        assertEquals("SAVE10", captor.getValue().getPromoCode());
+        assertTrue(cartStore.find(7L).isEmpty());
+    }
+
+    @Test
+    void checkout_ShouldFail_WhenCartIsEmpty() {
+        assertThrows(CartException.class, () -> cartService.checkout(1L, new CheckoutRequest()));
+        verifyNoInteractions(orderService);
+    }
+
+    private void stubAvailability(Long productId, String name, String price, int available) {
+        ProductAvailabilityDto availability = new ProductAvailabilityDto();
+        availability.setProductId(productId);
+        availability.setName(name);
+        availability.setPrice(new BigDecimal(price));
+        availability.setActive(true);
+        availability.setAvailableQuantity(available);
+        lenient().when(productReservationService.getAvailability(List.of(productId)))
+                .thenReturn(Map.of(productId, availability));
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.common.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundCallInterceptorTest {
+    private static final String LARGE_BODY = "x".repeat(10_000);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/shipments", exchange -> respond(exchange.getResponseBody(), exchange, 200, LARGE_BODY));
+        server.createContext("/fail", exchange -> respond(exchange.getResponseBody(), exchange, 500, "{\"message\":\"boom\"}"));
+        server.start();
+        // Тела сэмплируются всегда, чтобы пройти путь с захватом
+        client = new OkHttpClient.Builder()
+                .addInterceptor(new OutboundCallInterceptor(meterRegistry, 1.0, 256, 2000, () -> 0.0, System::nanoTime))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void recordsLatencyPerEndpointAfterBodyIsRead() throws IOException {
+        Request request = new Request.Builder().url(url("/shipments/a1b2c3d4e5f6a7b8c9d0/rates")).get().build();
+
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(LARGE_BODY, response.body().string());
+        }
+
+        Timer timer = meterRegistry.get(OutboundCallInterceptor.TIMER)
+                .tag("endpoint", "/shipments/{id}/rates")
+                .tag("status", "200")
+                .tag("method", "GET")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void recordsFailedCallsWithStatus() throws IOException {
+        Request request = new Request.Builder().url(url("/fail"))
+                .post(RequestBody.create("{\"rate\":\"r1\"}", MediaType.parse("application/json")))
+                .build();
+
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(500, response.code());
+            assertEquals("{\"message\":\"boom\"}", response.body().string());
+        }
+
+        assertEquals(1, meterRegistry.get(OutboundCallInterceptor.TIMER).tag("status", "500").timer().count());
+    }
+
+    @Test
+    void recordsConnectionFailures() {
+        server.stop(0);
+        Request request = new Request.Builder().url(url("/shipments")).get().build();
+
+        assertThrows(IOException.class, () -> client.newCall(request).execute());
+        assertEquals(1, meterRegistry.get(OutboundCallInterceptor.TIMER).tag("status", "IO_ERROR").timer().count());
+    }
+
+    @Test
+    void endpointReplacesIdentifiers() {
+        assertEquals("/shipments/{id}/rates", OutboundCallInterceptor.endpoint("/shipments/5d2f9a0e1c7b4e6f8a9b0c1d2e3f4a5b/rates"));
+        assertEquals("/tracks/usps/{id}", OutboundCallInterceptor.endpoint("/tracks/usps/9400111899223344556677"));
+        assertEquals("/v1/oauth2/token", OutboundCallInterceptor.endpoint("/v1/oauth2/token"));
+        assertEquals("/orders/{id}", OutboundCallInterceptor.endpoint("/orders/42"));
+        assertEquals("/", OutboundCallInterceptor.endpoint("/"));
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(OutputStream out, HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getRequestBody().readAllBytes();
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (out) {
+            out.write(bytes);
+        }
+    }
+}
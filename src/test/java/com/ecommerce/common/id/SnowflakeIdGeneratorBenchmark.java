@@ -0,0 +1,62 @@
+package com.ecommerce.common.id;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Сравнение пропускной способности генераторов номеров заказа при разном числе потоков:
+// CAS-генератор не должен деградировать как синхронизированный аналог.
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+//         -Dexec.mainClass=com.ecommerce.common.id.SnowflakeIdGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+    private final SnowflakeIdGenerator lockedGenerator = new SnowflakeIdGenerator(2);
+
+    @Benchmark
+    @Threads(1)
+    public long snowflakeSingleThread() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long snowflakeEightThreads() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long synchronizedEightThreads() {
+        synchronized (lockedGenerator) {
+            return lockedGenerator.nextId();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String randomUuidEightThreads() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String encodedEightThreads() {
+        return generator.nextEncodedId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SnowflakeIdGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
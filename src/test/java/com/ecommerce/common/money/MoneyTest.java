@@ -0,0 +1,72 @@
+package com.ecommerce.common.money;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    void of_ShouldRoundToCurrencyScale() {
+        assertEquals(1235, Money.of(new BigDecimal("12.345"), USD, RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(1234, Money.of(new BigDecimal("12.345"), USD, RoundingMode.DOWN).getMinorUnits());
+        assertEquals(new BigDecimal("12.30"), Money.of(new BigDecimal("12.3"), USD, RoundingMode.UNNECESSARY).toBigDecimal());
+    }
+
+    @Test
+    void arithmetic_ShouldStayInMinorUnits() {
+        Money price = Money.ofMinor(1999, USD);
+
+        assertEquals(Money.ofMinor(5997, USD), price.times(3));
+        assertEquals(Money.ofMinor(2999, USD), price.plus(Money.ofMinor(1000, USD)));
+        assertEquals(Money.ofMinor(999, USD), price.minus(Money.ofMinor(1000, USD)));
+        assertEquals("19.99", price.toPlainString());
+    }
+
+    @Test
+    void multiply_ShouldApplyExplicitRounding() {
+        Money amount = Money.ofMinor(1005, USD);
+
+        assertEquals(101, amount.multiply(new BigDecimal("0.10"), RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(100, amount.multiply(new BigDecimal("0.10"), RoundingMode.DOWN).getMinorUnits());
+    }
+
+    @Test
+    void plus_ShouldRejectCurrencyMismatch() {
+        Money usd = Money.ofMinor(100, USD);
+        Money eur = Money.ofMinor(100, Currency.getInstance("EUR"));
+
+        assertThrows(IllegalArgumentException.class, () -> usd.plus(eur));
+        assertThrows(IllegalArgumentException.class, () -> usd.compareTo(eur));
+    }
+
+    @Test
+    void times_ShouldFailOnOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, USD).times(2));
+    }
+
+    @Test
+    void recalculateTotals_ShouldSumItemsOnceAfterBatch() {
+        Order order = new Order();
+        order.setShippingCost(new BigDecimal("10.00"));
+        order.setTax(BigDecimal.ZERO);
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem();
+            item.setUnitPrice(new BigDecimal("0.10"));
+            item.setQuantity(3);
+            order.addItem(item);
+        }
+
+        order.recalculateTotals();
+
+        assertEquals(new BigDecimal("0.90"), order.getSubtotal());
+        assertEquals(new BigDecimal("10.90"), order.getTotal());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.common.money;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сборка заказа из n позиций: прежний пересчет BigDecimal-итогов на каждый addItem
+// против одного прохода в центах после пакета изменений.
+// Аллокации смотреть профайлером gc: добавить .addProfiler("gc") или ключ -prof gc.
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+//         -Dexec.mainClass=com.ecommerce.common.money.OrderTotalsBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalsBenchmark {
+    @Param({"10", "100"})
+    private int lines;
+
+    private BigDecimal[] prices;
+
+    @Setup
+    public void setUp() {
+        prices = new BigDecimal[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = new BigDecimal("19.99").add(BigDecimal.valueOf(i, 2));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal legacyBigDecimalPerAdd() {
+        List<BigDecimal> lineTotals = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal price : prices) {
+            lineTotals.add(price.multiply(BigDecimal.valueOf(2)));
+            // Так работал Order.calculateTotals: полный проход по позициям на каждое добавление
+            BigDecimal subtotal = lineTotals.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.1));
+            total = subtotal.add(BigDecimal.TEN).add(tax);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal moneySinglePass() {
+        Order order = new Order();
+        List<OrderItem> items = new ArrayList<>(prices.length);
+        for (BigDecimal price : prices) {
+            OrderItem item = new OrderItem();
+            item.setUnitPrice(price);
+            item.setQuantity(2);
+            items.add(item);
+        }
+        order.addItems(items);
+        order.recalculateTotals();
+        return order.getTotal();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderTotalsBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -5,12 +5,16 @@ import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.entity.OrderStatus;
 import com.ecommerce.order.entity.PaymentStatus;
 import com.ecommerce.order.entity.ShippingAddress;
+import com.ecommerce.order.repository.ArchivedOrderRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSnapshotRepository;
+import com.ecommerce.order.service.OrderCache;
 import com.ecommerce.order.repository.OrderItemRepository;
 import com.ecommerce.products.entity.Category;
 import com.ecommerce.products.entity.Product;
 import com.ecommerce.products.repository.CategoryRepository;
 import com.ecommerce.products.repository.ProductRepository;
+import com.ecommerce.products.repository.ProductReservationRepository;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,9 +46,21 @@ public class OrderIntegrationTest {
     @Autowired
     protected CategoryRepository categoryRepository;
 
+    @Autowired
+    protected ProductReservationRepository productReservationRepository;
+
     @Autowired
     protected UserRepository userRepository;
 
+    @Autowired
+    protected OrderSnapshotRepository orderSnapshotRepository;
+
+    @Autowired
+    protected ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    protected OrderCache orderCache;
+
     protected User testUser;
     protected Product testProduct;
     protected Order testOrder;
@@ -54,9 +70,13 @@ public class OrderIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        // Очищаем базу данных перед каждым тестом
+        // Очищаем базу данных и кэш заказов перед каждым тестом
+        orderCache.invalidateAll();
+        orderSnapshotRepository.deleteAll();
+        archivedOrderRepository.deleteAll();
         orderItemRepository.deleteAll();
         orderRepository.deleteAll();
+        productReservationRepository.deleteAll();
         productRepository.deleteAll();
         categoryRepository.deleteAll();
         userRepository.deleteAll();
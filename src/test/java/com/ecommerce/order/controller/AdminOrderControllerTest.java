@@ -0,0 +1,116 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.dto.OrderSearchPageDto;
+import com.ecommerce.order.service.BulkOrderStatusService;
+import com.ecommerce.order.service.OrderSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+class AdminOrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderSearchService orderSearchService;
+
+    @MockBean
+    private BulkOrderStatusService bulkOrderStatusService;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchOrders_ShouldReturnPage_WhenAdmin() throws Exception {
+        when(orderSearchService.search(any(), any(), anyInt())).thenReturn(new OrderSearchPageDto(List.of(), null));
+
+        mockMvc.perform(get("/admin/orders"))
+                .andExpect(status().isOk());
+
+        verify(orderSearchService).search(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void searchOrders_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(get("/admin/orders"))
+                .andExpect(status().isForbidden());
+
+        verify(orderSearchService, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportOrders_ShouldStreamCsvWithExplicitTimeout() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("id,orderNumber\n1,ORD-1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(orderSearchService).exportCsv(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/admin/orders/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Стандартные 30 с асинхронного запроса обрывали бы выгрузку посреди файла
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,orderNumber\n1,ORD-1\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportOrders_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(get("/admin/orders/export"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(orderSearchService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void updateOrderStatuses_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(post("/admin/orders/status/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"orderIds\":[1],\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bulkOrderStatusService);
+    }
+}
@@ -1,10 +1,15 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.common.money.Money;
 import com.ecommerce.order.OrderIntegrationTest;
 import com.ecommerce.order.dto.*;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.ShippingAddress;
 import com.ecommerce.order.entity.PaymentStatus;
 import com.ecommerce.order.service.OrderCalculationService;
+import com.ecommerce.pricing.dto.PriceQuote;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +23,7 @@ import org.springframework.test.context.ActiveProfiles;
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,9 +49,9 @@ public class OrderControllerIntegrationTest extends OrderIntegrationTest {
     @WithMockUser(username = "user", roles = {"USER"})
     void createOrder_ShouldReturnCreatedOrder() throws Exception {
         // Настраиваем моки для расчета стоимости
-        when(calculationService.calculateShippingCost(any())).thenReturn(BigDecimal.ZERO);
-        when(calculationService.calculateTax(any())).thenReturn(BigDecimal.ZERO);
-        when(calculationService.calculateTotal(any(), any(), any())).thenReturn(BigDecimal.valueOf(100.00));
+        when(calculationService.calculate(any(), any(), any(), any()))
+                .thenAnswer(invocation -> new PriceQuote(invocation.getArgument(0), Money.zero(Order.CURRENCY),
+                        Money.zero(Order.CURRENCY), Money.zero(Order.CURRENCY), Money.ofMinor(10000, Order.CURRENCY), null));
 
         OrderRequest request = new OrderRequest();
         
@@ -100,6 +106,21 @@ public class OrderControllerIntegrationTest extends OrderIntegrationTest {
                 .andExpect(jsonPath("$.trackingNumber").value("TRACK-123456"));
     }
     
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void updateOrderStatus_ShouldDeductStock_WhenConfirmed() throws Exception {
+        UpdateOrderStatusDto updateDto = new UpdateOrderStatusDto();
+        updateDto.setStatus(OrderStatus.CONFIRMED);
+
+        mockMvc.perform(put("/orders/{id}/status", testOrder.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(OrderStatus.CONFIRMED.toString()));
+
+        assertEquals(9, productRepository.findById(testProduct.getId()).orElseThrow().getStockQuantity());
+    }
+    
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     void getOrderById_ShouldReturnOrder() throws Exception {
@@ -111,6 +132,48 @@ public class OrderControllerIntegrationTest extends OrderIntegrationTest {
                 .andExpect(jsonPath("$.paymentStatus").value(testOrder.getPaymentStatus().toString()));
     }
     
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void getUserOrderHistory_ShouldPageByCursor() throws Exception {
+        Order newerOrder = new Order();
+        newerOrder.setUser(testUser);
+        newerOrder.setOrderNumber("ORD-NEWER");
+        newerOrder.setShippingAddress(copyOf(testShippingAddress));
+        OrderItem item = new OrderItem();
+        item.setProduct(testProduct);
+        item.setQuantity(2);
+        item.setUnitPrice(testProduct.getPrice());
+        newerOrder.addItem(item);
+        newerOrder = orderRepository.save(newerOrder);
+
+        mockMvc.perform(get("/orders/user/{userId}/history", testUser.getId()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.orders[0].orderNumber").value("ORD-NEWER"))
+                .andExpect(jsonPath("$.orders[0].itemCount").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(newerOrder.getId()));
+
+        mockMvc.perform(get("/orders/user/{userId}/history", testUser.getId())
+                        .param("size", "1")
+                        .param("cursor", newerOrder.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.orders[0].id").value(testOrder.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    private ShippingAddress copyOf(ShippingAddress source) {
+        ShippingAddress address = new ShippingAddress();
+        address.setFirstName(source.getFirstName());
+        address.setLastName(source.getLastName());
+        address.setStreet(source.getStreet());
+        address.setCity(source.getCity());
+        address.setState(source.getState());
+        address.setPostalCode(source.getPostalCode());
+        address.setCountry(source.getCountry());
+        return address;
+    }
+    
     @Test
     @WithMockUser(username = "user", roles = {"USER"})
     void getUserOrders_ShouldReturnUserOrders() throws Exception {
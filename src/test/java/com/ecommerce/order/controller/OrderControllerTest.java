@@ -94,16 +94,16 @@ class OrderControllerTest {
     void handlePaymentSuccess_PayPalError() throws Exception {
         // Arrange
         doThrow(new PayPalRESTException("Payment error"))
-                .when(orderService).processSuccessfulPayment(eq("PAY-123"), eq("PAYER-123"));
+                .when(orderService).processSuccessfulPayment(eq("PAY-456"), eq("PAYER-123"));
 
         // Act & Assert
         mockMvc.perform(get("/orders/payment/success")
-                .param("paymentId", "PAY-123")
+                .param("paymentId", "PAY-456")
                 .param("PayerID", "PAYER-123")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(orderService).handlePaymentFailure("PAY-123", "Payment error");
+        verify(orderService).handlePaymentFailure("PAY-456", "Payment error");
     }
 
     @Test
@@ -117,4 +117,47 @@ class OrderControllerTest {
 
         verify(orderService).handlePaymentCancellation("PAY-123");
     }
-} 
\ No newline at end of file
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void handlePaymentSuccess_ShouldReplayDuplicateCallback() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/orders/payment/success")
+                    .param("paymentId", "PAY-789")
+                    .param("PayerID", "PAYER-789"))
+                    .andExpect(status().isOk());
+        }
+
+        verify(orderService, times(1)).processSuccessfulPayment("PAY-789", "PAYER-789");
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void createOrder_ShouldReplayResponse_WhenIdempotencyKeyRepeats() throws Exception {
+        OrderDto order = new OrderDto();
+        order.setId(77L);
+        order.setOrderNumber("ORD-77");
+        when(orderService.createOrder(eq(5L), any(OrderRequest.class))).thenReturn(order);
+        String body = "{\"items\":[{\"product\":{\"id\":1},\"quantity\":1}]," +
+                "\"shippingAddress\":{\"firstName\":\"A\",\"lastName\":\"B\",\"street\":\"S\"," +
+                "\"city\":\"C\",\"state\":\"CA\",\"postalCode\":\"94105\",\"country\":\"US\"," +
+                "\"phoneNumber\":\"+14155550100\",\"email\":\"a@example.com\"}}";
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/orders/user/5")
+                    .header("Idempotency-Key", "key-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(77))
+                    .andExpect(jsonPath("$.orderNumber").value("ORD-77"));
+        }
+        verify(orderService, times(1)).createOrder(eq(5L), any(OrderRequest.class));
+
+        mockMvc.perform(post("/orders/user/5")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.replace("94105", "10001")))
+                .andExpect(status().isConflict());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.OrderStatusException;
+import com.ecommerce.order.OrderIntegrationTest;
+import com.ecommerce.order.dto.BulkStatusItemResultDto;
+import com.ecommerce.order.dto.BulkStatusOutcome;
+import com.ecommerce.order.dto.BulkStatusUpdateRequest;
+import com.ecommerce.order.dto.BulkStatusUpdateResultDto;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+public class BulkOrderStatusServiceTest extends OrderIntegrationTest {
+    @Autowired
+    private BulkOrderStatusService bulkOrderStatusService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSnapshotService orderSnapshotService;
+
+    @Test
+    void updateStatuses_ShouldReturnResultPerOrder() {
+        testOrder.setStatus(OrderStatus.PROCESSING);
+        Order processing = orderRepository.save(testOrder);
+        // Прогреваем кэш, чтобы проверить инвалидацию
+        assertEquals(OrderStatus.PROCESSING, orderService.getOrderById(processing.getId()).getStatus());
+
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setOrderIds(List.of(processing.getId(), -1L, processing.getId()));
+        request.setStatus(OrderStatus.SHIPPED);
+
+        BulkStatusUpdateResultDto result = bulkOrderStatusService.updateStatuses(request);
+
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getResults().size());
+        BulkStatusItemResultDto updated = result.getResults().get(0);
+        assertEquals(BulkStatusOutcome.UPDATED, updated.getOutcome());
+        assertEquals(OrderStatus.PROCESSING, updated.getPreviousStatus());
+        assertEquals(BulkStatusOutcome.NOT_FOUND, result.getResults().get(1).getOutcome());
+
+        OrderDto reloaded = orderService.getOrderById(processing.getId());
+        assertEquals(OrderStatus.SHIPPED, reloaded.getStatus());
+        assertEquals(processing.getVersion() + 1, orderRepository.findById(processing.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateStatuses_ShouldRewriteSnapshotsInPlace() {
+        testOrder.setStatus(OrderStatus.PROCESSING);
+        Order processing = orderRepository.save(testOrder);
+        orderService.backfillSnapshots(10);
+        assertTrue(orderSnapshotRepository.existsById(processing.getId()));
+
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setOrderIds(List.of(processing.getId()));
+        request.setStatus(OrderStatus.SHIPPED);
+        bulkOrderStatusService.updateStatuses(request);
+
+        // Снимок не удален, а переписан: чтение не уходит в граф сущностей до backfill
+        OrderDto snapshot = orderSnapshotService.find(processing.getId()).orElseThrow();
+        assertEquals(OrderStatus.SHIPPED, snapshot.getStatus());
+        assertEquals(processing.getOrderNumber(), snapshot.getOrderNumber());
+        assertEquals(1, snapshot.getItems().size());
+    }
+
+    @Test
+    void updateStatuses_ShouldReportConflict_WhenOrderAlreadyInTargetStatus() {
+        testOrder.setStatus(OrderStatus.SHIPPED);
+        Order shipped = orderRepository.save(testOrder);
+
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setOrderIds(List.of(shipped.getId()));
+        request.setStatus(OrderStatus.SHIPPED);
+
+        BulkStatusUpdateResultDto result = bulkOrderStatusService.updateStatuses(request);
+
+        assertEquals(0, result.getUpdated());
+        assertEquals(BulkStatusOutcome.CONFLICT, result.getResults().get(0).getOutcome());
+        assertEquals(shipped.getVersion(), orderRepository.findById(shipped.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateStatuses_ShouldRejectInvalidTransition() {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setOrderIds(List.of(testOrder.getId()));
+        request.setStatus(OrderStatus.DELIVERED);
+
+        BulkStatusUpdateResultDto result = bulkOrderStatusService.updateStatuses(request);
+
+        assertEquals(0, result.getUpdated());
+        assertEquals(BulkStatusOutcome.INVALID_TRANSITION, result.getResults().get(0).getOutcome());
+        assertEquals(OrderStatus.PENDING, orderRepository.findById(testOrder.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateStatuses_ShouldRejectStatusesWithInventorySideEffects() {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setOrderIds(List.of(testOrder.getId()));
+        request.setStatus(OrderStatus.CANCELLED);
+
+        assertThrows(OrderStatusException.class, () -> bulkOrderStatusService.updateStatuses(request));
+    }
+
+    @Test
+    void save_ShouldUpdateDetachedOrderAndBumpVersion() {
+        Order detached = orderRepository.findById(testOrder.getId()).orElseThrow();
+        long version = detached.getVersion();
+        long count = orderRepository.count();
+
+        detached.setTrackingNumber("TRK-VERSION");
+        Order saved = orderRepository.save(detached);
+
+        // Ненулевая версия не должна превращать save() загруженной строки во вставку
+        assertEquals(testOrder.getId(), saved.getId());
+        assertEquals(version + 1, saved.getVersion());
+        assertEquals(count, orderRepository.count());
+    }
+
+    @Test
+    void orderStatus_ShouldFollowStateMachine() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.PAID));
+        assertTrue(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.SHIPPED));
+        assertFalse(OrderStatus.CANCELLED.canTransitionTo(OrderStatus.PENDING));
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.order.OrderIntegrationTest;
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.dto.OrderHistoryPageDto;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.entity.ShippingAddress;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.products.entity.ProductReservation;
+import com.ecommerce.products.repository.ArchivedProductReservationRepository;
+import com.ecommerce.products.service.ProductReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+public class OrderArchivalTest extends OrderIntegrationTest {
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductReservationService productReservationService;
+
+    @Autowired
+    private ArchivedProductReservationRepository archivedReservationRepository;
+
+    @Test
+    void archiveClosedOrders_ShouldMoveOrderAndKeepItReadable() {
+        testOrder.setStatus(OrderStatus.DELIVERED);
+        testOrder.setPaymentId("PAY-ARCHIVE");
+        testOrder = orderRepository.save(testOrder);
+        Long orderId = testOrder.getId();
+
+        int archived = orderService.archiveClosedOrders(LocalDateTime.now().plusDays(1), 10);
+
+        assertEquals(1, archived);
+        assertTrue(orderRepository.findById(orderId).isEmpty());
+        assertEquals(0, orderItemRepository.count());
+
+        OrderDto byId = orderService.getOrderById(orderId);
+        assertEquals(testOrder.getOrderNumber(), byId.getOrderNumber());
+        assertEquals(OrderStatus.DELIVERED, byId.getStatus());
+        assertEquals(1, byId.getItems().size());
+        assertEquals(orderId, orderService.getOrderByNumber(testOrder.getOrderNumber()).getId());
+        assertEquals(orderId, orderService.getOrderByPaymentId("PAY-ARCHIVE").getId());
+    }
+
+    @Test
+    void archiveClosedOrders_ShouldKeepOrderInUserListAndHistory() {
+        testOrder.setStatus(OrderStatus.DELIVERED);
+        testOrder = orderRepository.save(testOrder);
+        Long archivedId = testOrder.getId();
+        assertEquals(1, orderService.archiveClosedOrders(LocalDateTime.now().plusDays(1), 10));
+        Long hotId = newOrder().getId();
+
+        List<OrderDto> orders = orderService.getUserOrders(testUser.getId());
+        assertEquals(List.of(archivedId, hotId), orders.stream().map(OrderDto::getId).toList());
+
+        // Курсор переходит из горячих строк в архив
+        OrderHistoryPageDto first = orderService.getUserOrderHistory(testUser.getId(), null, 1);
+        assertEquals(hotId, first.getOrders().get(0).getId());
+        assertEquals(hotId, first.getNextCursor());
+
+        OrderHistoryPageDto second = orderService.getUserOrderHistory(testUser.getId(), first.getNextCursor(), 1);
+        assertEquals(1, second.getOrders().size());
+        assertEquals(archivedId, second.getOrders().get(0).getId());
+        assertEquals(OrderStatus.DELIVERED, second.getOrders().get(0).getStatus());
+        assertEquals(1, second.getOrders().get(0).getItemCount());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void archiveClosedOrders_ShouldSkipOpenAndRecentOrders() {
+        assertEquals(0, orderService.archiveClosedOrders(LocalDateTime.now().plusDays(1), 10));
+
+        testOrder.setStatus(OrderStatus.CANCELLED);
+        orderRepository.save(testOrder);
+        assertEquals(0, orderService.archiveClosedOrders(LocalDateTime.now().minusDays(1), 10));
+        assertNotNull(orderService.getOrderById(testOrder.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderById(-1L));
+    }
+
+    @Test
+    void archiveInactiveReservations_ShouldMoveOnlyInactiveOnes() {
+        archivedReservationRepository.deleteAll();
+        ProductReservation inactive = reservation(false);
+        ProductReservation active = reservation(true);
+
+        int archived = productReservationService.archiveInactiveReservations(LocalDateTime.now().plusMinutes(1), 10);
+
+        assertEquals(1, archived);
+        assertTrue(productReservationRepository.findById(inactive.getId()).isEmpty());
+        assertTrue(productReservationRepository.findById(active.getId()).isPresent());
+        assertEquals(testProduct.getId(), archivedReservationRepository.findById(inactive.getId()).orElseThrow().getProductId());
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUser(testUser);
+        order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8));
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentStatus(testOrder.getPaymentStatus());
+        ShippingAddress address = new ShippingAddress();
+        address.setFirstName("Jane");
+        address.setLastName("Doe");
+        address.setStreet("456 Main St");
+        address.setCity("New York");
+        address.setState("NY");
+        address.setPostalCode("10001");
+        address.setCountry("USA");
+        address.setPhoneNumber("+1234567890");
+        address.setEmail("jane.doe@example.com");
+        order.setShippingAddress(address);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(testProduct);
+        item.setQuantity(1);
+        item.setUnitPrice(testProduct.getPrice());
+        item.setTotalPrice(testProduct.getPrice());
+        order.getItems().add(item);
+        order.setSubtotal(testProduct.getPrice());
+        order.setShippingCost(testOrder.getShippingCost());
+        order.setTax(testOrder.getTax());
+        order.setTotal(testProduct.getPrice());
+        return orderRepository.save(order);
+    }
+
+    private ProductReservation reservation(boolean active) {
+        ProductReservation reservation = new ProductReservation();
+        reservation.setProduct(testProduct);
+        reservation.setUser(testUser);
+        reservation.setQuantity(1);
+        reservation.setReservedAt(LocalDateTime.now());
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        reservation.setActive(active);
+        return productReservationRepository.save(reservation);
+    }
+}
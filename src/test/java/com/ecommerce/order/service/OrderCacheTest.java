@@ -0,0 +1,75 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderDto;
+import com.ecommerce.order.entity.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCacheTest {
+    private final OrderCache cache = new OrderCache(100, Duration.ofMinutes(5));
+
+    @Test
+    void getOrder_ShouldLoadOnceAndIndexAliases() {
+        AtomicInteger loads = new AtomicInteger();
+        OrderDto order = order(1L, PaymentStatus.PENDING);
+
+        cache.getOrder(1L, () -> {
+            loads.incrementAndGet();
+            return order;
+        });
+        cache.getOrder(1L, () -> {
+            loads.incrementAndGet();
+            return order;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(Optional.of(1L), cache.resolveOrderNumber("ORD-1", number -> Optional.empty()));
+        assertEquals(Optional.of(1L), cache.resolvePaymentId("PAY-1", paymentId -> Optional.empty()));
+    }
+
+    @Test
+    void getOrder_ShouldNotCacheValueLoadedBeforeConcurrentEviction() {
+        // Чтение началось до коммита, инвалидация произошла во время загрузки
+        OrderDto stale = cache.getOrder(1L, () -> {
+            cache.evict(1L, 10L);
+            return order(1L, PaymentStatus.PROCESSING);
+        });
+        assertEquals(PaymentStatus.PROCESSING, stale.getPaymentStatus());
+
+        OrderDto fresh = cache.getOrder(1L, () -> order(1L, PaymentStatus.COMPLETED));
+        assertEquals(PaymentStatus.COMPLETED, fresh.getPaymentStatus());
+    }
+
+    @Test
+    void evict_ShouldDropOrderAndOwnerList() {
+        cache.getOrder(1L, () -> order(1L, PaymentStatus.PENDING));
+        cache.getUserOrders(10L, () -> List.of(order(1L, PaymentStatus.PENDING)));
+
+        cache.evict(1L, 10L);
+
+        assertEquals(PaymentStatus.COMPLETED, cache.getOrder(1L, () -> order(1L, PaymentStatus.COMPLETED)).getPaymentStatus());
+        assertEquals(PaymentStatus.COMPLETED, cache.getUserOrders(10L,
+                () -> List.of(order(1L, PaymentStatus.COMPLETED))).get(0).getPaymentStatus());
+    }
+
+    @Test
+    void resolveOrderNumber_ShouldNotCacheMisses() {
+        assertTrue(cache.resolveOrderNumber("ORD-2", number -> Optional.empty()).isEmpty());
+        assertEquals(Optional.of(2L), cache.resolveOrderNumber("ORD-2", number -> Optional.of(2L)));
+    }
+
+    private static OrderDto order(Long id, PaymentStatus paymentStatus) {
+        OrderDto dto = new OrderDto();
+        dto.setId(id);
+        dto.setOrderNumber("ORD-" + id);
+        dto.setPaymentId("PAY-" + id);
+        dto.setPaymentStatus(paymentStatus);
+        return dto;
+    }
+}
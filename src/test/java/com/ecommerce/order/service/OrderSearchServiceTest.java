@@ -0,0 +1,107 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.InvalidCursorException;
+import com.ecommerce.order.OrderIntegrationTest;
+import com.ecommerce.order.dto.OrderSearchCriteria;
+import com.ecommerce.order.dto.OrderSearchPageDto;
+import com.ecommerce.order.dto.OrderSearchRowDto;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.entity.ShippingAddress;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+public class OrderSearchServiceTest extends OrderIntegrationTest {
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Test
+    void search_ShouldPageThroughFilteredOrdersWithoutDuplicates() {
+        for (int i = 0; i < 4; i++) {
+            createOrder("ORD-P" + i, OrderStatus.PROCESSING, PaymentStatus.PROCESSING);
+        }
+        createOrder("ORD-C1", OrderStatus.CANCELLED, PaymentStatus.FAILED);
+
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setPaymentStatus(PaymentStatus.PROCESSING);
+
+        List<OrderSearchRowDto> rows = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderSearchPageDto page = orderSearchService.search(criteria, cursor, 3);
+            rows.addAll(page.getOrders());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(4, rows.size());
+        Set<Long> ids = new HashSet<>();
+        rows.forEach(row -> assertTrue(ids.add(row.getId())));
+        rows.forEach(row -> assertEquals(PaymentStatus.PROCESSING, row.getPaymentStatus()));
+        for (int i = 1; i < rows.size(); i++) {
+            assertFalse(rows.get(i).getCreatedAt().isAfter(rows.get(i - 1).getCreatedAt()));
+        }
+    }
+
+    @Test
+    void search_ShouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class,
+                () -> orderSearchService.search(new OrderSearchCriteria(), "not-a-cursor", 10));
+    }
+
+    @Test
+    void exportCsv_ShouldWriteHeaderAndMatchingRows() throws Exception {
+        createOrder("ORD-X1", OrderStatus.CANCELLED, PaymentStatus.FAILED);
+        OrderSearchCriteria criteria = new OrderSearchCriteria();
+        criteria.setUserId(testUser.getId());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        orderSearchService.exportCsv(criteria, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,orderNumber"));
+        assertTrue(lines[1].contains("ORD-X1"));
+    }
+
+    private void createOrder(String orderNumber, OrderStatus status, PaymentStatus paymentStatus) {
+        Order order = new Order();
+        order.setUser(testUser);
+        order.setOrderNumber(orderNumber);
+        order.setStatus(status);
+        order.setPaymentStatus(paymentStatus);
+        ShippingAddress address = new ShippingAddress();
+        address.setFirstName("John");
+        address.setLastName("Doe");
+        address.setStreet("123 Main St");
+        address.setCity("New York");
+        address.setState("NY");
+        address.setPostalCode("10001");
+        address.setCountry("USA");
+        address.setPhoneNumber("+1234567890");
+        address.setEmail("john.doe@example.com");
+        order.setShippingAddress(address);
+        order.setSubtotal(BigDecimal.TEN);
+        order.setTotal(BigDecimal.TEN);
+        orderRepository.save(order);
+    }
+}
@@ -2,13 +2,14 @@ package com.ecommerce.order.service;
 
 import com.ecommerce.common.exception.OrderStatusException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.common.money.Money;
 import com.ecommerce.order.OrderIntegrationTest;
 import com.ecommerce.order.dto.*;
 import com.ecommerce.order.entity.*;
 import com.ecommerce.order.repository.OrderItemRepository;
 import com.ecommerce.order.repository.OrderRepository;
-import com.ecommerce.products.dto.ProductDto;
-import com.ecommerce.products.dto.UpdateProductDto;
+import com.ecommerce.outbox.entity.OutboxEventType;
+import com.ecommerce.outbox.service.OutboxService;
 import com.ecommerce.products.entity.Product;
 import com.ecommerce.products.service.ProductService;
 import com.ecommerce.products.service.ProductReservationService;
@@ -16,6 +17,7 @@ import com.ecommerce.user.entity.User;
 import com.ecommerce.user.service.UserService;
 import com.ecommerce.payment.dto.PayPalPaymentResponse;
 import com.ecommerce.payment.service.PayPalService;
+import com.ecommerce.pricing.dto.PriceQuote;
 import com.paypal.api.payments.Payment;
 import com.paypal.base.rest.PayPalRESTException;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,10 +32,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -69,6 +73,9 @@ public class OrderServiceTest extends OrderIntegrationTest {
     @MockBean
     private PayPalService payPalService;
 
+    @MockBean
+    private OutboxService outboxService;
+
     private Order testOrder;
     private User testUser;
     private ShippingAddress testShippingAddress;
@@ -179,11 +186,12 @@ public class OrderServiceTest extends OrderIntegrationTest {
         savedOrder.setTotal(BigDecimal.valueOf(100.0));
 
         when(userService.getUserById(userId)).thenReturn(user);
-        when(productService.getProductEntityById(any())).thenReturn(product);
+        when(productReservationService.reserveProducts(user, Map.of(product.getId(), 2)))
+                .thenReturn(Map.of(product.getId(), product));
         when(orderRepository.save(any())).thenReturn(savedOrder);
-        when(calculationService.calculateShippingCost(any())).thenReturn(BigDecimal.ZERO);
-        when(calculationService.calculateTax(any())).thenReturn(BigDecimal.ZERO);
-        when(calculationService.calculateTotal(any(), any(), any())).thenReturn(BigDecimal.valueOf(100.0));
+        when(calculationService.calculate(any(), any(), any(), any()))
+                .thenAnswer(invocation -> new PriceQuote(invocation.getArgument(0), Money.zero(Order.CURRENCY),
+                        Money.zero(Order.CURRENCY), Money.zero(Order.CURRENCY), Money.ofMinor(10000, Order.CURRENCY), null));
 
         // Act
         OrderDto response = orderService.createOrder(userId, request);
@@ -198,10 +206,8 @@ public class OrderServiceTest extends OrderIntegrationTest {
         assertNotNull(response.getShippingAddress());
 
         verify(userService).getUserById(userId);
-        verify(productService).getProductEntityById(product.getId());
-        verify(calculationService).calculateShippingCost(any());
-        verify(calculationService).calculateTax(any());
-        verify(calculationService).calculateTotal(any(), any(), any());
+        verify(productReservationService).reserveProducts(user, Map.of(product.getId(), 2));
+        verify(calculationService).calculate(any(), any(), any(), any());
     }
 
     @Test
@@ -226,7 +232,8 @@ public class OrderServiceTest extends OrderIntegrationTest {
 
     @Test
     void getOrderByNumber_ShouldReturnOrder() {
-        when(orderRepository.findByOrderNumber("ORD-123456")).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findIdByOrderNumber("ORD-123456")).thenReturn(Optional.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
 
         OrderDto result = orderService.getOrderByNumber("ORD-123456");
 
@@ -237,7 +244,7 @@ public class OrderServiceTest extends OrderIntegrationTest {
 
     @Test
     void getOrderByNumber_ShouldThrowException_WhenOrderNotFound() {
-        when(orderRepository.findByOrderNumber("ORD-123456")).thenReturn(Optional.empty());
+        when(orderRepository.findIdByOrderNumber("ORD-123456")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderByNumber("ORD-123456"));
     }
@@ -245,7 +252,8 @@ public class OrderServiceTest extends OrderIntegrationTest {
     @Test
     void getUserOrders_ShouldReturnUserOrders() {
         when(userService.getUserById(1L)).thenReturn(testUser);
-        when(orderRepository.findByUser(testUser)).thenReturn(List.of(testOrder));
+        when(orderRepository.findIdsByUserId(1L)).thenReturn(List.of(1L));
+        when(orderRepository.findAllById(List.of(1L))).thenReturn(List.of(testOrder));
 
         List<OrderDto> result = orderService.getUserOrders(1L);
 
@@ -329,17 +337,18 @@ public class OrderServiceTest extends OrderIntegrationTest {
         request.setShippingAddress(createShippingAddressRequest());
         
         when(userService.getUserById(1L)).thenReturn(testUser);
-        when(productService.getProductEntityById(1L)).thenReturn(testProduct);
-        when(calculationService.calculateShippingCost(any())).thenReturn(BigDecimal.valueOf(10.0));
-        when(calculationService.calculateTax(any())).thenReturn(BigDecimal.valueOf(10.0));
-        when(calculationService.calculateTotal(any(), any(), any())).thenReturn(BigDecimal.valueOf(120.0));
+        when(productReservationService.reserveProducts(testUser, Map.of(1L, 1)))
+                .thenReturn(Map.of(1L, testProduct));
+        when(calculationService.calculate(any(), any(), any(), any()))
+                .thenAnswer(invocation -> new PriceQuote(invocation.getArgument(0), Money.zero(Order.CURRENCY),
+                        Money.ofMinor(1000, Order.CURRENCY), Money.ofMinor(1000, Order.CURRENCY), Money.ofMinor(12000, Order.CURRENCY), null));
         when(orderRepository.save(any())).thenReturn(testOrder);
         
         OrderDto result = orderService.createOrder(1L, request);
         
         assertNotNull(result);
         assertEquals(OrderStatus.PENDING, result.getStatus());
-        verify(productReservationService).reserveProduct(1L, 1L, 1);
+        verify(productReservationService).reserveProducts(testUser, Map.of(1L, 1));
     }
     
     @Test
@@ -349,13 +358,13 @@ public class OrderServiceTest extends OrderIntegrationTest {
         
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
         when(orderRepository.save(any())).thenReturn(testOrder);
-        when(productService.updateProduct(eq(1L), any(UpdateProductDto.class))).thenReturn(new ProductDto());
+        when(productService.decrementStock(1L, 1)).thenReturn(true);
         
         OrderDto result = orderService.updateOrderStatus(1L, updateDto);
         
         assertNotNull(result);
         assertEquals(OrderStatus.CONFIRMED, result.getStatus());
-        verify(productService).updateProduct(eq(1L), any(UpdateProductDto.class));
+        verify(productService).decrementStock(1L, 1);
         verify(productReservationService).releaseReservationsForOrder(testProduct, testUser);
     }
     
@@ -367,12 +376,13 @@ public class OrderServiceTest extends OrderIntegrationTest {
         testProduct.setStockQuantity(0);
         
         when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(productService.decrementStock(1L, 1)).thenReturn(false);
         
         assertThrows(OrderStatusException.class, () ->
             orderService.updateOrderStatus(1L, updateDto)
         );
         
-        verify(productService, never()).updateProduct(any(), any());
+        verify(productService).decrementStock(1L, 1);
         verify(productReservationService, never()).releaseReservationsForOrder(any(), any());
     }
     
@@ -395,8 +405,7 @@ public class OrderServiceTest extends OrderIntegrationTest {
         payment.setId("PAY-123");
         payment.setState("created");
         when(payPalService.createPayment(
-            eq(testOrder.getTotal().doubleValue()),
-            eq("USD"),
+            eq(testOrder.getTotalMoney()),
             eq("paypal"),
             eq("sale"),
             eq("Order #" + testOrder.getOrderNumber()),
@@ -453,6 +462,8 @@ public class OrderServiceTest extends OrderIntegrationTest {
         assertEquals(OrderStatus.CONFIRMED, testOrder.getStatus());
         assertEquals("PAYER-123", testOrder.getPayerId());
         assertNotNull(testOrder.getPaymentDate());
+        verify(outboxService).publish(OutboxEventType.ORDER_PAID, 1L);
+        verify(productService, never()).decrementStock(any(), anyInt());
     }
 
     @Test
@@ -2,11 +2,19 @@ package com.ecommerce.order.service;
 
 import com.ecommerce.common.exception.OrderStatusException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.common.id.SnowflakeIdGenerator;
+import com.ecommerce.common.money.Money;
+import com.ecommerce.common.transaction.RetryingTransactionExecutor;
 import com.ecommerce.order.dto.*;
 import com.ecommerce.order.entity.*;
 import com.ecommerce.order.repository.OrderItemRepository;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderSnapshotRepository;
 import com.ecommerce.products.entity.Product;
+import com.ecommerce.outbox.service.OutboxService;
+import com.ecommerce.payment.service.PayPalService;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.products.service.ProductReservationService;
 import com.ecommerce.products.service.ProductService;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.service.UserService;
@@ -15,12 +23,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,6 +56,39 @@ public class OrderServiceUnitTest {
     @Mock
     private OrderCalculationService calculationService;
     
+    @Mock
+    private ProductReservationService productReservationService;
+    
+    @Mock
+    private PayPalService payPalService;
+    
+    @Mock
+    private RetryingTransactionExecutor retryingExecutor;
+    
+    @Mock
+    private OrderInventoryService orderInventoryService;
+    
+    @Mock
+    private OutboxService outboxService;
+    
+    @Mock
+    private SnowflakeIdGenerator idGenerator;
+    
+    @Mock
+    private OrderSnapshotService orderSnapshotService;
+    
+    @Mock
+    private OrderSnapshotRepository orderSnapshotRepository;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private OrderArchive orderArchive;
+    
+    @Spy
+    private OrderCache orderCache = new OrderCache(100, Duration.ofMinutes(1));
+    
     @InjectMocks
     private OrderService orderService;
     
@@ -53,6 +99,13 @@ public class OrderServiceUnitTest {
     
     @BeforeEach
     void setUp() {
+        lenient().when(retryingExecutor.execute(any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(0).get());
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(retryingExecutor).executeWithoutResult(any());
+
         testUser = new User();
         testUser.setId(1L);
         testUser.setEmail("test@example.com");
@@ -110,9 +163,23 @@ public class OrderServiceUnitTest {
         assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderById(1L));
     }
     
+    @Test
+    void getOrderById_ShouldReadSnapshot_WithoutLoadingOrder() {
+        OrderDto snapshot = new OrderDto();
+        snapshot.setId(1L);
+        snapshot.setOrderNumber("ORD-123456");
+        when(orderSnapshotService.find(1L)).thenReturn(Optional.of(snapshot));
+        
+        OrderDto result = orderService.getOrderById(1L);
+        
+        assertEquals("ORD-123456", result.getOrderNumber());
+        verifyNoInteractions(orderRepository);
+    }
+    
     @Test
     void getOrderByNumber_ShouldReturnOrder() {
-        when(orderRepository.findByOrderNumber("ORD-123456")).thenReturn(Optional.of(testOrder));
+        when(orderRepository.findIdByOrderNumber("ORD-123456")).thenReturn(Optional.of(1L));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
         
         OrderDto result = orderService.getOrderByNumber("ORD-123456");
         
@@ -123,7 +190,7 @@ public class OrderServiceUnitTest {
     
     @Test
     void getOrderByNumber_ShouldThrowException_WhenOrderNotFound() {
-        when(orderRepository.findByOrderNumber("ORD-123456")).thenReturn(Optional.empty());
+        when(orderRepository.findIdByOrderNumber("ORD-123456")).thenReturn(Optional.empty());
         
         assertThrows(ResourceNotFoundException.class, () -> orderService.getOrderByNumber("ORD-123456"));
     }
@@ -131,7 +198,8 @@ public class OrderServiceUnitTest {
     @Test
     void getUserOrders_ShouldReturnUserOrders() {
         when(userService.getUserById(1L)).thenReturn(testUser);
-        when(orderRepository.findByUser(testUser)).thenReturn(List.of(testOrder));
+        when(orderRepository.findIdsByUserId(1L)).thenReturn(List.of(1L));
+        when(orderRepository.findAllById(List.of(1L))).thenReturn(List.of(testOrder));
         
         List<OrderDto> result = orderService.getUserOrders(1L);
         
@@ -166,10 +234,11 @@ public class OrderServiceUnitTest {
         request.setShippingAddress(shippingAddress);
         
         when(userService.getUserById(1L)).thenReturn(testUser);
-        when(productService.getProductEntityById(1L)).thenReturn(testProduct);
-        when(calculationService.calculateShippingCost(any())).thenReturn(BigDecimal.ZERO);
-        when(calculationService.calculateTax(any())).thenReturn(BigDecimal.ZERO);
-        when(calculationService.calculateTotal(any(), any(), any())).thenReturn(BigDecimal.valueOf(100.00));
+        when(idGenerator.nextEncodedId()).thenReturn("0CKQ9Z3E5R000");
+        when(productReservationService.reserveProducts(testUser, Map.of(1L, 1))).thenReturn(Map.of(1L, testProduct));
+        when(calculationService.calculate(any(), any(), any(), any()))
+                .thenAnswer(invocation -> new PriceQuote(invocation.getArgument(0), Money.zero(Order.CURRENCY),
+                        Money.zero(Order.CURRENCY), Money.zero(Order.CURRENCY), Money.ofMinor(10000, Order.CURRENCY), null));
         when(orderRepository.save(any())).thenReturn(testOrder);
         
         OrderDto result = orderService.createOrder(1L, request);
@@ -202,6 +271,29 @@ public class OrderServiceUnitTest {
         assertNotNull(result);
         assertEquals(OrderStatus.PROCESSING, result.getStatus());
         verify(orderRepository).save(any());
+        verify(orderSnapshotService).save(1L, result);
+    }
+
+    @Test
+    void updateOrderStatus_ShouldSnapshotSlimOrderLines() {
+        testProduct.setSku("SKU-1");
+        testProduct.setStockQuantity(5);
+        testProduct.setDescription("Long description");
+        UpdateOrderStatusDto updateDto = new UpdateOrderStatusDto();
+        updateDto.setStatus(OrderStatus.PROCESSING);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.save(any())).thenReturn(testOrder);
+
+        OrderDto result = orderService.updateOrderStatus(1L, updateDto);
+
+        OrderItemDto line = result.getItems().get(0);
+        assertEquals(1L, line.getProduct().getId());
+        assertEquals("Test Product", line.getProduct().getName());
+        assertEquals("SKU-1", line.getProduct().getSku());
+        assertEquals(BigDecimal.valueOf(100.00), line.getUnitPrice());
+        // Остатки и описание в снимок не попадают
+        assertNull(line.getProduct().getStockQuantity());
+        assertNull(line.getProduct().getDescription());
     }
     
     @Test
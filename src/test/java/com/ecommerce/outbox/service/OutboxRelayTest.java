@@ -0,0 +1,111 @@
+package com.ecommerce.outbox.service;
+
+import com.ecommerce.outbox.entity.OutboxEvent;
+import com.ecommerce.outbox.entity.OutboxEventStatus;
+import com.ecommerce.outbox.entity.OutboxEventType;
+import com.ecommerce.outbox.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OutboxEventHandler handler;
+
+    private OutboxRelay outboxRelay;
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(handler.getEventType()).thenReturn(OutboxEventType.ORDER_PAID);
+        outboxRelay = new OutboxRelay(outboxEventRepository, transactionManager, Runnable::run, List.of(handler));
+
+        event = new OutboxEvent();
+        event.setId(1L);
+        event.setEventType(OutboxEventType.ORDER_PAID);
+        event.setAggregateId(42L);
+    }
+
+    @Test
+    void dispatch_ShouldInvokeHandler_WhenEventClaimed() {
+        when(outboxEventRepository.markProcessed(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        outboxRelay.dispatch(1L);
+
+        verify(handler).handle(event);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void dispatch_ShouldSkipHandler_WhenEventAlreadyClaimed() {
+        when(outboxEventRepository.markProcessed(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        outboxRelay.dispatch(1L);
+
+        verify(handler, never()).handle(any());
+    }
+
+    @Test
+    void dispatch_ShouldRecordFailureAndBackOff_WhenHandlerFails() {
+        when(outboxEventRepository.markProcessed(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        doThrow(new IllegalStateException("boom")).when(handler).handle(event);
+
+        outboxRelay.dispatch(1L);
+
+        assertEquals(1, event.getAttempts());
+        assertEquals("boom", event.getLastError());
+        assertEquals(OutboxEventStatus.PENDING, event.getStatus());
+        assertNotNull(event.getAvailableAt());
+        verify(outboxEventRepository).save(event);
+    }
+
+    @Test
+    void dispatch_ShouldMarkFailed_WhenAttemptsExhausted() {
+        event.setAttempts(OutboxRelay.MAX_ATTEMPTS - 1);
+        when(outboxEventRepository.markProcessed(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        doThrow(new IllegalStateException("boom")).when(handler).handle(event);
+
+        outboxRelay.dispatch(1L);
+
+        assertEquals(OutboxEventStatus.FAILED, event.getStatus());
+    }
+
+    @Test
+    void poll_ShouldDrainOnOutboxExecutor() {
+        List<Runnable> submitted = new ArrayList<>();
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, transactionManager, submitted::add, List.of(handler));
+        when(outboxEventRepository.findDispatchableIds(any(LocalDateTime.class), any())).thenReturn(List.of());
+
+        relay.poll();
+
+        verifyNoInteractions(outboxEventRepository);
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+        verify(outboxEventRepository).findDispatchableIds(any(LocalDateTime.class), any());
+    }
+}
@@ -1,8 +1,5 @@
 package com.ecommerce.payment.config;
 
-import com.paypal.base.rest.APIContext;
-import com.paypal.base.rest.OAuthTokenCredential;
-import com.paypal.base.rest.PayPalRESTException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -32,24 +29,4 @@ public class TestPayPalConfig {
         configMap.put("mode", "sandbox");
         return configMap;
     }
-
-    @Bean
-    @Primary
-    public OAuthTokenCredential oAuthTokenCredential() {
-        return new OAuthTokenCredential(
-                "test-client-id",
-                "test-client-secret",
-                paypalSdkConfig()
-        );
-    }
-
-    @Bean
-    @Primary
-    public APIContext apiContext() throws PayPalRESTException {
-        return new APIContext(
-                "test-client-id",
-                "test-client-secret",
-                "sandbox"
-        );
-    }
 } 
\ No newline at end of file
@@ -78,7 +78,7 @@ public class PayPalControllerTest {
 
     @Test
     void createPayment_Success() throws Exception {
-        when(payPalService.createPayment(any(), any(), any(), any(), any(), any(), any()))
+        when(payPalService.createPayment(any(), any(), any(), any(), any(), any()))
                 .thenReturn(mockPayment);
 
         mockMvc.perform(post("/payments/paypal/create")
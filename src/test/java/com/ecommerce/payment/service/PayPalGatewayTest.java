@@ -0,0 +1,36 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.payment.config.PayPalProperties;
+import com.ecommerce.payment.config.PaymentGatewayConfig;
+import com.paypal.base.rest.PayPalRESTException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PayPalGatewayTest {
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void sequentialCallsWithinBulkheadAreNeverRejected() throws PayPalRESTException {
+        PayPalProperties properties = new PayPalProperties();
+        properties.getResilience().setMaxConcurrentCalls(1);
+        executor = new PaymentGatewayConfig().paypalExecutor(properties);
+        executor.initialize();
+        PayPalGateway gateway = new PayPalGateway(executor, properties);
+
+        // Каждый вызов начинается после завершения предыдущего: слот bulkhead свободен,
+        // и пул не должен отклонять задачу, пока рабочий поток возвращается за следующей
+        for (int i = 0; i < 2000; i++) {
+            int expected = i;
+            assertEquals(expected, gateway.call("test", () -> expected));
+        }
+        assertEquals(0, gateway.getActiveCalls());
+    }
+}
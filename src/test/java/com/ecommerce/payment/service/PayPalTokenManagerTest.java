@@ -0,0 +1,139 @@
+package com.ecommerce.payment.service;
+
+import com.paypal.base.rest.PayPalRESTException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayPalTokenManagerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void reusesTokenUntilRefreshWindow() throws PayPalRESTException {
+        PayPalTokenManager manager = manager(() -> token(3600));
+
+        assertEquals("Bearer token-1", manager.getAccessToken());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3000));
+        assertEquals("Bearer token-1", manager.getAccessToken());
+
+        assertEquals(1, fetches.get());
+        assertEquals(1.0, meterRegistry.counter("paypal.oauth.token.cache.hits").count());
+    }
+
+    @Test
+    void scheduledCheckRefreshesTokenBeforeExpiry() throws PayPalRESTException {
+        PayPalTokenManager manager = manager(() -> token(3600));
+        manager.getAccessToken();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3000));
+        manager.refreshIfExpiring();
+        assertEquals(1, fetches.get());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(400));
+        manager.refreshIfExpiring();
+        assertEquals(2, fetches.get());
+        assertEquals("Bearer token-2", manager.getAccessToken());
+    }
+
+    @Test
+    void keepsCurrentTokenWhenEarlyRefreshFails() throws PayPalRESTException {
+        AtomicInteger calls = new AtomicInteger();
+        PayPalTokenManager manager = manager(() -> {
+            if (calls.incrementAndGet() > 1) {
+                throw new PayPalRESTException("unavailable");
+            }
+            return token(3600);
+        });
+        manager.getAccessToken();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3400));
+        assertEquals("Bearer token-1", manager.getAccessToken());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(300));
+        assertThrows(PayPalRESTException.class, manager::getAccessToken);
+        assertEquals(2.0, meterRegistry.counter("paypal.oauth.token.fetches.failed").count());
+    }
+
+    @Test
+    void concurrentCallersShareSingleFetch() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PayPalTokenManager manager = manager(() -> {
+            fetchStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return token(3600);
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(manager::getAccessToken));
+            assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(manager::getAccessToken));
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("Bearer token-1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void callerThatMissedCompletedFetchReusesItsToken() throws PayPalRESTException {
+        AtomicBoolean interleave = new AtomicBoolean(true);
+        AtomicReference<PayPalTokenManager> self = new AtomicReference<>();
+        // Между чтением кэша и захватом обновления успевает целиком пройти чужое обновление
+        PayPalTokenManager manager = new PayPalTokenManager(() -> token(3600), Map.of("mode", "sandbox"),
+                Duration.ofSeconds(300), meterRegistry, () -> {
+                    if (interleave.getAndSet(false)) {
+                        try {
+                            self.get().getAccessToken();
+                        } catch (PayPalRESTException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    return clock.get();
+                });
+        self.set(manager);
+
+        assertEquals("Bearer token-1", manager.getAccessToken());
+        assertEquals(1, fetches.get());
+    }
+
+    private PayPalTokenManager manager(PayPalTokenManager.TokenFetcher fetcher) {
+        return new PayPalTokenManager(fetcher, Map.of("mode", "sandbox"), Duration.ofSeconds(300),
+                meterRegistry, clock::get);
+    }
+
+    private PayPalTokenManager.FetchedToken token(long expiresInSeconds) {
+        return new PayPalTokenManager.FetchedToken("Bearer token-" + fetches.incrementAndGet(), expiresInSeconds);
+    }
+}
@@ -0,0 +1,215 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.order.OrderIntegrationTest;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.order.entity.ShippingAddress;
+import com.ecommerce.order.service.OrderService;
+import com.ecommerce.payment.entity.ReconciliationCheckpoint;
+import com.ecommerce.payment.repository.ReconciliationCheckpointRepository;
+import com.ecommerce.products.entity.ProductReservation;
+import com.paypal.api.payments.Payment;
+import com.paypal.base.rest.PayPalRESTException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+public class PaymentReconciliationJobTest extends OrderIntegrationTest {
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @MockBean
+    private PayPalService payPalService;
+
+    @BeforeEach
+    void setUpCheckpoint() {
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void reconcile_ShouldSettleExpireAndLeaveRecentPayments() {
+        Order approved = processingOrder("PAY-APPROVED");
+        // У тестового заказа есть позиция, резерв по ней должен быть снят
+        testOrder.setPaymentStatus(PaymentStatus.PROCESSING);
+        testOrder.setPaymentId("PAY-ABANDONED");
+        Order abandoned = orderRepository.save(testOrder);
+        Order recent = processingOrder("PAY-RECENT");
+        ProductReservation reservation = activeReservation();
+
+        stubPayment("PAY-APPROVED", "approved", Instant.now());
+        stubPayment("PAY-ABANDONED", "created", Instant.now().minus(4, ChronoUnit.HOURS));
+        stubPayment("PAY-RECENT", "created", Instant.now().minus(10, ChronoUnit.MINUTES));
+
+        PaymentReconciliationJob.Counts counts = job(2).reconcile(Long.MAX_VALUE);
+
+        assertEquals(1, counts.settled);
+        assertEquals(1, counts.expired);
+        assertEquals(1, counts.waiting);
+
+        assertEquals(PaymentStatus.COMPLETED, reload(approved).getPaymentStatus());
+        Order expired = reload(abandoned);
+        assertEquals(PaymentStatus.FAILED, expired.getPaymentStatus());
+        assertEquals(OrderStatus.CANCELLED, expired.getStatus());
+        assertFalse(productReservationRepository.findById(reservation.getId()).orElseThrow().isActive());
+        assertEquals(PaymentStatus.PROCESSING, reload(recent).getPaymentStatus());
+
+        // Проход завершен - позиция сброшена на начало
+        assertEquals(0L, checkpointRepository.findById(PaymentReconciliationJob.CHECKPOINT_NAME)
+                .orElseThrow().getLastOrderId());
+    }
+
+    @Test
+    void reconcile_ShouldResumeFromCheckpointAfterTimeLimit() {
+        Order first = processingOrder("PAY-FIRST");
+        processingOrder("PAY-SECOND");
+        stubPayment("PAY-FIRST", "created", Instant.now());
+        stubPayment("PAY-SECOND", "created", Instant.now());
+        PaymentReconciliationJob job = job(1);
+
+        job.reconcile(System.nanoTime());
+
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(PaymentReconciliationJob.CHECKPOINT_NAME)
+                .orElseThrow();
+        assertEquals(first.getId(), checkpoint.getLastOrderId());
+        verify(payPalService).getPaymentAsync("PAY-FIRST");
+        verify(payPalService, never()).getPaymentAsync("PAY-SECOND");
+
+        job.reconcile(System.nanoTime());
+
+        verify(payPalService, times(1)).getPaymentAsync("PAY-FIRST");
+        verify(payPalService).getPaymentAsync("PAY-SECOND");
+    }
+
+    @Test
+    void reconcile_ShouldKeepOrderWhenLookupFails() {
+        Order order = processingOrder("PAY-DOWN");
+        when(payPalService.getPaymentAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new PayPalRESTException("unavailable")));
+
+        PaymentReconciliationJob.Counts counts = job(10).reconcile(Long.MAX_VALUE);
+
+        assertEquals(1, counts.failed);
+        assertEquals(PaymentStatus.PROCESSING, reload(order).getPaymentStatus());
+    }
+
+    @Test
+    void reconcile_ShouldKeepConcurrencyLimitAfterSynchronousLookupFailure() {
+        processingOrder("PAY-THROW");
+        processingOrder("PAY-SLOW-1");
+        processingOrder("PAY-SLOW-2");
+        processingOrder("PAY-LAST");
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(payPalService.getPaymentAsync("PAY-THROW")).thenThrow(new IllegalStateException("gateway rejected"));
+        for (String paymentId : List.of("PAY-SLOW-1", "PAY-SLOW-2", "PAY-LAST")) {
+            long delayMs = paymentId.equals("PAY-LAST") ? 0 : 200;
+            when(payPalService.getPaymentAsync(paymentId)).thenAnswer(invocation -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return CompletableFuture.supplyAsync(() -> {
+                    inFlight.decrementAndGet();
+                    return payment(paymentId, "created", Instant.now());
+                }, CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+            });
+        }
+
+        PaymentReconciliationJob.Counts counts = job(10).reconcile(Long.MAX_VALUE);
+
+        // Синхронная ошибка не должна освобождать слот дважды: max-concurrency = 2
+        assertEquals(1, counts.failed);
+        assertEquals(3, counts.waiting);
+        assertEquals(2, maxInFlight.get());
+    }
+
+    private PaymentReconciliationJob job(int chunkSize) {
+        // Отрицательный stale-after: в сверку попадают только что созданные заказы
+        return new PaymentReconciliationJob(orderRepository, orderService, payPalService, checkpointRepository,
+                Duration.ofSeconds(-5), Duration.ofHours(3), chunkSize, 2, Duration.ofMinutes(1));
+    }
+
+    private Order processingOrder(String paymentId) {
+        Order order = new Order();
+        order.setUser(testUser);
+        order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8));
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentStatus(PaymentStatus.PROCESSING);
+        order.setPaymentId(paymentId);
+        order.setShippingAddress(shippingAddress());
+        order.setSubtotal(testOrder.getSubtotal());
+        order.setShippingCost(testOrder.getShippingCost());
+        order.setTax(testOrder.getTax());
+        order.setTotal(testOrder.getTotal());
+        return orderRepository.save(order);
+    }
+
+    private static ShippingAddress shippingAddress() {
+        ShippingAddress address = new ShippingAddress();
+        address.setFirstName("John");
+        address.setLastName("Doe");
+        address.setStreet("123 Main St");
+        address.setCity("New York");
+        address.setState("NY");
+        address.setPostalCode("10001");
+        address.setCountry("USA");
+        address.setPhoneNumber("+1234567890");
+        address.setEmail("john.doe@example.com");
+        return address;
+    }
+
+    private ProductReservation activeReservation() {
+        ProductReservation reservation = new ProductReservation();
+        reservation.setProduct(testProduct);
+        reservation.setUser(testUser);
+        reservation.setQuantity(1);
+        reservation.setReservedAt(LocalDateTime.now());
+        reservation.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return productReservationRepository.save(reservation);
+    }
+
+    private void stubPayment(String paymentId, String state, Instant createdAt) {
+        when(payPalService.getPaymentAsync(paymentId))
+                .thenReturn(CompletableFuture.completedFuture(payment(paymentId, state, createdAt)));
+    }
+
+    private static Payment payment(String paymentId, String state, Instant createdAt) {
+        Payment payment = new Payment();
+        payment.setId(paymentId);
+        payment.setState(state);
+        payment.setCreateTime(createdAt.toString());
+        return payment;
+    }
+
+    private Order reload(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow();
+    }
+}
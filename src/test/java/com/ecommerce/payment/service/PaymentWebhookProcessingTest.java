@@ -0,0 +1,178 @@
+package com.ecommerce.payment.service;
+
+import com.ecommerce.common.exception.InvalidWebhookException;
+import com.ecommerce.common.exception.PaymentGatewayUnavailableException;
+import com.ecommerce.order.OrderIntegrationTest;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderStatus;
+import com.ecommerce.order.entity.PaymentStatus;
+import com.ecommerce.payment.dto.PendingWebhookView;
+import com.ecommerce.payment.entity.PaymentWebhookEvent;
+import com.ecommerce.payment.entity.PaymentWebhookStatus;
+import com.ecommerce.payment.repository.PaymentWebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+public class PaymentWebhookProcessingTest extends OrderIntegrationTest {
+    @Autowired
+    private PaymentWebhookIngestor ingestor;
+
+    @Autowired
+    private PaymentWebhookEventRepository eventRepository;
+
+    @MockBean
+    private PayPalWebhookVerifier verifier;
+
+    @BeforeEach
+    void setUpPayment() {
+        eventRepository.deleteAll();
+        testOrder.setPaymentId("PAY-WEBHOOK");
+        testOrder.setPaymentStatus(PaymentStatus.PROCESSING);
+        testOrder = orderRepository.save(testOrder);
+    }
+
+    @Test
+    void saleCompleted_ShouldConfirmOrderOnceForDuplicateDeliveries() throws Exception {
+        when(verifier.verify(anyMap(), anyString())).thenReturn(true);
+        String payload = saleEvent("WH-1", "PAYMENT.SALE.COMPLETED");
+
+        assertTrue(ingestor.ingest(signatureHeaders(), payload));
+        assertFalse(ingestor.ingest(signatureHeaders(), payload));
+
+        PaymentWebhookEvent event = awaitCompletion("WH-1");
+        assertEquals(PaymentWebhookStatus.PROCESSED, event.getStatus());
+        assertEquals("PAY-WEBHOOK", event.getPartitionKey());
+        assertEquals(1, eventRepository.count());
+
+        Order order = orderRepository.findById(testOrder.getId()).orElseThrow();
+        assertEquals(PaymentStatus.COMPLETED, order.getPaymentStatus());
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+    }
+
+    @Test
+    void eventsOfOnePayment_ShouldApplyInArrivalOrder() throws Exception {
+        when(verifier.verify(anyMap(), anyString())).thenReturn(true);
+
+        ingestor.ingest(signatureHeaders(), saleEvent("WH-2", "PAYMENT.SALE.DENIED"));
+        ingestor.ingest(signatureHeaders(), saleEvent("WH-3", "PAYMENT.SALE.COMPLETED"));
+
+        awaitCompletion("WH-2");
+        awaitCompletion("WH-3");
+        Order order = orderRepository.findById(testOrder.getId()).orElseThrow();
+        assertEquals(PaymentStatus.COMPLETED, order.getPaymentStatus());
+    }
+
+    @Test
+    void invalidSignature_ShouldRejectEventWithoutTouchingOrder() throws Exception {
+        when(verifier.verify(anyMap(), anyString())).thenReturn(false);
+
+        ingestor.ingest(signatureHeaders(), saleEvent("WH-4", "PAYMENT.SALE.COMPLETED"));
+
+        assertEquals(PaymentWebhookStatus.REJECTED, awaitCompletion("WH-4").getStatus());
+        assertEquals(PaymentStatus.PROCESSING,
+                orderRepository.findById(testOrder.getId()).orElseThrow().getPaymentStatus());
+    }
+
+    @Test
+    void missingSignatureHeaders_ShouldBeRefusedAtIngestion() {
+        assertThrows(InvalidWebhookException.class,
+                () -> ingestor.ingest(new HttpHeaders(), saleEvent("WH-5", "PAYMENT.SALE.COMPLETED")));
+        assertEquals(0, eventRepository.count());
+    }
+
+    @Test
+    void unavailableGateway_ShouldDeferEventWithoutSpendingAttempts() throws Exception {
+        when(verifier.verify(anyMap(), anyString()))
+                .thenThrow(new PaymentGatewayUnavailableException("PayPal circuit breaker is open"));
+
+        ingestor.ingest(signatureHeaders(), saleEvent("WH-6", "PAYMENT.SALE.COMPLETED"));
+
+        PaymentWebhookEvent event = awaitDeferral("WH-6");
+        assertEquals(PaymentWebhookStatus.PENDING, event.getStatus());
+        assertEquals(0, event.getAttempts());
+        assertTrue(event.getAvailableAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void findDispatchable_ShouldSkipBackedOffPaymentsButKeepOthers() {
+        LocalDateTime now = LocalDateTime.now();
+        PaymentWebhookEvent backedOff = storedEvent("WH-7", "PAY-A", now.plusMinutes(10));
+        storedEvent("WH-8", "PAY-A", now.minusSeconds(1));
+        PaymentWebhookEvent other = storedEvent("WH-9", "PAY-B", now.minusSeconds(1));
+
+        List<PendingWebhookView> dispatchable = eventRepository.findDispatchable(now, PageRequest.of(0, 1));
+
+        // Отложенное событие PAY-A держит свой платеж, но не занимает единственное место в выборке
+        assertEquals(1, dispatchable.size());
+        assertEquals(other.getId(), dispatchable.get(0).id());
+        assertNotEquals(backedOff.getId(), dispatchable.get(0).id());
+    }
+
+    private PaymentWebhookEvent awaitDeferral(String eventId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            for (PaymentWebhookEvent event : eventRepository.findAll()) {
+                if (event.getEventId().equals(eventId) && event.getLastError() != null) {
+                    return event;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Webhook " + eventId + " was not deferred");
+    }
+
+    private PaymentWebhookEvent storedEvent(String eventId, String partitionKey, LocalDateTime availableAt) {
+        PaymentWebhookEvent event = new PaymentWebhookEvent();
+        event.setEventId(eventId);
+        event.setEventType("PAYMENT.SALE.COMPLETED");
+        event.setPartitionKey(partitionKey);
+        event.setPayload("{}");
+        event.setHeaders("{}");
+        event.setAvailableAt(availableAt);
+        return eventRepository.save(event);
+    }
+
+    private PaymentWebhookEvent awaitCompletion(String eventId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<PaymentWebhookEvent> events = eventRepository.findAll();
+            for (PaymentWebhookEvent event : events) {
+                if (event.getEventId().equals(eventId) && event.getStatus() != PaymentWebhookStatus.PENDING) {
+                    return event;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Webhook " + eventId + " was not processed");
+    }
+
+    private static HttpHeaders signatureHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        PaymentWebhookIngestor.SIGNATURE_HEADERS.forEach(name -> headers.add(name, "value"));
+        return headers;
+    }
+
+    private static String saleEvent(String eventId, String eventType) {
+        return "{\"id\":\"" + eventId + "\",\"event_type\":\"" + eventType + "\","
+                + "\"resource\":{\"id\":\"SALE-1\",\"parent_payment\":\"PAY-WEBHOOK\",\"state\":\"completed\"}}";
+    }
+}
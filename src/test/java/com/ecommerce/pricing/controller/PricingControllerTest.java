@@ -0,0 +1,54 @@
+package com.ecommerce.pricing.controller;
+
+import com.ecommerce.pricing.service.PricingEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+class PricingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PricingEngine pricingEngine;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reloadRules_ShouldRecompileRules_WhenAdmin() throws Exception {
+        when(pricingEngine.reload()).thenReturn(3);
+
+        mockMvc.perform(post("/pricing/rules/reload"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rules").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void reloadRules_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(post("/pricing/rules/reload"))
+                .andExpect(status().isForbidden());
+
+        verify(pricingEngine, never()).reload();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.pricing.service;
+
+import com.ecommerce.common.money.Money;
+import com.ecommerce.pricing.dto.PriceQuote;
+import com.ecommerce.pricing.dto.PricingRequest;
+import com.ecommerce.pricing.entity.PricingRule;
+import com.ecommerce.pricing.entity.PricingRuleType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledPricingRulesTest {
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    void defaultRules_ShouldKeepFlatShippingAndTenPercentTax() {
+        CompiledPricingRules rules = CompiledPricingRules.compile(PricingEngine.defaultRules(), USD);
+
+        PriceQuote small = rules.evaluate(request(3335, "US", "CA", "94105", null, null));
+        assertEquals(Money.ofMinor(1000, USD), small.getShippingCost());
+        assertEquals(Money.ofMinor(334, USD), small.getTax());
+        assertEquals(Money.ofMinor(3335 + 1000 + 334, USD), small.getTotal());
+
+        PriceQuote large = rules.evaluate(request(10001, "US", "CA", "94105", null, null));
+        assertTrue(large.getShippingCost().isZero());
+    }
+
+    @Test
+    void taxRate_ShouldPreferLongestPostalPrefixThenStateThenCountry() {
+        List<PricingRule> rules = new ArrayList<>();
+        rules.add(tax(null, null, null, "0.05"));
+        rules.add(tax("US", null, null, "0.06"));
+        rules.add(tax("US", "CA", null, "0.0725"));
+        rules.add(tax("US", "CA", "941", "0.08625"));
+        rules.add(tax("US", "CA", "94105", "0.09"));
+        CompiledPricingRules compiled = CompiledPricingRules.compile(rules, USD);
+
+        assertEquals(new BigDecimal("0.09"), compiled.taxRate("us", "ca", "94105-1234"));
+        assertEquals(new BigDecimal("0.08625"), compiled.taxRate("US", "CA", "94110"));
+        assertEquals(new BigDecimal("0.0725"), compiled.taxRate("US", "CA", "90001"));
+        assertEquals(new BigDecimal("0.06"), compiled.taxRate("US", "NY", "10001"));
+        assertEquals(new BigDecimal("0.05"), compiled.taxRate("DE", null, "10115"));
+    }
+
+    @Test
+    void evaluate_ShouldApplyPromoCodeInsteadOfTier() {
+        List<PricingRule> rules = new ArrayList<>(PricingEngine.defaultRules());
+        PricingRule tier = new PricingRule();
+        tier.setType(PricingRuleType.TIERED_DISCOUNT);
+        tier.setMinSubtotal(new BigDecimal("50.00"));
+        tier.setRate(new BigDecimal("0.05"));
+        rules.add(tier);
+        PricingRule promo = new PricingRule();
+        promo.setType(PricingRuleType.PROMO_CODE);
+        promo.setPromoCode("save20");
+        promo.setAmount(new BigDecimal("20.00"));
+        promo.setMinSubtotal(new BigDecimal("60.00"));
+        rules.add(promo);
+        CompiledPricingRules compiled = CompiledPricingRules.compile(rules, USD);
+
+        PriceQuote tiered = compiled.evaluate(request(8000, "US", null, null, null, null));
+        assertEquals(Money.ofMinor(400, USD), tiered.getDiscount());
+        assertNull(tiered.getAppliedPromoCode());
+
+        PriceQuote promoted = compiled.evaluate(request(8000, "US", null, null, " SAVE20 ", null));
+        assertEquals(Money.ofMinor(2000, USD), promoted.getDiscount());
+        assertEquals("SAVE20", promoted.getAppliedPromoCode());
+        assertEquals(Money.ofMinor(600, USD), promoted.getTax());
+
+        PriceQuote belowMinimum = compiled.evaluate(request(5500, "US", null, null, "SAVE20", null));
+        assertNull(belowMinimum.getAppliedPromoCode());
+        assertEquals(Money.ofMinor(275, USD), belowMinimum.getDiscount());
+    }
+
+    @Test
+    void evaluate_ShouldUseCarrierTiersWithDefaultFallback() {
+        List<PricingRule> rules = new ArrayList<>(PricingEngine.defaultRules());
+        rules.add(shipping("UPS", "0", "15.00"));
+        rules.add(shipping("UPS", "200.00", "5.00"));
+        CompiledPricingRules compiled = CompiledPricingRules.compile(rules, USD);
+
+        assertEquals(Money.ofMinor(1500, USD), compiled.evaluate(request(15000, "US", null, null, null, "ups")).getShippingCost());
+        assertEquals(Money.ofMinor(500, USD), compiled.evaluate(request(25000, "US", null, null, null, "UPS")).getShippingCost());
+        assertTrue(compiled.evaluate(request(15000, "US", null, null, null, "DHL")).getShippingCost().isZero());
+    }
+
+    @Test
+    void compile_ShouldRejectInvalidOrDuplicateRules() {
+        assertThrows(IllegalStateException.class,
+                () -> CompiledPricingRules.compile(List.of(tax("US", null, null, "1.5")), USD));
+        assertThrows(IllegalStateException.class,
+                () -> CompiledPricingRules.compile(List.of(tax("US", "CA", null, "0.07"), tax("us", "ca", null, "0.08")), USD));
+    }
+
+    private static PricingRequest request(long subtotalMinor, String country, String state, String postalCode,
+                                          String promoCode, String carrier) {
+        PricingRequest request = new PricingRequest();
+        request.setSubtotal(Money.ofMinor(subtotalMinor, USD));
+        request.setCountry(country);
+        request.setState(state);
+        request.setPostalCode(postalCode);
+        request.setPromoCode(promoCode);
+        request.setCarrier(carrier);
+        return request;
+    }
+
+    private static PricingRule tax(String country, String state, String postalPrefix, String rate) {
+        PricingRule rule = new PricingRule();
+        rule.setType(PricingRuleType.TAX);
+        rule.setCountry(country);
+        rule.setState(state);
+        rule.setPostalPrefix(postalPrefix);
+        rule.setRate(new BigDecimal(rate));
+        return rule;
+    }
+
+    private static PricingRule shipping(String carrier, String minSubtotal, String amount) {
+        PricingRule rule = new PricingRule();
+        rule.setType(PricingRuleType.SHIPPING);
+        rule.setCarrier(carrier);
+        rule.setMinSubtotal(new BigDecimal(minSubtotal));
+        rule.setAmount(new BigDecimal(amount));
+        return rule;
+    }
+}
@@ -4,6 +4,7 @@ import com.ecommerce.common.exception.InsufficientStockException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
 import com.ecommerce.products.entity.Product;
 import com.ecommerce.products.entity.ProductReservation;
+import com.ecommerce.products.repository.ProductRepository;
 import com.ecommerce.products.repository.ProductReservationRepository;
 import com.ecommerce.user.entity.User;
 import com.ecommerce.user.service.UserService;
@@ -17,10 +18,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +32,9 @@ class ProductReservationServiceTest {
     @Mock
     private ProductReservationRepository productReservationRepository;
     
+    @Mock
+    private ProductRepository productRepository;
+    
     @Mock
     private ProductService productService;
     
@@ -95,6 +102,56 @@ class ProductReservationServiceTest {
         verify(productReservationRepository, never()).save(any(ProductReservation.class));
     }
     
+    @Test
+    void reserveProducts_ShouldReserveAllItemsInOneBatch() {
+        Product secondProduct = new Product();
+        secondProduct.setId(2L);
+        secondProduct.setName("Second Product");
+        secondProduct.setStockQuantity(5);
+        
+        when(productRepository.findAllForReservation(Set.of(1L, 2L)))
+            .thenReturn(List.of(new Object[]{testProduct, 2L}, new Object[]{secondProduct, 0L}));
+        
+        Map<Long, Product> result = productReservationService.reserveProducts(testUser, Map.of(2L, 5, 1L, 8));
+        
+        assertEquals(List.of(1L, 2L), List.copyOf(result.keySet()));
+        verify(productReservationRepository).batchInsert(argThat(reservations ->
+            reservations.size() == 2
+                && reservations.get(0).getProduct() == testProduct
+                && reservations.get(0).getQuantity() == 8
+                && reservations.get(1).getQuantity() == 5));
+        verifyNoInteractions(productService, userService);
+    }
+    
+    @Test
+    void reserveProducts_ShouldReserveNothing_WhenAnyItemIsShort() {
+        Product secondProduct = new Product();
+        secondProduct.setId(2L);
+        secondProduct.setName("Second Product");
+        secondProduct.setStockQuantity(1);
+        
+        when(productRepository.findAllForReservation(Set.of(1L, 2L)))
+            .thenReturn(List.of(new Object[]{testProduct, 0L}, new Object[]{secondProduct, 0L}));
+        
+        assertThrows(InsufficientStockException.class, () ->
+            productReservationService.reserveProducts(testUser, Map.of(1L, 1, 2L, 2))
+        );
+        
+        verify(productReservationRepository, never()).batchInsert(anyList());
+    }
+    
+    @Test
+    void reserveProducts_ShouldThrowException_WhenProductNotFound() {
+        when(productRepository.findAllForReservation(Set.of(1L, 3L)))
+            .thenReturn(List.<Object[]>of(new Object[]{testProduct, 0L}));
+        
+        assertThrows(ResourceNotFoundException.class, () ->
+            productReservationService.reserveProducts(testUser, Map.of(1L, 1, 3L, 1))
+        );
+        
+        verify(productReservationRepository, never()).batchInsert(anyList());
+    }
+    
     @Test
     void releaseReservation_ShouldDeactivateReservation() {
         when(productReservationRepository.findById(1L)).thenReturn(Optional.of(testReservation));
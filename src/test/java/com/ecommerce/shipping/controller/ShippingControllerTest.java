@@ -3,6 +3,7 @@ package com.ecommerce.shipping.controller;
 import com.ecommerce.shipping.dto.*;
 import com.ecommerce.shipping.exception.ShippingInfoNotFoundException;
 import com.ecommerce.shipping.model.ShippingStatus;
+import com.ecommerce.shipping.service.ShippingLabelBatchService;
 import com.ecommerce.shipping.service.ShippingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,17 +11,28 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,6 +55,12 @@ class ShippingControllerTest {
     @MockBean
     private ShippingService shippingService;
 
+    @MockBean
+    private ShippingLabelBatchService shippingLabelBatchService;
+
+    @SpyBean(name = "shippingLabelBatchExecutor")
+    private ThreadPoolTaskExecutor shippingLabelBatchExecutor;
+
     @Test
     @WithMockUser
     void calculateShippingRates_ShouldReturnRates() throws Exception {
@@ -196,4 +214,72 @@ class ShippingControllerTest {
                 .andExpect(jsonPath("$.status").value(404))
                 .andExpect(jsonPath("$.message").value("Shipping info not found for order: order_123"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void generateShippingLabels_WithoutItems_ShouldReturnBadRequest() throws Exception {
+        BulkLabelRequest request = new BulkLabelRequest();
+        request.setItems(List.of());
+
+        mockMvc.perform(post("/shipping/labels/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void generateShippingLabels_WhenNotAdminOrWarehouse_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/shipping/labels/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest())))
+                .andExpect(status().isForbidden());
+
+        verify(shippingLabelBatchService, never()).generateLabels(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void generateShippingLabels_WhenAllBatchSlotsBusy_ShouldReturnServiceUnavailable() throws Exception {
+        doThrow(new TaskRejectedException("Batch executor is saturated"))
+                .when(shippingLabelBatchExecutor).execute(any(Runnable.class));
+
+        mockMvc.perform(post("/shipping/labels/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest())))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        verify(shippingLabelBatchService, never()).generateLabels(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "WAREHOUSE")
+    void generateShippingLabels_ShouldStreamProgressWithExplicitTimeout() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<BulkLabelItemResultDto>>getArgument(1).accept(new BulkLabelItemResultDto(
+                    "order-1", BulkLabelOutcome.CREATED, "txn-1", "TRK-1", null, 1, null, 1, 1));
+            return null;
+        }).when(shippingLabelBatchService).generateLabels(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/shipping/labels/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Стандартные 30 с асинхронного запроса обрывали бы поток посреди пакета
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertEquals("order-1", objectMapper.readTree(result.getResponse().getContentAsString().trim())
+                .get("orderId").asText());
+    }
+
+    private static BulkLabelRequest batchRequest() {
+        BulkLabelRequest request = new BulkLabelRequest();
+        request.setItems(List.of(new BulkLabelItem("order-1", "rate-1")));
+        return request;
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecommerce.shipping.service;
+
+import com.ecommerce.shipping.dto.BulkLabelItem;
+import com.ecommerce.shipping.dto.BulkLabelItemResultDto;
+import com.ecommerce.shipping.dto.BulkLabelOutcome;
+import com.ecommerce.shipping.dto.BulkLabelRequest;
+import com.ecommerce.shipping.dto.ShippingLabelRequestDto;
+import com.ecommerce.shipping.dto.ShippingLabelResponseDto;
+import com.ecommerce.shipping.exception.ShippoApiException;
+import com.ecommerce.shipping.model.ShippingInfo;
+import com.ecommerce.shipping.model.ShippingStatus;
+import com.ecommerce.shipping.repository.ShippingInfoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+class ShippingLabelBatchServiceTest {
+    @Autowired
+    private ShippingInfoRepository shippingInfoRepository;
+
+    @Autowired
+    @Qualifier("shippingLabelExecutor")
+    private TaskExecutor shippingLabelExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ShippoService shippoService = mock(ShippoService.class);
+    private final List<BulkLabelItemResultDto> progress = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        shippingInfoRepository.deleteAll();
+    }
+
+    @Test
+    void generateLabels_ShouldBuyAndStoreLabelsForWholeBatch() throws Exception {
+        when(shippoService.generateShippingLabel(any())).thenAnswer(invocation ->
+                label(invocation.<ShippingLabelRequestDto>getArgument(0).getOrderId()));
+        List<BulkLabelItem> items = IntStream.rangeClosed(1, 25)
+                .mapToObj(i -> new BulkLabelItem("order-" + i, "rate-" + i))
+                .toList();
+
+        service(4).generateLabels(request(items), progress::add);
+
+        assertEquals(25, progress.size());
+        assertTrue(progress.stream().allMatch(result -> result.getOutcome() == BulkLabelOutcome.CREATED));
+        assertEquals(25, progress.get(24).getCompleted());
+        assertEquals(25, progress.get(24).getTotal());
+        assertEquals(25, shippingInfoRepository.count());
+        ShippingInfo stored = shippingInfoRepository.findByOrderId("order-7").orElseThrow();
+        assertEquals("rate-7", stored.getShippoRateId());
+        assertEquals("txn-order-7", stored.getShippoTransactionId());
+        assertEquals(ShippingStatus.LABEL_CREATED, stored.getStatus());
+    }
+
+    @Test
+    void generateLabels_ShouldRetryOnlyWhenShippoRejectedThePurchase() throws Exception {
+        when(shippoService.generateShippingLabel(argThat(forOrder("throttled"))))
+                .thenThrow(new ShippoApiException("Failed to generate shipping label: 429", 429))
+                .thenAnswer(invocation -> label("throttled"));
+        when(shippoService.generateShippingLabel(argThat(forOrder("timed-out"))))
+                .thenThrow(new SocketTimeoutException("timeout"));
+        when(shippoService.generateShippingLabel(argThat(forOrder("bad-rate"))))
+                .thenThrow(new ShippoApiException("Failed to generate shipping label: 400", 400));
+
+        service(2).generateLabels(request(List.of(
+                new BulkLabelItem("throttled", "rate-1"),
+                new BulkLabelItem("timed-out", "rate-2"),
+                new BulkLabelItem("bad-rate", "rate-3"))), progress::add);
+
+        Map<String, BulkLabelItemResultDto> results = byOrder();
+        assertEquals(BulkLabelOutcome.CREATED, results.get("throttled").getOutcome());
+        assertEquals(2, results.get("throttled").getAttempts());
+        assertEquals(BulkLabelOutcome.FAILED, results.get("timed-out").getOutcome());
+        assertEquals(1, results.get("timed-out").getAttempts());
+        assertEquals(BulkLabelOutcome.FAILED, results.get("bad-rate").getOutcome());
+        assertEquals(1, shippingInfoRepository.count());
+    }
+
+    @Test
+    void generateLabels_ShouldSkipOrdersWithShippingInfoAndDuplicates() throws Exception {
+        ShippingInfo existing = new ShippingInfo();
+        existing.setOrderId("labelled");
+        existing.setStatus(ShippingStatus.LABEL_CREATED);
+        shippingInfoRepository.save(existing);
+        when(shippoService.generateShippingLabel(any())).thenAnswer(invocation ->
+                label(invocation.<ShippingLabelRequestDto>getArgument(0).getOrderId()));
+
+        service(2).generateLabels(request(List.of(
+                new BulkLabelItem("labelled", "rate-1"),
+                new BulkLabelItem("fresh", "rate-2"),
+                new BulkLabelItem("fresh", "rate-3"))), progress::add);
+
+        assertEquals(2, progress.size());
+        assertEquals(BulkLabelOutcome.ALREADY_EXISTS, byOrder().get("labelled").getOutcome());
+        assertEquals(BulkLabelOutcome.CREATED, byOrder().get("fresh").getOutcome());
+        verify(shippoService, times(1)).generateShippingLabel(any());
+    }
+
+    @Test
+    void generateLabels_ShouldStoreLabelsWhenProgressListenerFails() throws Exception {
+        when(shippoService.generateShippingLabel(any())).thenAnswer(invocation ->
+                label(invocation.<ShippingLabelRequestDto>getArgument(0).getOrderId()));
+
+        service(2).generateLabels(request(List.of(
+                new BulkLabelItem("order-a", "rate-1"),
+                new BulkLabelItem("order-b", "rate-2"))), result -> {
+            throw new IllegalStateException("client disconnected");
+        });
+
+        assertEquals(2, shippingInfoRepository.count());
+    }
+
+    private ShippingLabelBatchService service(int maxConcurrency) {
+        return new ShippingLabelBatchService(shippoService, shippingInfoRepository, shippingLabelExecutor,
+                transactionManager, 1000, maxConcurrency, 3, Duration.ofMillis(1), Duration.ofMillis(5), 10);
+    }
+
+    private Map<String, BulkLabelItemResultDto> byOrder() {
+        return progress.stream().collect(Collectors.toMap(BulkLabelItemResultDto::getOrderId, Function.identity()));
+    }
+
+    private static ArgumentMatcher<ShippingLabelRequestDto> forOrder(String orderId) {
+        return labelRequest -> labelRequest != null && orderId.equals(labelRequest.getOrderId());
+    }
+
+    private static BulkLabelRequest request(List<BulkLabelItem> items) {
+        BulkLabelRequest request = new BulkLabelRequest();
+        request.setItems(items);
+        request.setLabelFormat("PDF");
+        request.setLabelSize("4x6");
+        return request;
+    }
+
+    private static ShippingLabelResponseDto label(String orderId) {
+        ShippingLabelResponseDto label = new ShippingLabelResponseDto();
+        label.setObjectId("txn-" + orderId);
+        label.setStatus("SUCCESS");
+        label.setTrackingNumber("TRK-" + orderId);
+        label.setLabelUrl("https://labels.example.com/" + orderId + ".pdf");
+        return label;
+    }
+}
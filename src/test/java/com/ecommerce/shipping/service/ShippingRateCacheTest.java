@@ -0,0 +1,155 @@
+package com.ecommerce.shipping.service;
+
+import com.ecommerce.shipping.dto.ShippingRateRequestDto;
+import com.ecommerce.shipping.dto.ShippingRateResponseDto;
+import com.ecommerce.shipping.dto.ShippoAddressDto;
+import com.ecommerce.shipping.dto.ShippoParcelDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShippingRateCacheTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShippingRateCache cache = new ShippingRateCache(meterRegistry, Duration.ofMinutes(15), 1000, 0.5);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void equivalentRequestsShareOneQuote() throws IOException {
+        ShippingRateRequestDto first = request(" 123 Main St ", "10001", 1.2);
+        ShippingRateRequestDto second = request("123 MAIN   ST", "10001-1234", 1.4);
+
+        ShippingRateResponseDto quote = cache.get(first, this::load);
+
+        assertSame(quote, cache.get(second, this::load));
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("shipping.rate.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void loaderReceivesBucketedParcel() throws IOException {
+        List<ShippingRateRequestDto> seen = new ArrayList<>();
+        cache.get(request("123 Main St", "10001", 1.2), normalized -> {
+            seen.add(normalized);
+            return load(normalized);
+        });
+
+        ShippoParcelDto parcel = seen.get(0).getParcels().get(0);
+        assertEquals(1.5, parcel.getWeight());
+        assertEquals(11.0, parcel.getLength());
+        assertEquals("10001", seen.get(0).getAddressTo().getZip());
+    }
+
+    @Test
+    void differentDestinationsAreQuotedSeparately() throws IOException {
+        cache.get(request("123 Main St", "10001", 1.0), this::load);
+        cache.get(request("500 Broadway", "10012", 1.0), this::load);
+        cache.get(request("123 Main St", "10001", 2.0), this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void errorsAreNotCached() throws IOException {
+        ShippingRateResponseDto failed = new ShippingRateResponseDto();
+        failed.setError("Address is invalid");
+        cache.get(request("123 Main St", "10001", 1.0), normalized -> {
+            loads.incrementAndGet();
+            return failed;
+        });
+        assertThrows(IOException.class, () -> cache.get(request("123 Main St", "10001", 1.0), normalized -> {
+            throw new IOException("Shippo unavailable");
+        }));
+
+        cache.get(request("123 Main St", "10001", 1.0), this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ShippingRateCache.RateLoader slowLoader = normalized -> {
+            loadStarted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load(normalized);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ShippingRateResponseDto>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get(request("123 Main St", "10001", 1.0), slowLoader)));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> cache.get(request("123 Main St", "10001", 1.0), slowLoader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            ShippingRateResponseDto expected = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ShippingRateResponseDto> result : results) {
+                assertSame(expected, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    private ShippingRateResponseDto load(ShippingRateRequestDto normalized) {
+        loads.incrementAndGet();
+        ShippingRateResponseDto.ShippingRateDto rate = new ShippingRateResponseDto.ShippingRateDto();
+        rate.setObjectId("rate-" + loads.get());
+        rate.setAmount("10.00");
+        ShippingRateResponseDto response = new ShippingRateResponseDto();
+        response.setRates(List.of(rate));
+        return response;
+    }
+
+    private static ShippingRateRequestDto request(String street, String zip, double weight) {
+        ShippoAddressDto from = new ShippoAddressDto();
+        from.setName("Warehouse");
+        from.setStreet1("1 Depot Rd");
+        from.setCity("Newark");
+        from.setState("NJ");
+        from.setZip("07102");
+        from.setCountry("US");
+
+        ShippoAddressDto to = new ShippoAddressDto();
+        to.setName("John Doe");
+        to.setStreet1(street);
+        to.setCity("New York");
+        to.setState("NY");
+        to.setZip(zip);
+        to.setCountry("US");
+
+        ShippoParcelDto parcel = new ShippoParcelDto();
+        parcel.setLength(10.4);
+        parcel.setWidth(8);
+        parcel.setHeight(4);
+        parcel.setDistanceUnit("in");
+        parcel.setWeight(weight);
+        parcel.setMassUnit("lb");
+
+        ShippingRateRequestDto request = new ShippingRateRequestDto();
+        request.setAddressFrom(from);
+        request.setAddressTo(to);
+        request.setParcels(List.of(parcel));
+        return request;
+    }
+}
@@ -11,7 +11,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -55,6 +58,7 @@ class ShippoServiceTest {
         shippoService = new ShippoService(objectMapper, httpClient, shippoProperties);
         when(shippoProperties.getApi()).thenReturn(api);
         when(api.getKey()).thenReturn("test_key");
+        when(api.getBaseUrl()).thenReturn("https://api.goshippo.com");
 
         // Настройка тестовых данных
         addressDto = new ShippoAddressDto();
@@ -96,9 +100,9 @@ class ShippoServiceTest {
         String successResponse = "{\"objectId\":\"addr123\",\"status\":\"SUCCESS\"}";
         when(response.isSuccessful()).thenReturn(true);
         when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn(successResponse);
+        when(responseBody.byteStream()).thenReturn(stream(successResponse));
         when(httpClient.newCall(any())).thenReturn(call);
-        when(call.execute()).thenReturn(response);
+        respondWith(response);
 
         // Выполнение
         ShippoResponseDto result = shippoService.createAddress(addressDto);
@@ -113,13 +117,14 @@ class ShippoServiceTest {
     void createAddress_WhenFailed_ShouldThrowException() throws IOException {
         // Подготовка
         when(response.isSuccessful()).thenReturn(false);
-        when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn("Error");
+        when(response.code()).thenReturn(400);
         when(httpClient.newCall(any())).thenReturn(call);
-        when(call.execute()).thenReturn(response);
+        respondWith(response);
 
         // Проверка
         assertThrows(IOException.class, () -> shippoService.createAddress(addressDto));
+        // Тело ошибки логирует только OutboundCallInterceptor, с обрезкой
+        verify(response, never()).body();
     }
 
     @Test
@@ -130,11 +135,11 @@ class ShippoServiceTest {
         
         when(response.isSuccessful()).thenReturn(true);
         when(response.body()).thenReturn(responseBody);
-        when(responseBody.string())
-            .thenReturn(shipmentResponse)
-            .thenReturn(ratesResponse);
+        when(responseBody.byteStream())
+            .thenReturn(stream(shipmentResponse))
+            .thenReturn(stream(ratesResponse));
         when(httpClient.newCall(any())).thenReturn(call);
-        when(call.execute()).thenReturn(response);
+        respondWith(response);
 
         // Выполнение
         ShippingRateResponseDto result = shippoService.calculateShippingRates(rateRequest);
@@ -146,15 +151,48 @@ class ShippoServiceTest {
         assertEquals("rate123", result.getRates().get(0).getObjectId());
     }
 
+    @Test
+    void calculateShippingRates_WhenShipmentContainsRates_ShouldSkipRatesRequest() throws IOException {
+        // Подготовка
+        String shipmentResponse = "{\"objectId\":\"ship123\",\"status\":\"SUCCESS\","
+                + "\"rates\":[{\"objectId\":\"rate456\",\"provider\":\"UPS\",\"amount\":\"12.00\"}]}";
+        when(response.isSuccessful()).thenReturn(true);
+        when(response.body()).thenReturn(responseBody);
+        when(responseBody.byteStream()).thenReturn(stream(shipmentResponse));
+        when(httpClient.newCall(any())).thenReturn(call);
+        respondWith(response);
+
+        // Выполнение
+        ShippingRateResponseDto result = shippoService.calculateShippingRates(rateRequest);
+
+        // Проверка
+        assertEquals("rate456", result.getRates().get(0).getObjectId());
+        verify(httpClient, times(1)).newCall(any());
+    }
+
+    @Test
+    void createAddress_WhenConnectionFails_ShouldThrowException() {
+        // Подготовка
+        when(httpClient.newCall(any())).thenReturn(call);
+        doAnswer(invocation -> {
+            invocation.<Callback>getArgument(0).onFailure(call, new IOException("Connection reset"));
+            return null;
+        }).when(call).enqueue(any());
+
+        // Проверка
+        IOException error = assertThrows(IOException.class, () -> shippoService.createAddress(addressDto));
+        assertEquals("Connection reset", error.getMessage());
+    }
+
     @Test
     void generateShippingLabel_WhenSuccessful_ShouldReturnLabel() throws IOException {
         // Подготовка
         String successResponse = "{\"objectId\":\"trans123\",\"status\":\"SUCCESS\",\"label_url\":\"https://label.com/label.pdf\",\"tracking_number\":\"TRACK123\",\"tracking_url_provider\":\"https://tracking.com/TRACK123\"}";
         when(response.isSuccessful()).thenReturn(true);
         when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn(successResponse);
+        when(responseBody.byteStream()).thenReturn(stream(successResponse));
         when(httpClient.newCall(any())).thenReturn(call);
-        when(call.execute()).thenReturn(response);
+        respondWith(response);
 
         // Выполнение
         ShippingLabelResponseDto result = shippoService.generateShippingLabel(labelRequest);
@@ -172,12 +210,24 @@ class ShippoServiceTest {
     void generateShippingLabel_WhenFailed_ShouldThrowException() throws IOException {
         // Подготовка
         when(response.isSuccessful()).thenReturn(false);
-        when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn("Error");
+        when(response.code()).thenReturn(400);
         when(httpClient.newCall(any())).thenReturn(call);
-        when(call.execute()).thenReturn(response);
+        respondWith(response);
 
         // Проверка
         assertThrows(IOException.class, () -> shippoService.generateShippingLabel(labelRequest));
+        // Тело ошибки логирует только OutboundCallInterceptor, с обрезкой
+        verify(response, never()).body();
+    }
+
+    private void respondWith(Response httpResponse) {
+        doAnswer(invocation -> {
+            invocation.<Callback>getArgument(0).onResponse(call, httpResponse);
+            return null;
+        }).when(call).enqueue(any());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package com.ecommerce.shipping.service;
+
+import com.ecommerce.common.exception.InvalidWebhookException;
+import com.ecommerce.shipping.config.ShippoProperties;
+import com.ecommerce.shipping.config.TrackingSyncProperties;
+import com.ecommerce.shipping.dto.ShippoTrackingDto;
+import com.ecommerce.shipping.dto.ShippoWebhookEventDto;
+import com.ecommerce.shipping.exception.ShippoApiException;
+import com.ecommerce.shipping.model.ShippingInfo;
+import com.ecommerce.shipping.model.ShippingStatus;
+import com.ecommerce.shipping.repository.ShippingInfoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@EnableAutoConfiguration(exclude = {
+    org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration.class,
+    org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class
+})
+class TrackingSyncServiceTest {
+    @Autowired
+    private ShippingInfoRepository shippingInfoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ShippoService shippoService = mock(ShippoService.class);
+    private final TrackingSyncProperties properties = new TrackingSyncProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Без долей секунды: так сравнение с прочитанным из базы временем не зависит от точности колонки
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private TrackingSyncService service;
+
+    @BeforeEach
+    void setUp() {
+        shippingInfoRepository.deleteAll();
+        ShippoProperties shippoProperties = new ShippoProperties();
+        shippoProperties.getWebhook().setToken("secret");
+        service = new TrackingSyncService(shippoService, shippingInfoRepository, shippoProperties, properties,
+                transactionManager, meterRegistry);
+    }
+
+    @Test
+    void syncDue_ShouldAdvanceStatusesAndStopTrackingDeliveredShipments() {
+        ShippingInfo labelled = shipment("TRK-1", "usps", ShippingStatus.LABEL_CREATED, null);
+        ShippingInfo moving = shipment("TRK-2", null, ShippingStatus.IN_TRANSIT, null);
+        shipment("TRK-3", "usps", ShippingStatus.DELIVERED, null);
+        when(shippoService.getTrackingInfoByCarrierAsync("TRK-1", "usps")).thenReturn(tracking("TRK-1", "TRANSIT"));
+        when(shippoService.getTrackingInfoAsync("TRK-2")).thenReturn(tracking("TRK-2", "DELIVERED"));
+
+        assertEquals(2, service.refill(now));
+        assertEquals(2, service.syncDue(now));
+
+        ShippingInfo advanced = reload(labelled);
+        assertEquals(ShippingStatus.IN_TRANSIT, advanced.getStatus());
+        assertEquals(now.plus(properties.getInTransitInterval()), advanced.getNextTrackingCheckAt());
+        ShippingInfo delivered = reload(moving);
+        assertEquals(ShippingStatus.DELIVERED, delivered.getStatus());
+        assertNull(delivered.getNextTrackingCheckAt());
+        assertEquals(1, service.scheduledCount());
+        assertEquals(2.0, meterRegistry.counter("shipping.tracking.status.changes", "source", "poll").count());
+
+        // До следующего срока опрашивать нечего
+        assertEquals(0, service.syncDue(now.plusMinutes(30)));
+    }
+
+    @Test
+    void syncDue_ShouldBackOffWhileStatusIsUnchanged() {
+        ShippingInfo moving = shipment("TRK-4", "ups", ShippingStatus.IN_TRANSIT, now);
+        when(shippoService.getTrackingInfoByCarrierAsync("TRK-4", "ups")).thenReturn(tracking("TRK-4", "TRANSIT"));
+        service.refill(now);
+
+        service.syncDue(now);
+        LocalDateTime firstCheck = reload(moving).getNextTrackingCheckAt();
+        assertEquals(now.plus(properties.getInTransitInterval().multipliedBy(2)), firstCheck);
+
+        service.syncDue(firstCheck);
+        LocalDateTime secondCheck = reload(moving).getNextTrackingCheckAt();
+        assertEquals(firstCheck.plus(properties.getInTransitInterval().multipliedBy(4)), secondCheck);
+
+        service.syncDue(secondCheck);
+        service.syncDue(secondCheck.plus(properties.getMaxInterval()));
+        LocalDateTime capped = reload(moving).getNextTrackingCheckAt();
+        assertEquals(secondCheck.plus(properties.getMaxInterval()).plus(properties.getMaxInterval()), capped);
+    }
+
+    @Test
+    void syncDue_ShouldKeepStatusAndRetryLaterWhenLookupFails() {
+        ShippingInfo moving = shipment("TRK-5", "ups", ShippingStatus.SHIPPED, null);
+        when(shippoService.getTrackingInfoByCarrierAsync("TRK-5", "ups"))
+                .thenReturn(CompletableFuture.failedFuture(new ShippoApiException("Too many requests", 429)));
+        service.refill(now);
+
+        service.syncDue(now);
+
+        ShippingInfo unchanged = reload(moving);
+        assertEquals(ShippingStatus.SHIPPED, unchanged.getStatus());
+        assertEquals(now.plus(properties.getInTransitInterval().multipliedBy(2)), unchanged.getNextTrackingCheckAt());
+        assertEquals(1, service.scheduledCount());
+    }
+
+    @Test
+    void syncDue_ShouldSpendAtMostTheRequestBudgetPerTick() {
+        properties.setRequestsPerTick(2);
+        for (int i = 0; i < 5; i++) {
+            shipment("TRK-B" + i, null, ShippingStatus.IN_TRANSIT, now.minusMinutes(5 - i));
+        }
+        when(shippoService.getTrackingInfoAsync(anyString())).thenReturn(tracking(null, "TRANSIT"));
+        service.refill(now);
+
+        assertEquals(2, service.syncDue(now));
+        // Первыми опрошены самые просроченные
+        verify(shippoService).getTrackingInfoAsync("TRK-B0");
+        verify(shippoService).getTrackingInfoAsync("TRK-B1");
+        verify(shippoService, never()).getTrackingInfoAsync("TRK-B4");
+
+        assertEquals(2, service.syncDue(now));
+        assertEquals(1, service.syncDue(now));
+        verify(shippoService, times(5)).getTrackingInfoAsync(anyString());
+    }
+
+    @Test
+    void webhook_ShouldApplyForwardOnlyAndRescheduleShipment() {
+        ShippingInfo moving = shipment("TRK-6", "usps", ShippingStatus.IN_TRANSIT, null);
+        service.refill(now);
+
+        service.receiveWebhook("secret", event("TRK-6", "DELIVERED"));
+        assertEquals(ShippingStatus.DELIVERED, reload(moving).getStatus());
+        assertNull(reload(moving).getNextTrackingCheckAt());
+        assertEquals(0, service.scheduledCount());
+
+        // Запоздавшее событие не откатывает статус
+        service.receiveWebhook("secret", event("TRK-6", "TRANSIT"));
+        assertEquals(ShippingStatus.DELIVERED, reload(moving).getStatus());
+    }
+
+    @Test
+    void webhook_ShouldDeferPollingForCoveredShipments() {
+        ShippingInfo labelled = shipment("TRK-7", "usps", ShippingStatus.LABEL_CREATED, null);
+        service.refill(now);
+
+        assertTrue(service.applyTrackingEvent(tracking("TRK-7", "TRANSIT").join(), now));
+
+        ShippingInfo advanced = reload(labelled);
+        assertEquals(ShippingStatus.IN_TRANSIT, advanced.getStatus());
+        assertEquals(now.plus(properties.getWebhookInterval()), advanced.getNextTrackingCheckAt());
+        assertEquals(0, service.syncDue(now.plusHours(6)));
+        verify(shippoService, never()).getTrackingInfoByCarrierAsync(anyString(), anyString());
+    }
+
+    @Test
+    void webhook_ShouldRejectWrongToken() {
+        ShippingInfo labelled = shipment("TRK-8", "usps", ShippingStatus.LABEL_CREATED, null);
+
+        assertThrows(InvalidWebhookException.class, () -> service.receiveWebhook("guess", event("TRK-8", "DELIVERED")));
+        assertThrows(InvalidWebhookException.class, () -> service.receiveWebhook(null, event("TRK-8", "DELIVERED")));
+        assertEquals(ShippingStatus.LABEL_CREATED, reload(labelled).getStatus());
+    }
+
+    private ShippingInfo shipment(String trackingNumber, String carrier, ShippingStatus status, LocalDateTime nextCheckAt) {
+        ShippingInfo shippingInfo = new ShippingInfo();
+        shippingInfo.setOrderId("order-" + trackingNumber);
+        shippingInfo.setTrackingNumber(trackingNumber);
+        shippingInfo.setCarrier(carrier);
+        shippingInfo.setStatus(status);
+        shippingInfo.setNextTrackingCheckAt(nextCheckAt);
+        return shippingInfoRepository.save(shippingInfo);
+    }
+
+    private ShippingInfo reload(ShippingInfo shippingInfo) {
+        return shippingInfoRepository.findById(shippingInfo.getId()).orElseThrow();
+    }
+
+    private static CompletableFuture<ShippoTrackingDto> tracking(String trackingNumber, String status) {
+        ShippoTrackingDto.TrackingStatus trackingStatus = new ShippoTrackingDto.TrackingStatus();
+        trackingStatus.setStatus(status);
+        ShippoTrackingDto tracking = new ShippoTrackingDto();
+        tracking.setTrackingNumber(trackingNumber);
+        tracking.setTrackingStatus(trackingStatus);
+        return CompletableFuture.completedFuture(tracking);
+    }
+
+    private static ShippoWebhookEventDto event(String trackingNumber, String status) {
+        ShippoWebhookEventDto event = new ShippoWebhookEventDto();
+        event.setEvent(TrackingSyncService.TRACK_UPDATED);
+        event.setData(tracking(trackingNumber, status).join());
+        return event;
+    }
+}
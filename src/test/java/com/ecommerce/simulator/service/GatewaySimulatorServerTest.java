@@ -0,0 +1,140 @@
+package com.ecommerce.simulator.service;
+
+import com.ecommerce.shipping.config.ShippoProperties;
+import com.ecommerce.shipping.dto.ShippingLabelRequestDto;
+import com.ecommerce.shipping.dto.ShippingLabelResponseDto;
+import com.ecommerce.shipping.dto.ShippingRateRequestDto;
+import com.ecommerce.shipping.dto.ShippingRateResponseDto;
+import com.ecommerce.shipping.dto.ShippoAddressDto;
+import com.ecommerce.shipping.dto.ShippoParcelDto;
+import com.ecommerce.shipping.dto.ShippoResponseDto;
+import com.ecommerce.shipping.service.ShippoService;
+import com.ecommerce.simulator.config.SimulatorProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.paypal.api.payments.Amount;
+import com.paypal.api.payments.Payer;
+import com.paypal.api.payments.Payment;
+import com.paypal.api.payments.PaymentExecution;
+import com.paypal.api.payments.RedirectUrls;
+import com.paypal.api.payments.Transaction;
+import com.paypal.base.Constants;
+import com.paypal.base.rest.APIContext;
+import com.paypal.base.rest.OAuthTokenCredential;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewaySimulatorServerTest {
+    private GatewaySimulatorServer server;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.setPort(0);
+        properties.setSeed(1L);
+        properties.getPaypal().setMedianMs(1);
+        properties.getPaypal().setP99Ms(5);
+        properties.getShippo().setMedianMs(1);
+        properties.getShippo().setP99Ms(5);
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        server = new GatewaySimulatorServer(properties, objectMapper);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void shippoServiceWorksAgainstSimulator() throws Exception {
+        ShippoService shippoService = shippoService();
+
+        ShippingRateResponseDto rates = shippoService.calculateShippingRates(new ShippingRateRequestDto());
+        assertNull(rates.getError());
+        assertEquals(3, rates.getRates().size());
+
+        ShippingLabelRequestDto labelRequest = new ShippingLabelRequestDto();
+        labelRequest.setRateId(rates.getRates().get(0).getObjectId());
+        ShippingLabelResponseDto label = shippoService.generateShippingLabel(labelRequest);
+        assertEquals("SUCCESS", label.getStatus());
+        assertNotNull(label.getTrackingNumber());
+        assertNotNull(shippoService.getTrackingInfo(label.getTrackingNumber()).getTrackingStatus());
+    }
+
+    @Test
+    void shippoCreationsCanRunConcurrently() {
+        ShippoService shippoService = shippoService();
+
+        CompletableFuture<ShippoResponseDto> from = shippoService.createAddressAsync(new ShippoAddressDto());
+        CompletableFuture<ShippoResponseDto> to = shippoService.createAddressAsync(new ShippoAddressDto());
+        CompletableFuture<ShippoResponseDto> parcel = shippoService.createParcelAsync(new ShippoParcelDto());
+        CompletableFuture.allOf(from, to, parcel).join();
+
+        assertTrue(from.join().getObjectId().startsWith("add_"));
+        assertNotEquals(from.join().getObjectId(), to.join().getObjectId());
+        assertTrue(parcel.join().getObjectId().startsWith("par_"));
+    }
+
+    @Test
+    void payPalSdkWorksAgainstSimulator() throws Exception {
+        Map<String, String> config = new HashMap<>();
+        config.put("mode", "sandbox");
+        config.put(Constants.ENDPOINT, "http://127.0.0.1:" + server.getPort() + "/paypal/");
+        config.put(Constants.OAUTH_ENDPOINT, "http://127.0.0.1:" + server.getPort() + "/paypal/");
+
+        String accessToken = new OAuthTokenCredential("client", "secret", config).getAccessToken();
+        APIContext context = new APIContext(accessToken);
+        context.setConfigurationMap(config);
+
+        Payment created = newPayment().create(context);
+        assertEquals("created", created.getState());
+        assertTrue(created.getLinks().stream().anyMatch(link -> "approval_url".equals(link.getRel())));
+
+        PaymentExecution execution = new PaymentExecution();
+        execution.setPayerId("PAYER-1");
+        Payment executed = created.execute(context, execution);
+        assertEquals("approved", executed.getState());
+        assertEquals("approved", Payment.get(context, created.getId()).getState());
+    }
+
+    private ShippoService shippoService() {
+        ShippoProperties shippoProperties = new ShippoProperties();
+        shippoProperties.getApi().setKey("simulator-key");
+        shippoProperties.getApi().setBaseUrl("http://127.0.0.1:" + server.getPort() + "/shippo");
+        return new ShippoService(objectMapper, new OkHttpClient(), shippoProperties);
+    }
+
+    private static Payment newPayment() {
+        Amount amount = new Amount();
+        amount.setCurrency("USD");
+        amount.setTotal("10.00");
+        Transaction transaction = new Transaction();
+        transaction.setAmount(amount);
+        Payer payer = new Payer();
+        payer.setPaymentMethod("paypal");
+        RedirectUrls redirectUrls = new RedirectUrls();
+        redirectUrls.setCancelUrl("http://localhost/cancel");
+        redirectUrls.setReturnUrl("http://localhost/success");
+
+        Payment payment = new Payment();
+        payment.setIntent("sale");
+        payment.setPayer(payer);
+        payment.setTransactions(List.of(transaction));
+        payment.setRedirectUrls(redirectUrls);
+        return payment;
+    }
+}
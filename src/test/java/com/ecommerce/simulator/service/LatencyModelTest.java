@@ -0,0 +1,61 @@
+package com.ecommerce.simulator.service;
+
+import com.ecommerce.simulator.config.SimulatorProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyModelTest {
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void delaysFollowConfiguredMedianAndTail() {
+        SimulatorProperties.Gateway settings = new SimulatorProperties.Gateway();
+        settings.setMedianMs(100);
+        settings.setP99Ms(800);
+        LatencyModel model = new LatencyModel(settings, new Random(42));
+
+        long[] delays = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            delays[i] = model.next().delayMs();
+        }
+        Arrays.sort(delays);
+
+        assertEquals(100, delays[SAMPLES / 2], 5);
+        assertEquals(800, delays[SAMPLES * 99 / 100], 60);
+    }
+
+    @Test
+    void faultsAppearAtConfiguredRates() {
+        SimulatorProperties.Gateway settings = new SimulatorProperties.Gateway();
+        settings.setErrorRate(0.05);
+        settings.setRateLimitRate(0.02);
+        settings.setTimeoutRate(0.01);
+        settings.setTimeoutMs(30_000);
+        LatencyModel model = new LatencyModel(settings, new Random(7));
+
+        int errors = 0;
+        int rateLimited = 0;
+        int timeouts = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            LatencyModel.Decision decision = model.next();
+            switch (decision.outcome()) {
+                case ERROR -> errors++;
+                case RATE_LIMITED -> rateLimited++;
+                case TIMEOUT -> {
+                    timeouts++;
+                    assertEquals(30_000, decision.delayMs());
+                }
+                default -> assertTrue(decision.delayMs() >= 0);
+            }
+        }
+
+        assertEquals(0.05, (double) errors / SAMPLES, 0.005);
+        assertEquals(0.02, (double) rateLimited / SAMPLES, 0.003);
+        assertEquals(0.01, (double) timeouts / SAMPLES, 0.002);
+    }
+}